@@ -0,0 +1,62 @@
+package klondike.benchmark;
+
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+import klondike.controller.KlondikeTextualController;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark of the controller reading a long command script, as a scripted client sends.
+ * The script repeats commands the game turns down, in several cases and with numbers to
+ * skip, so the board is never drawn again and the time is spent reading and parsing the
+ * commands, then ends with q.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CommandBenchmark {
+  private static final String[] COMMANDS =
+      {"mpp 1 1 1\n", "xyz\n", "md abc 9\n", "mpf 3 9\n", "MDF 12\n", "mpp +2 1 -4\n"};
+
+  @Param({"BASIC", "WHITEHEAD"})
+  private Variant variant;
+
+  @Param({"4000000"})
+  private int scriptChars;
+
+  private String script;
+  private Deal<?> deal;
+
+  /**
+   * Writes the script and shuffles the deck.
+   */
+  @Setup
+  public void setUp() {
+    StringBuilder text = new StringBuilder(scriptChars + 2);
+    for (int command = 0; text.length() < scriptChars; command++) {
+      text.append(COMMANDS[command % COMMANDS.length]);
+    }
+    script = text.append("q\n").toString();
+    deal = Deal.of(variant, 52, 0L);
+  }
+
+  @Benchmark
+  public StringBuilder playScript() {
+    StringBuilder output = new StringBuilder();
+    deal.play(new KlondikeTextualController(new StringReader(script), output), 7, 3);
+    return output;
+  }
+}
@@ -0,0 +1,93 @@
+package klondike.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+import klondike.controller.KlondikeController;
+import klondike.model.hw02.Card;
+import klondike.model.hw02.KlondikeModel;
+import klondike.model.hw02.PossibleRank;
+import klondike.model.hw02.PossibleSuits;
+import klondike.model.hw04.BasicKlondike;
+import klondike.model.hw04.WhiteheadKlondike;
+
+/**
+ * A shuffled deck together with a way to make new models to deal it into.
+ * Keeps the card type of the deck and the model together, so the benchmarks can treat the
+ * hw02 model and the hw04 models the same way.
+ *
+ * @param <C> card type of the model and deck.
+ */
+final class Deal<C extends Card> {
+  private final Supplier<KlondikeModel<C>> models;
+  private final List<C> deck;
+
+  private Deal(Supplier<KlondikeModel<C>> models, List<C> deck) {
+    this.models = models;
+    this.deck = deck;
+  }
+
+  /**
+   * Makes a deck of the first suits, shuffled the same way for every variant.
+   *
+   * @param variant  model to deal into.
+   * @param deckSize number of cards, a whole number of suits.
+   * @param seed     seed of the shuffle.
+   * @return the deal.
+   * @throws IllegalArgumentException if the deck size isn't one to four whole suits.
+   */
+  static Deal<?> of(Variant variant, int deckSize, long seed) {
+    return switch (variant) {
+      case HW02_BASIC -> of(klondike.model.hw02.BasicKlondike::new, deckSize, seed,
+          klondike.model.hw02.ValueCard::of);
+      case BASIC -> of(BasicKlondike::new, deckSize, seed, klondike.model.hw04.ValueCard::of);
+      case WHITEHEAD -> of(WhiteheadKlondike::new, deckSize, seed,
+          klondike.model.hw04.ValueCard::of);
+    };
+  }
+
+  private static <C extends Card> Deal<C> of(Supplier<? extends KlondikeModel<C>> models,
+                                             int deckSize, long seed,
+                                             BiFunction<PossibleSuits, PossibleRank, C> cards) {
+    int ranks = PossibleRank.values().length;
+    int suits = deckSize / ranks;
+    if (deckSize % ranks != 0 || suits < 1 || suits > PossibleSuits.values().length) {
+      throw new IllegalArgumentException("Deck size must be whole suits");
+    }
+    List<C> deck = new ArrayList<>();
+    for (int suit = 0; suit < suits; suit++) {
+      for (PossibleRank rank : PossibleRank.values()) {
+        deck.add(cards.apply(PossibleSuits.values()[suit], rank));
+      }
+    }
+    Collections.shuffle(deck, new Random(seed));
+    return new Deal<>(models::get, deck);
+  }
+
+  /**
+   * Creates a model and starts a game with the deck in its shuffled order.
+   *
+   * @param numPiles number of piles to deal.
+   * @param numDraw  number of draw cards.
+   * @return the started game.
+   */
+  KlondikeModel<C> start(int numPiles, int numDraw) {
+    KlondikeModel<C> model = models.get();
+    model.startGame(deck, false, numPiles, numDraw);
+    return model;
+  }
+
+  /**
+   * Plays a game of the deck through a controller.
+   *
+   * @param controller controller reading the commands.
+   * @param numPiles   number of piles to deal.
+   * @param numDraw    number of draw cards.
+   */
+  void play(KlondikeController controller, int numPiles, int numDraw) {
+    controller.playGame(models.get(), deck, false, numPiles, numDraw);
+  }
+}
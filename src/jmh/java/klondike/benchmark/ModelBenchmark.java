@@ -0,0 +1,132 @@
+package klondike.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import klondike.model.hw02.KlondikeModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the model operations the controller calls on every command.
+ * startGame includes creating the model, since a model can only be started once. movePile
+ * needs a game where the move is legal, so it makes the move on a batch of freshly dealt
+ * games each call and counts every game as an operation. The batch is dealt outside the
+ * time, once for many moves, so the setup and timing of a call don't swamp a single move.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ModelBenchmark {
+  private static final int MAX_SEEDS = 1000;
+  private static final int MOVE_BATCH = 1000;
+
+  @Param({"HW02_BASIC", "BASIC", "WHITEHEAD"})
+  private Variant variant;
+
+  @Param({"4", "7"})
+  private int numPiles;
+
+  @Param({"1", "3"})
+  private int numDraw;
+
+  @Param({"39", "52"})
+  private int deckSize;
+
+  private Deal<?> deal;
+  private KlondikeModel<?> game;
+  private Deal<?> moveDeal;
+  private int moveSource;
+  private int moveDestination;
+
+  /**
+   * Deals the game the read only benchmarks look at and finds a deal with a legal pile move.
+   */
+  @Setup(Level.Trial)
+  public void setUp() {
+    deal = Deal.of(variant, deckSize, 0L);
+    game = deal.start(numPiles, numDraw);
+    for (long seed = 0; seed < MAX_SEEDS; seed++) {
+      moveDeal = Deal.of(variant, deckSize, seed);
+      for (moveSource = 0; moveSource < numPiles; moveSource++) {
+        for (moveDestination = 0; moveDestination < numPiles; moveDestination++) {
+          if (moveSource != moveDestination && canMove()) {
+            return;
+          }
+        }
+      }
+    }
+    throw new IllegalStateException("No deal has a pile move");
+  }
+
+  /**
+   * Helper that tries the pile move on a fresh game of the move deal.
+   *
+   * @return boolean if the move was legal.
+   */
+  private boolean canMove() {
+    try {
+      moveDeal.start(numPiles, numDraw).movePile(moveSource, 1, moveDestination);
+      return true;
+    } catch (IllegalArgumentException | IllegalStateException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Games for the next movePile call, kept in their own state so that only movePile deals
+   * before every call.
+   */
+  @State(Scope.Thread)
+  public static class MoveGames {
+    private final KlondikeModel<?>[] games = new KlondikeModel<?>[MOVE_BATCH];
+
+    /**
+     * Deals a fresh batch of games of the move deal.
+     *
+     * @param benchmark the benchmark state, holding the move deal.
+     */
+    @Setup(Level.Invocation)
+    public void deal(ModelBenchmark benchmark) {
+      for (int index = 0; index < games.length; index++) {
+        games[index] = benchmark.moveDeal.start(benchmark.numPiles, benchmark.numDraw);
+      }
+    }
+  }
+
+  @Benchmark
+  public KlondikeModel<?> startGame() {
+    return deal.start(numPiles, numDraw);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(MOVE_BATCH)
+  public KlondikeModel<?>[] movePile(MoveGames moveGames) {
+    for (KlondikeModel<?> game : moveGames.games) {
+      game.movePile(moveSource, 1, moveDestination);
+    }
+    return moveGames.games;
+  }
+
+  @Benchmark
+  public boolean isGameOver() {
+    return game.isGameOver();
+  }
+
+  @Benchmark
+  public int getScore() {
+    return game.getScore();
+  }
+}
@@ -0,0 +1,69 @@
+package klondike.benchmark;
+
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+import klondike.controller.KlondikeTextualController;
+import klondike.view.KlondikeTextualView;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of drawing the board as text and of a short game through the controller.
+ * The controller game deals, draws the board after every command, and ends with q, so it
+ * measures what one round of the text game costs end to end.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TextualBenchmark {
+  private static final String COMMANDS = "dd dd dd dd dd dd dd dd q";
+
+  @Param({"HW02_BASIC", "BASIC", "WHITEHEAD"})
+  private Variant variant;
+
+  @Param({"4", "7"})
+  private int numPiles;
+
+  @Param({"1", "3"})
+  private int numDraw;
+
+  @Param({"39", "52"})
+  private int deckSize;
+
+  private Deal<?> deal;
+  private KlondikeTextualView view;
+
+  /**
+   * Deals the game the view draws.
+   */
+  @Setup
+  public void setUp() {
+    deal = Deal.of(variant, deckSize, 0L);
+    view = new KlondikeTextualView(deal.start(numPiles, numDraw));
+  }
+
+  @Benchmark
+  public String viewToString() {
+    return view.toString();
+  }
+
+  @Benchmark
+  public StringBuilder controllerGame() {
+    StringBuilder output = new StringBuilder();
+    deal.play(new KlondikeTextualController(new StringReader(COMMANDS), output), numPiles,
+        numDraw);
+    return output;
+  }
+}
@@ -0,0 +1,10 @@
+package klondike.benchmark;
+
+/**
+ * The models the benchmarks are run against.
+ */
+public enum Variant {
+  HW02_BASIC,
+  BASIC,
+  WHITEHEAD,
+}
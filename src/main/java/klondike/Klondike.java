@@ -1,10 +1,14 @@
 package klondike;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
 import klondike.controller.KlondikeController;
 import klondike.controller.KlondikeTextualController;
 import klondike.model.hw04.KlondikeCreator;
 import klondike.model.hw04.KlondikeModel;
 import klondike.model.hw04.ValueCard;
+import klondike.server.KlondikeServer;
 
 
 /**
@@ -16,6 +20,8 @@ public final class Klondike {
   /**
    * Main method that runs Klondike and deciphers the chosen game via the string given by the user.
    * Parses through the input given by user for piles param and numDraws param.
+   * A fourth argument of ansi redraws only the changed lines of the board, for terminals.
+   * A first argument of server runs the game server for many players instead.
    *
    * @param args system.in string array.
    */
@@ -24,22 +30,62 @@ public final class Klondike {
       if (args.length == 0) {
         throw new IllegalArgumentException();
       }
+      if (args[0].equalsIgnoreCase("server")) {
+        serve(args);
+        return;
+      }
       String variant = args[0].toLowerCase();
       int piles = args.length > 1 ? Integer.parseInt(args[1]) : 7;
       int draws = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+      boolean terminal = args.length > 3 && args[3].equalsIgnoreCase("ansi");
       if (piles <= 0 || draws <= 0) {
         return;
       }
-      KlondikeModel<ValueCard> model = switch (variant) {
-        case "whitehead" -> KlondikeCreator.create(KlondikeCreator.GameType.WHITEHEAD);
-        case "basic" -> KlondikeCreator.create(KlondikeCreator.GameType.BASIC);
-        default -> throw new IllegalArgumentException();
-      };
+      KlondikeModel<ValueCard> model = KlondikeCreator.create(gameType(variant));
       KlondikeController controller =
-          new KlondikeTextualController(new java.io.InputStreamReader(System.in), System.out);
+          new KlondikeTextualController(new InputStreamReader(System.in), System.out,
+              terminal);
       controller.playGame(model, model.createNewDeck(), true, piles, draws);
     } catch (Exception e) {
       //
     }
   }
+
+  /**
+   * Helper that deciphers a game type from the name the user typed.
+   *
+   * @param variant name of the game, basic or whitehead.
+   * @return the game type.
+   * @throws IllegalArgumentException if the name is not a game.
+   */
+  private static KlondikeCreator.GameType gameType(String variant) {
+    return switch (variant.toLowerCase()) {
+      case "whitehead" -> KlondikeCreator.GameType.WHITEHEAD;
+      case "basic" -> KlondikeCreator.GameType.BASIC;
+      default -> throw new IllegalArgumentException();
+    };
+  }
+
+  /**
+   * Helper that runs the game server, given server, a port and optionally a game name,
+   * piles and draws. Players connect over TCP on the loopback address. The server shuts
+   * down when a line saying quit, or the end of input, is read from System.in.
+   *
+   * @param args system.in string array, starting with server.
+   * @throws IOException if the port can't be opened or System.in can't be read.
+   */
+  private static void serve(String[] args) throws IOException {
+    int port = Integer.parseInt(args[1]);
+    KlondikeCreator.GameType type = gameType(args.length > 2 ? args[2] : "basic");
+    int piles = args.length > 3 ? Integer.parseInt(args[3]) : 7;
+    int draws = args.length > 4 ? Integer.parseInt(args[4]) : 3;
+    try (KlondikeServer server = new KlondikeServer(type, piles, draws)) {
+      System.out.println("Listening on port " + server.start(port));
+      BufferedReader in = new BufferedReader(new InputStreamReader(System.in));
+      String line = in.readLine();
+      while (line != null && !line.trim().equalsIgnoreCase("quit")) {
+        line = in.readLine();
+      }
+    }
+  }
 }
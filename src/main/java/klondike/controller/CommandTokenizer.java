@@ -0,0 +1,216 @@
+package klondike.controller;
+
+import java.io.IOException;
+import java.nio.CharBuffer;
+
+/**
+ * Splits the controller's input into tokens separated by whitespace, like a Scanner with
+ * its default delimiter, without making a String of each token.
+ * The input is read through one CharBuffer that is reused for the whole game, and a token is
+ * looked at where it lies in the buffer: as a command, as q, or as a number parsed the way
+ * Integer.parseInt would. More input is only read when the buffer runs out before a token
+ * ends, so an interactive player's command is handled as soon as it is typed.
+ * As with a Scanner, a Readable that throws an IOException is treated as ended.
+ */
+final class CommandTokenizer {
+  /**
+   * Commands of the text game.
+   */
+  enum Command {
+    QUIT, MOVE, MOVE_PILE, MOVE_DRAW, MOVE_TO_FOUNDATION, MOVE_DRAW_TO_FOUNDATION, DISCARD,
+    UNDO, REDO
+  }
+
+  private static final int BUFFER = 8192;
+
+  private final Readable rd;
+  private CharBuffer buffer = CharBuffer.allocate(BUFFER);
+  private boolean ended;
+  private int length;
+  private int value;
+
+  /**
+   * Constructor for a tokenizer of a Readable.
+   *
+   * @param rd the input.
+   */
+  CommandTokenizer(Readable rd) {
+    this.rd = rd;
+    buffer.flip();
+  }
+
+  /**
+   * Says whether there is another token, reading more input if needed.
+   * The token stays the current one until skipped.
+   *
+   * @return false if the input ends first.
+   */
+  boolean hasNext() {
+    if (length > 0) {
+      return true;
+    }
+    while (true) {
+      int start = buffer.position();
+      while (start < buffer.limit() && Character.isWhitespace(buffer.get(start))) {
+        start++;
+      }
+      buffer.position(start);
+      if (buffer.hasRemaining()) {
+        break;
+      }
+      if (!fill()) {
+        return false;
+      }
+    }
+    int end = buffer.position();
+    while (true) {
+      while (end < buffer.limit() && !Character.isWhitespace(buffer.get(end))) {
+        end++;
+      }
+      if (end < buffer.limit()) {
+        break;
+      }
+      int read = end - buffer.position();
+      boolean more = fill();
+      end = buffer.position() + read;
+      if (!more) {
+        break;
+      }
+    }
+    length = end - buffer.position();
+    return true;
+  }
+
+  /**
+   * Moves past the current token.
+   */
+  void skip() {
+    buffer.position(buffer.position() + length);
+    length = 0;
+  }
+
+  /**
+   * Says whether the current token is q, in either case.
+   *
+   * @return true if the player quit.
+   */
+  boolean isQuit() {
+    char first = buffer.get(buffer.position());
+    return length == 1 && (first == 'q' || first == 'Q');
+  }
+
+  /**
+   * Gives the command the current token names, in any case.
+   *
+   * @return the command, or null if the token is not one.
+   */
+  Command command() {
+    int start = buffer.position();
+    char first = Character.toLowerCase(buffer.get(start));
+    if (length == 1) {
+      return switch (first) {
+        case 'q' -> Command.QUIT;
+        case 'm' -> Command.MOVE;
+        case 'u' -> Command.UNDO;
+        case 'r' -> Command.REDO;
+        default -> null;
+      };
+    }
+    char second = Character.toLowerCase(buffer.get(start + 1));
+    if (length == 2) {
+      if (first == 'm' && second == 'd') {
+        return Command.MOVE_DRAW;
+      }
+      return first == 'd' && second == 'd' ? Command.DISCARD : null;
+    }
+    if (length != 3 || first != 'm') {
+      return null;
+    }
+    char third = Character.toLowerCase(buffer.get(start + 2));
+    if (second == 'p' && third == 'p') {
+      return Command.MOVE_PILE;
+    } else if (second == 'p' && third == 'f') {
+      return Command.MOVE_TO_FOUNDATION;
+    } else if (second == 'd' && third == 'f') {
+      return Command.MOVE_DRAW_TO_FOUNDATION;
+    }
+    return null;
+  }
+
+  /**
+   * Parses the current token as a number, accepting what Integer.parseInt accepts: a sign,
+   * then decimal digits, without overflow.
+   *
+   * @return true if the token is a number, which value then gives.
+   */
+  boolean isInt() {
+    int index = buffer.position();
+    int end = index + length;
+    boolean negative = false;
+    char first = buffer.get(index);
+    if (first == '-' || first == '+') {
+      negative = first == '-';
+      index++;
+      if (index == end) {
+        return false;
+      }
+    }
+    int limit = negative ? Integer.MIN_VALUE : -Integer.MAX_VALUE;
+    int result = 0;
+    for (; index < end; index++) {
+      int digit = Character.digit(buffer.get(index), 10);
+      if (digit < 0 || result < limit / 10) {
+        return false;
+      }
+      result *= 10;
+      if (result < limit + digit) {
+        return false;
+      }
+      result -= digit;
+    }
+    value = negative ? result : -result;
+    return true;
+  }
+
+  /**
+   * Gives the number isInt last parsed.
+   *
+   * @return the number.
+   */
+  int value() {
+    return value;
+  }
+
+  /**
+   * Helper that reads more input after what is left in the buffer, growing the buffer if a
+   * token fills all of it.
+   *
+   * @return false if the input has ended.
+   */
+  private boolean fill() {
+    if (ended) {
+      return false;
+    }
+    if (buffer.position() == 0 && buffer.limit() == buffer.capacity()) {
+      CharBuffer bigger = CharBuffer.allocate(buffer.capacity() * 2);
+      bigger.put(buffer);
+      buffer = bigger;
+    } else {
+      buffer.compact();
+    }
+    int read;
+    try {
+      do {
+        read = rd.read(buffer);
+      } while (read == 0);
+    } catch (IOException e) {
+      read = -1;
+    }
+    buffer.flip();
+    if (read < 0) {
+      ended = true;
+      return false;
+    }
+    return true;
+  }
+}
@@ -2,36 +2,55 @@ package klondike.controller;
 
 import java.io.IOException;
 import java.util.List;
-import java.util.Scanner;
+import klondike.controller.CommandTokenizer.Command;
 import klondike.model.hw02.Card;
 import klondike.model.hw02.KlondikeModel;
+import klondike.model.hw04.MoveStatus;
+import klondike.model.hw04.TryMoves;
+import klondike.model.hw04.Undoable;
+import klondike.view.KlondikeDiffView;
 import klondike.view.KlondikeTextualView;
 import klondike.view.TextualView;
 
 /**
  * Class that takes input from the user to feed to the model.
- * Uses scanner to get strings and ints from the user.
+ * Uses a CommandTokenizer to get commands and ints from the user.
  */
 public class KlondikeTextualController implements KlondikeController {
-  private final Readable rd;
   private final Appendable ap;
-  private final Scanner sc;
+  private final CommandTokenizer tokens;
+  private final boolean terminal;
 
   /**
    * Constructor to initialize the Klondike Controller.
-   * Takes two params one of which is used to create a scanner object to parse through the string.
+   * Takes two params one of which is used to create a tokenizer to parse through the string.
    *
    * @param rd Readable to
    * @param ap Appendable to
    * @throws IllegalArgumentException params are invalid if null.
    */
   public KlondikeTextualController(Readable rd, Appendable ap) throws IllegalArgumentException {
+    this(rd, ap, false);
+  }
+
+  /**
+   * Constructor to initialize the Klondike Controller for a plain output or a terminal.
+   * On a terminal, models with snapshots are drawn by a KlondikeDiffView, which only
+   * redraws the lines of the board that changed after each move.
+   *
+   * @param rd       Readable to
+   * @param ap       Appendable to
+   * @param terminal true if ap is an ANSI terminal.
+   * @throws IllegalArgumentException params are invalid if null.
+   */
+  public KlondikeTextualController(Readable rd, Appendable ap, boolean terminal)
+      throws IllegalArgumentException {
     if (rd == null || ap == null) {
       throw new IllegalArgumentException("rd or ap is null");
     }
-    this.rd = rd;
     this.ap = ap;
-    this.sc = new Scanner(rd);
+    this.tokens = new CommandTokenizer(rd);
+    this.terminal = terminal;
   }
 
   /**
@@ -57,15 +76,17 @@ public class KlondikeTextualController implements KlondikeController {
     } catch (IllegalStateException | IllegalArgumentException e) {
       throw new IllegalStateException("Not possible to Start", e);
     }
-    TextualView view = new KlondikeTextualView(model, ap);
+    TextualView view = terminal && model instanceof klondike.model.hw04.KlondikeModel
+        ? new KlondikeDiffView((klondike.model.hw04.KlondikeModel<?>) model, ap)
+        : new KlondikeTextualView(model, ap);
     try {
       renderState(view, model);
       while (!model.isGameOver()) {
-        if (!sc.hasNext()) {
+        if (!tokens.hasNext()) {
           throw new IllegalStateException("No more input");
         }
-        String next = nextCommand();
-        if (next.equals("q")) {
+        Command next = nextCommand();
+        if (next == Command.QUIT) {
           quitGame(view, model);
           return;
         }
@@ -93,45 +114,44 @@ public class KlondikeTextualController implements KlondikeController {
   }
 
   /**
-   * Helper method used to check if a scanner has a next int needed for a model.
-   * Uses a scanner object to get a next int or command.
+   * Helper method used to get the next int needed for a model.
+   * Tokens that are not numbers are skipped.
    *
    * @return An int needed for the model.
    * @throws QuitException If user decides to quit.
    */
   private int nextInt() throws QuitException {
     while (true) {
-      if (!sc.hasNext()) {
+      if (!tokens.hasNext()) {
         throw new IllegalStateException("No more input");
       }
-      String next = sc.next();
-      if (next.equalsIgnoreCase("q")) {
+      if (tokens.isQuit()) {
+        tokens.skip();
         throw new QuitException();
       }
-      try {
-        return Integer.parseInt(next);
-      } catch (NumberFormatException e) {
-        // ignore
+      boolean number = tokens.isInt();
+      tokens.skip();
+      if (number) {
+        return tokens.value();
       }
     }
   }
 
   /**
-   * Helper method helps get next Scanner object command.
+   * Helper method that gets the next command, skipping tokens that are not commands.
+   * Running out of input while looking for one counts as quitting.
    *
-   * @return the cmd that pertains to a command.
+   * @return the command.
    * @throws IOException if it cannot append to appendable object.
    */
-  private String nextCommand() throws IOException {
+  private Command nextCommand() throws IOException {
     while (true) {
-      if (!sc.hasNextLine()) {
-        return "q";
+      if (!tokens.hasNext()) {
+        return Command.QUIT;
       }
-      String next = sc.next().toLowerCase();
-      if (next.equals("q")) {
-        return "q";
-      }
-      if (next.matches("m(pp|d|pf|df)?") || next.equals("dd")) {
+      Command next = tokens.command();
+      tokens.skip();
+      if (next != null) {
         return next;
       }
       ap.append("Invalid move. Play again.\n");
@@ -140,33 +160,49 @@ public class KlondikeTextualController implements KlondikeController {
 
   /**
    * Helper that takes in a good command and feeds it to the model.
+   * Moves on models with try versions are checked by status instead of by exception,
+   * undo and redo always go through the exception path. Either way, input that runs out
+   * partway through a move makes it an invalid move.
    *
    * @param model KlondikeModel that is given inputs for the game.
-   * @param next  String that contains the next command for the model.
+   * @param next  the next command for the model.
    * @param view  TextualView that will output game model if quitException is given.
    * @param <C>   Card type for the model.
    * @return A boolean that tells play game if a move was successful.
    * @throws IOException for quitException.
    */
-  private <C extends Card> boolean doCommand(KlondikeModel<C> model, String next, TextualView view)
-      throws IOException {
+  private <C extends Card> boolean doCommand(KlondikeModel<C> model, Command next,
+                                             TextualView view) throws IOException {
     try {
+      if (model instanceof TryMoves && next != Command.UNDO && next != Command.REDO) {
+        if (tryCommand((TryMoves) model, next).isOk()) {
+          return true;
+        }
+        ap.append("Invalid move. Play again.\n");
+        return false;
+      }
       switch (next) {
-        case "mpp":
+        case MOVE_PILE:
           model.movePile(nextInt() - 1, nextInt(), nextInt() - 1);
           return true;
-        case "md":
+        case MOVE_DRAW:
           model.moveDraw(nextInt() - 1);
           return true;
-        case "mpf":
+        case MOVE_TO_FOUNDATION:
           model.moveToFoundation(nextInt() - 1, nextInt() - 1);
           return true;
-        case "mdf":
+        case MOVE_DRAW_TO_FOUNDATION:
           model.moveDrawToFoundation(nextInt() - 1);
           return true;
-        case "dd":
+        case DISCARD:
           model.discardDraw();
           return true;
+        case UNDO:
+          undoable(model).undo();
+          return true;
+        case REDO:
+          undoable(model).redo();
+          return true;
         default:
           ap.append("Invalid move. Play again.\n");
           return false;
@@ -177,6 +213,47 @@ public class KlondikeTextualController implements KlondikeController {
     }
   }
 
+  /**
+   * Helper that feeds a good command to the try version of the move.
+   *
+   * @param model model with try versions of the moves.
+   * @param next  the next command for the model.
+   * @return the status of the move.
+   * @throws IOException for quitException.
+   */
+  private MoveStatus tryCommand(TryMoves model, Command next) throws IOException {
+    switch (next) {
+      case MOVE_PILE:
+        return model.tryMovePile(nextInt() - 1, nextInt(), nextInt() - 1);
+      case MOVE_DRAW:
+        return model.tryMoveDraw(nextInt() - 1);
+      case MOVE_TO_FOUNDATION:
+        return model.tryMoveToFoundation(nextInt() - 1, nextInt() - 1);
+      case MOVE_DRAW_TO_FOUNDATION:
+        return model.tryMoveDrawToFoundation(nextInt() - 1);
+      case DISCARD:
+        return model.tryDiscardDraw();
+      default:
+        return MoveStatus.INVALID_ARGUMENT;
+    }
+  }
+
+  /**
+   * Helper that gives the undo and redo behaviors of a model.
+   * Models that cannot take moves back make undo and redo invalid moves.
+   *
+   * @param model KlondikeModel being played.
+   * @param <C>   Card type for the model.
+   * @return the model as an Undoable.
+   * @throws IllegalStateException if the model does not support undo.
+   */
+  private <C extends Card> Undoable undoable(KlondikeModel<C> model) {
+    if (!(model instanceof Undoable)) {
+      throw new IllegalStateException("Model cannot undo moves");
+    }
+    return (Undoable) model;
+  }
+
   /**
    * Helper method used to append the state of the game to the appendable object.
    * Used to display score during the game.
@@ -2,12 +2,8 @@ package klondike.model.hw02;
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
-import java.util.Set;
 
 /**
  * A class that implements the KlondikeModel interface with ValueCard type objects.
@@ -18,8 +14,7 @@ public class BasicKlondike implements KlondikeModel<ValueCard> {
   private List<ValueCard> deck;
   private List<List<ValueCard>> piles;
   private List<List<ValueCard>> foundations;
-  private List<ValueCard> hand;
-  private List<ValueCard> drawDeck;
+  private CardQueue<ValueCard> stock;
   private boolean gameStart;
   private int numDraw;
   /*
@@ -39,8 +34,7 @@ public class BasicKlondike implements KlondikeModel<ValueCard> {
     this.deck = new ArrayList<ValueCard>();
     this.piles = new ArrayList<>();
     this.foundations = new ArrayList<>();
-    this.hand = new ArrayList<>();
-    this.drawDeck = new ArrayList<>();
+    this.stock = new CardQueue<>();
     this.gameStart = false;
     this.numDraw = 0;
   }
@@ -59,7 +53,7 @@ public class BasicKlondike implements KlondikeModel<ValueCard> {
     List<ValueCard> newDeck = new ArrayList<ValueCard>();
     for (PossibleRank rank : PossibleRank.values()) {
       for (PossibleSuits suit : PossibleSuits.values()) {
-        newDeck.add(new ValueCard(suit, rank));
+        newDeck.add(ValueCard.of(suit, rank));
       }
     }
     this.deck = new ArrayList<>(newDeck);
@@ -117,72 +111,43 @@ public class BasicKlondike implements KlondikeModel<ValueCard> {
     this.numDraw = numDraw;
     this.piles.clear();
     this.foundations.clear();
-    this.hand.clear();
-    this.drawDeck.clear();
+    this.stock.clear();
     for (int pile = 0; pile < numPiles; pile++) {
       piles.add(new ArrayList<>());
     }
+    int next = 0;
     for (int rows = 0; rows < numPiles; rows++) {
       for (int columns = rows; columns < numPiles; columns++) {
-        piles.get(columns).add(change.remove(0));
+        piles.get(columns).add(change.get(next++));
       }
     }
-    drawDeck.addAll(change);
-    addCardHand();
+    while (next < change.size()) {
+      stock.addLast(change.get(next++));
+    }
     for (int foundationCard = 0; foundationCard < (deck.size() / 13); foundationCard++) {
       foundations.add(new ArrayList<>());
     }
   }
 
   /**
-   * Helper to add a card to the hand from the deck.
-   * Only adds card if drawDeck is not empty and will only add however
-   * many you are allowed via numDraw.
+   * Helper that gives the number of draw cards currently showing.
+   * The draw cards are always the first numDraw cards of the stock.
+   *
+   * @return how many cards of the stock can be played.
    */
-  private void addCardHand() {
-    while (hand.size() < numDraw && !drawDeck.isEmpty()) {
-      hand.add(drawDeck.remove(0));
-    }
+  private int handSize() {
+    return Math.min(numDraw, stock.size());
   }
 
   /**
    * Checks the deck for complete suits.
-   * Returns false if suit is incomplete.
+   * Returns false if suit is incomplete. Each suit may come in several whole copies.
    *
    * @param deck deck being checked if it can be used in klondike.
    * @return boolean if the deck can be used.
    */
   private boolean checkingValidDecks(List<ValueCard> deck) {
-    if (deck == null || deck.isEmpty()) {
-      return false;
-    }
-    for (ValueCard card : deck) {
-      if (card == null) {
-        return false;
-      }
-    }
-    boolean ace = deck.stream().anyMatch(card -> card.possibleRank == PossibleRank.Ace);
-    if (!ace) {
-      return false;
-    }
-    Map<PossibleSuits, Set<Integer>> map1 = new HashMap<>();
-    for (ValueCard card : deck) {
-      map1.computeIfAbsent(card.possibleSuits, k -> new HashSet<>())
-          .add(card.possibleRank.getNumber());
-    }
-    for (Set<Integer> set : map1.values()) {
-      int min = set.stream().mapToInt(i -> i).min().orElse(1);
-      if (min != 1) {
-        return false;
-      }
-      int max = set.stream().mapToInt(i -> i).max().orElse(13);
-      for (int gapCheck = min; gapCheck <= max; gapCheck++) {
-        if (!set.contains(gapCheck)) {
-          return false;
-        }
-      }
-    }
-    return true;
+    return DeckValidator.foundations(deck) > 0;
   }
 
   /**
@@ -235,6 +200,15 @@ public class BasicKlondike implements KlondikeModel<ValueCard> {
     }
   }
 
+  /**
+   * Helper that throws State Exception if there are no draw cards left.
+   */
+  private void stockCheck() {
+    if (stock.isEmpty()) {
+      throw new IllegalStateException("Illegal State Exception");
+    }
+  }
+
   /**
    * Moves the requested number of cards from the source pile to the destination pile,
    * if allowable by the rules of the game.
@@ -297,10 +271,10 @@ public class BasicKlondike implements KlondikeModel<ValueCard> {
   @Override
   public void moveDraw(int destPile) throws IllegalArgumentException, IllegalStateException {
     gameInProgress();
-    emptyCheck(hand);
+    stockCheck();
     paramLessCheck(destPile, 0);
     paramLessEqualCheck(piles.size(), destPile);
-    ValueCard card = hand.get(0);
+    ValueCard card = stock.get(0);
     List<ValueCard> dest = piles.get(destPile);
     if (dest.isEmpty()) {
       if (card.possibleRank != PossibleRank.King) {
@@ -315,8 +289,7 @@ public class BasicKlondike implements KlondikeModel<ValueCard> {
       }
     }
     dest.add(card);
-    hand.remove(0);
-    addCardHand();
+    stock.removeFirst();
   }
 
   /**
@@ -360,15 +333,9 @@ public class BasicKlondike implements KlondikeModel<ValueCard> {
   public void moveDrawToFoundation(int foundationPile)
       throws IllegalArgumentException, IllegalStateException {
     gameInProgress();
-    if (hand.isEmpty() && drawDeck.isEmpty()) {
+    if (stock.isEmpty()) {
       throw new IllegalStateException("IllegalStateException");
     }
-    if (hand.isEmpty()) {
-      addCardHand();
-      if (hand.isEmpty()) {
-        throw new IllegalStateException("IllegalStateException");
-      }
-    }
     /*
     paramLessCheck(foundationPile, 0);
     paramLessEqualCheck(foundations.size(), foundationPile);
@@ -377,17 +344,14 @@ public class BasicKlondike implements KlondikeModel<ValueCard> {
       throw new IllegalArgumentException("Illegal Argument Exception");
     }
     //emptyCheck(hand);
-    ValueCard card = hand.get(0);
+    ValueCard card = stock.get(0);
     List<ValueCard> foundation = foundations.get(foundationPile);
     //moveDrawTOFoundation with Legal Moves 0/2 here
     if (!canPlaceFoundationCheck(card, foundation)) {
       throw new IllegalStateException("Foundation only card that can be moved");
     }
     foundation.add(card);
-    hand.remove(0);
-    if (!drawDeck.isEmpty()) {
-      addCardHand();
-    }
+    stock.removeFirst();
   }
 
   /**
@@ -399,9 +363,8 @@ public class BasicKlondike implements KlondikeModel<ValueCard> {
   @Override
   public void discardDraw() throws IllegalStateException {
     gameInProgress();
-    emptyCheck(hand);
-    drawDeck.add(hand.remove(0));
-    addCardHand();
+    stockCheck();
+    stock.rotate();
   }
 
   /**
@@ -467,7 +430,7 @@ public class BasicKlondike implements KlondikeModel<ValueCard> {
     if (!availableMove()) {
       return true;
     }
-    return hand.isEmpty() && drawDeck.isEmpty();
+    return stock.isEmpty();
   }
 
   /**
@@ -525,31 +488,7 @@ public class BasicKlondike implements KlondikeModel<ValueCard> {
    * @return a boolean if an available move can be made from the deck or hand.
    */
   private boolean handDeckChecker() {
-    if (!hand.isEmpty()) {
-      for (int hands = 0; hands < hand.size(); hands++) {
-        ValueCard drawCard = hand.get(hands);
-        for (List<ValueCard> foundation : foundations) {
-          if (canPlaceFoundationCheck(drawCard, foundation)) {
-            return true;
-          }
-        }
-        for (List<ValueCard> pile : piles) {
-          if (pile.isEmpty()) {
-            if (drawCard.possibleRank == PossibleRank.King) {
-              return true;
-            }
-          } else {
-            ValueCard topCard = pile.get(pile.size() - 1);
-            if (drawCard.possibleRank.getNumber() == topCard.possibleRank.getNumber() - 1
-                && oppositeColorCheck(drawCard.possibleSuits.getSymbol(),
-                topCard.possibleSuits.getSymbol())) {
-              return true;
-            }
-          }
-        }
-      }
-    }
-    for (ValueCard drawCard : drawDeck) {
+    for (ValueCard drawCard : stock) {
       for (List<ValueCard> foundation : foundations) {
         if (canPlaceFoundationCheck(drawCard, foundation)) {
           return true;
@@ -606,6 +545,22 @@ public class BasicKlondike implements KlondikeModel<ValueCard> {
     return piles.get(pileNum).size();
   }
 
+  /**
+   * Returns the number of cards in every pile, in one call, for code that reads them all.
+   *
+   * @return the pile heights, indexed by 0-based pile number (from the left)
+   * @throws IllegalStateException if the game hasn't been started yet
+   */
+  @Override
+  public int[] getPileHeights() throws IllegalStateException {
+    gameInProgress();
+    int[] heights = new int[piles.size()];
+    for (int pile = 0; pile < heights.length; pile++) {
+      heights[pile] = piles.get(pile).size();
+    }
+    return heights;
+  }
+
   /**
    * Returns the card at the specified coordinates, if it is visible.
    *
@@ -685,7 +640,11 @@ public class BasicKlondike implements KlondikeModel<ValueCard> {
   @Override
   public List<ValueCard> getDrawCards() throws IllegalStateException {
     gameInProgress();
-    return new ArrayList<>(hand);
+    List<ValueCard> drawCards = new ArrayList<>(handSize());
+    for (int index = 0; index < handSize(); index++) {
+      drawCards.add(stock.get(index));
+    }
+    return drawCards;
   }
 
   /**
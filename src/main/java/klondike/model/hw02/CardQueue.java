@@ -0,0 +1,177 @@
+package klondike.model.hw02;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Ring buffer of cards used for the stock and draw cards of a game.
+ * Cards are taken from the front and added at either end in constant time, so drawing,
+ * discarding to the bottom of the stock and dealing never shift the other cards.
+ * The buffer only grows when it is full.
+ *
+ * @param <C> the type of card held.
+ */
+public final class CardQueue<C> implements Iterable<C> {
+  private Object[] cards;
+  private int head;
+  private int size;
+
+  /**
+   * Constructs an empty queue with room for a single deck.
+   */
+  public CardQueue() {
+    this(52);
+  }
+
+  /**
+   * Constructs an empty queue with room for the given number of cards.
+   *
+   * @param capacity number of cards the queue holds before it has to grow.
+   * @throws IllegalArgumentException if the capacity is negative.
+   */
+  public CardQueue(int capacity) {
+    if (capacity < 0) {
+      throw new IllegalArgumentException("Capacity is negative");
+    }
+    this.cards = new Object[Math.max(capacity, 1)];
+    this.head = 0;
+    this.size = 0;
+  }
+
+  /**
+   * Adds a card at the back of the queue.
+   *
+   * @param card card being added.
+   */
+  public void addLast(C card) {
+    if (size == cards.length) {
+      grow();
+    }
+    cards[wrap(head + size)] = card;
+    size++;
+  }
+
+  /**
+   * Adds a card at the front of the queue.
+   *
+   * @param card card being added.
+   */
+  public void addFirst(C card) {
+    if (size == cards.length) {
+      grow();
+    }
+    head = wrap(head - 1 + cards.length);
+    cards[head] = card;
+    size++;
+  }
+
+  /**
+   * Removes the card at the front of the queue.
+   *
+   * @return the card that was at the front.
+   * @throws NoSuchElementException if the queue is empty.
+   */
+  public C removeFirst() {
+    C card = get(0);
+    cards[head] = null;
+    head = wrap(head + 1);
+    size--;
+    return card;
+  }
+
+  /**
+   * Removes the card at the back of the queue.
+   *
+   * @return the card that was at the back.
+   * @throws NoSuchElementException if the queue is empty.
+   */
+  public C removeLast() {
+    C card = get(size - 1);
+    cards[wrap(head + size - 1)] = null;
+    size--;
+    return card;
+  }
+
+  /**
+   * Moves the front card to the back of the queue.
+   *
+   * @throws NoSuchElementException if the queue is empty.
+   */
+  public void rotate() {
+    addLast(removeFirst());
+  }
+
+  /**
+   * Returns the card at a position counted from the front of the queue.
+   *
+   * @param index 0-based position from the front.
+   * @return the card at that position.
+   * @throws NoSuchElementException if there is no card at that position.
+   */
+  @SuppressWarnings("unchecked")
+  public C get(int index) {
+    if (index < 0 || index >= size) {
+      throw new NoSuchElementException("No card at " + index);
+    }
+    return (C) cards[wrap(head + index)];
+  }
+
+  /**
+   * Returns the number of cards in the queue.
+   *
+   * @return the number of cards.
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns whether the queue holds no cards.
+   *
+   * @return true if there are no cards.
+   */
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * Removes every card from the queue.
+   */
+  public void clear() {
+    for (int index = 0; index < size; index++) {
+      cards[wrap(head + index)] = null;
+    }
+    head = 0;
+    size = 0;
+  }
+
+  @Override
+  public Iterator<C> iterator() {
+    return new Iterator<>() {
+      private int next = 0;
+
+      @Override
+      public boolean hasNext() {
+        return next < size;
+      }
+
+      @Override
+      public C next() {
+        return get(next++);
+      }
+    };
+  }
+
+  private int wrap(int index) {
+    return index >= cards.length ? index - cards.length : index;
+  }
+
+  private void grow() {
+    Object[] bigger = new Object[cards.length * 2];
+    for (int index = 0; index < size; index++) {
+      bigger[index] = cards[wrap(head + index)];
+    }
+    cards = bigger;
+    head = 0;
+  }
+}
@@ -0,0 +1,64 @@
+package klondike.model.hw02;
+
+import java.util.List;
+
+/**
+ * Checks decks given to startGame and counts the foundations they need.
+ * A deck is valid when the cards of each suit form whole runs from the ace up to the same
+ * highest rank, so a suit may appear once or in several copies, as in Double Klondike.
+ * There is one foundation for every ace. The cards are counted by their place in a deck
+ * ordered by suit then rank in one pass, so checking a deck creates nothing but a 52 int
+ * array. Both the hw02 model and the hw04 models check their decks here.
+ */
+public final class DeckValidator {
+  private static final int RANKS = PossibleRank.values().length;
+  private static final int CARDS = PossibleSuits.values().length * RANKS;
+
+  private DeckValidator() {
+  }
+
+  /**
+   * Gives the number of foundations a deck needs, or 0 if the deck can't be dealt.
+   *
+   * @param deck deck being checked, which may be null or hold nulls.
+   * @return the number of aces in a valid deck, otherwise 0.
+   */
+  public static int foundations(List<? extends ValueCard> deck) {
+    if (deck == null) {
+      return 0;
+    }
+    int[] counts = new int[CARDS];
+    for (ValueCard card : deck) {
+      if (card == null) {
+        return 0;
+      }
+      counts[card.possibleSuits.ordinal() * RANKS + card.possibleRank.ordinal()]++;
+    }
+    return foundations(counts);
+  }
+
+  /**
+   * Gives the number of foundations a deck needs from how many of each card it has.
+   *
+   * @param counts number of each card in the deck, by its place in a deck ordered by suit
+   *               then rank.
+   * @return the number of aces in a valid deck, otherwise 0.
+   */
+  public static int foundations(int[] counts) {
+    int aces = 0;
+    for (int suit = 0; suit < CARDS; suit += RANKS) {
+      int copies = counts[suit];
+      int rank = 1;
+      while (copies > 0 && rank < RANKS && counts[suit + rank] == copies) {
+        rank++;
+      }
+      while (rank < RANKS) {
+        if (counts[suit + rank++] != 0) {
+          return 0;
+        }
+      }
+      aces += copies;
+    }
+    return aces;
+  }
+}
@@ -168,6 +168,21 @@ public interface KlondikeModel<C extends Card> {
    */
   int getPileHeight(int pileNum) throws IllegalArgumentException, IllegalStateException;
 
+  /**
+   * Returns the number of cards in every pile, in one call, for code that reads them all.
+   * Changing the returned array does not change the game.
+   *
+   * @return the pile heights, indexed by 0-based pile number (from the left)
+   * @throws IllegalStateException if the game hasn't been started yet
+   */
+  default int[] getPileHeights() throws IllegalStateException {
+    int[] heights = new int[getNumPiles()];
+    for (int pile = 0; pile < heights.length; pile++) {
+      heights[pile] = getPileHeight(pile);
+    }
+    return heights;
+  }
+
   /**
    * Returns the card at the specified coordinates, if it is visible.
    *
@@ -1,13 +1,25 @@
 package klondike.model.hw02;
 
-import java.util.Objects;
-
 /**
  * ValueCard represents a solitaire card object.
  * ValueCard implements the card class and utilizes the possibleRank and possibleSuit
  * enum classes to make a ValueCard object.
+ * Every suit and rank pair has one shared instance given by of, which is what the model
+ * deals; cards made with the constructor are still equal to it.
  */
 public class ValueCard implements Card {
+  private static final int RANKS = PossibleRank.values().length;
+  private static final ValueCard[] CANONICAL =
+      new ValueCard[PossibleSuits.values().length * RANKS];
+
+  static {
+    for (PossibleSuits suit : PossibleSuits.values()) {
+      for (PossibleRank rank : PossibleRank.values()) {
+        CANONICAL[index(suit, rank)] = new ValueCard(suit, rank);
+      }
+    }
+  }
+
   protected final PossibleSuits possibleSuits;
   protected final PossibleRank possibleRank;
 
@@ -23,6 +35,32 @@ public class ValueCard implements Card {
     this.possibleRank = possibleRank;
   }
 
+  /**
+   * Gives the shared card of a suit and rank without creating anything.
+   *
+   * @param possibleSuits suit of the solitaire card.
+   * @param possibleRank rank of the solitaire card.
+   * @return the one shared instance of that card.
+   * @throws IllegalArgumentException if the suit or rank is null.
+   */
+  public static ValueCard of(PossibleSuits possibleSuits, PossibleRank possibleRank) {
+    if (possibleSuits == null || possibleRank == null) {
+      throw new IllegalArgumentException("Suit or rank is null");
+    }
+    return CANONICAL[index(possibleSuits, possibleRank)];
+  }
+
+  /**
+   * Helper that gives the position of a card in a deck ordered by suit then rank.
+   *
+   * @param possibleSuits suit of the solitaire card.
+   * @param possibleRank rank of the solitaire card.
+   * @return the suit ordinal times 13 plus the rank ordinal.
+   */
+  private static int index(PossibleSuits possibleSuits, PossibleRank possibleRank) {
+    return possibleSuits.ordinal() * RANKS + possibleRank.ordinal();
+  }
+
   @Override
   public String toString() {
     return possibleRank.getRank() + possibleSuits.getSymbol();
@@ -30,7 +68,7 @@ public class ValueCard implements Card {
 
   @Override
   public int hashCode() {
-    return Objects.hash(possibleSuits, possibleRank);
+    return index(possibleSuits, possibleRank);
   }
 
   @Override
@@ -2,12 +2,11 @@ package klondike.model.hw04;
 
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
+import klondike.model.hw02.CardQueue;
+import klondike.model.hw02.DeckValidator;
 import klondike.model.hw02.PossibleRank;
 import klondike.model.hw02.PossibleSuits;
 
@@ -15,27 +14,188 @@ import klondike.model.hw02.PossibleSuits;
  * Abstract class for klondike game model types.
  * Abstracted for assigment and saves code for model types via inheritance.
  */
-public abstract class AbstractKlondike implements klondike.model.hw04.KlondikeModel<ValueCard> {
+public abstract class AbstractKlondike implements klondike.model.hw04.KlondikeModel<ValueCard>,
+    Undoable, MoveGenerator, TryMoves {
 
   protected List<ValueCard> deck;
   protected List<List<ValueCard>> piles;
-  protected List<List<ValueCard>> foundations;
-  protected List<ValueCard> hand;
-  protected List<ValueCard> drawDeck;
+  protected int[] foundationTops;
+  protected CardQueue<ValueCard> stock;
   protected boolean gameStart;
   protected int numDraw;
+  private MoveTracker tracker;
+  private final MoveJournal journal;
+  private long hash;
+  private int score;
+  private int[][] runs;
+  private RowCounts rows;
+  private boolean debugMoveTracking;
+  private ReplayWriter replayLog;
 
   /**
    * Constructor to initialize the implemented KlondikeModel methods.
+   * Move tracking starts in debug mode when the klondike.debugMoves property is set.
    */
   protected AbstractKlondike() {
     this.deck = new ArrayList<>();
     this.piles = new ArrayList<>();
-    this.foundations = new ArrayList<>();
-    this.hand = new ArrayList<>();
-    this.drawDeck = new ArrayList<>();
+    this.foundationTops = new int[0];
+    this.runs = new int[0][];
+    this.rows = new RowCounts(0, 0);
+    this.stock = new CardQueue<>();
     this.gameStart = false;
     this.numDraw = 0;
+    this.journal = new MoveJournal();
+    this.debugMoveTracking = Boolean.getBoolean("klondike.debugMoves");
+  }
+
+  /**
+   * Turns the debug check of isGameOver on or off.
+   * While on, every isGameOver call also runs the full scan of the board and throws
+   * if it disagrees with the incrementally tracked answer.
+   *
+   * @param debug true to cross-check every call.
+   */
+  public void setDebugMoveTracking(boolean debug) {
+    this.debugMoveTracking = debug;
+  }
+
+  /**
+   * Writes the game to a replay log: the deal when the game starts, then every move, undo
+   * and redo made. Must be set before the game starts, so the log has the deal. Copies of
+   * the game don't write to the log.
+   *
+   * @param log the log, or null to stop writing.
+   */
+  public void setReplayLog(ReplayWriter log) {
+    this.replayLog = log;
+    journal.setLog(log);
+  }
+
+  /**
+   * Method that creates a new model of the same kind that has not started a game.
+   * Used by copy to keep the rules of this model.
+   *
+   * @return a new model with the same rules.
+   */
+  protected abstract AbstractKlondike createEmpty();
+
+  /**
+   * Method that names the rules this model plays by, for replay logs and saved games.
+   *
+   * @return the game type of these rules.
+   */
+  protected abstract KlondikeCreator.GameType variant();
+
+  /**
+   * Copies the current position into a new model with the same rules.
+   * The copy has its own piles, foundations and stock, and starts with no moves to undo.
+   *
+   * @return a model in the same position that can be played without changing this one.
+   * @throws IllegalStateException if the game hasn't started.
+   */
+  public AbstractKlondike copy() {
+    gameInProgress();
+    AbstractKlondike copy = createEmpty();
+    copy.deck = new ArrayList<>(deck);
+    for (List<ValueCard> pile : piles) {
+      copy.piles.add(new ArrayList<>(pile));
+    }
+    copy.foundationTops = foundationTops.clone();
+    copy.runs = new int[runs.length][];
+    for (int pile = 0; pile < runs.length; pile++) {
+      copy.runs[pile] = runs[pile].clone();
+    }
+    copy.rows = rows.copy();
+    copy.score = score;
+    for (ValueCard card : stock) {
+      copy.stock.addLast(card);
+    }
+    copy.numDraw = numDraw;
+    copy.gameStart = true;
+    copy.debugMoveTracking = debugMoveTracking;
+    copy.resetTracker();
+    copy.hash = hash;
+    return copy;
+  }
+
+  /**
+   * Sets up a position read back by GameStateCodec, as if it had been reached by play.
+   * Everything kept incrementally, such as run lengths, move tracking and the position
+   * hash, is worked out again from the cards.
+   *
+   * @param tableau    cards of each pile, from the bottom up.
+   * @param tops       ordinal of each foundation's top card, or RuleTables.EMPTY.
+   * @param stockCards the stock, first draw card first.
+   * @param numDraw    number of draw cards.
+   * @param moves      moves of the journal, including those that can be redone.
+   * @param cursor     number of moves in the journal that can be undone.
+   */
+  void restore(ValueCard[][] tableau, int[] tops, ValueCard[] stockCards, int numDraw,
+               int[] moves, int cursor) {
+    gameStart = true;
+    this.numDraw = numDraw;
+    this.piles.clear();
+    this.stock.clear();
+    int cards = stockCards.length;
+    for (ValueCard[] pile : tableau) {
+      piles.add(new ArrayList<>(Arrays.asList(pile)));
+      cards += pile.length;
+    }
+    for (ValueCard card : stockCards) {
+      stock.addLast(card);
+    }
+    this.foundationTops = tops.clone();
+    this.score = 0;
+    for (int top : tops) {
+      if (top != RuleTables.EMPTY) {
+        cards += top % RuleTables.RANKS + 1;
+        score += top % RuleTables.RANKS + 1;
+      }
+    }
+    this.runs = new int[tableau.length][];
+    this.rows = new RowCounts(tableau.length, cards);
+    for (int pile = 0; pile < tableau.length; pile++) {
+      rows.changed(0, tableau[pile].length);
+      dealtRuns(pile);
+    }
+    resetTracker();
+    journal.restore(moves, cursor);
+    hash = PositionHash.compute(this);
+  }
+
+  /**
+   * Gives the journal of moves, for GameStateCodec.
+   *
+   * @return the journal.
+   */
+  MoveJournal journal() {
+    return journal;
+  }
+
+  /**
+   * Gives the 64 bit hash of the current position, hidden cards included.
+   * The hash is kept up to date by every move, so this costs nothing; it always equals
+   * computePositionHash.
+   *
+   * @return the hash of the position.
+   * @throws IllegalStateException if the game hasn't started.
+   */
+  public long positionHash() {
+    gameInProgress();
+    return hash;
+  }
+
+  /**
+   * Hashes the current position into 64 bits from scratch, hidden cards included.
+   * Two positions with the same piles, foundation tops and stock order hash the same.
+   *
+   * @return the hash of the position.
+   * @throws IllegalStateException if the game hasn't started.
+   */
+  public long computePositionHash() {
+    gameInProgress();
+    return PositionHash.compute(this);
   }
 
   /**
@@ -56,19 +216,99 @@ public abstract class AbstractKlondike implements klondike.model.hw04.KlondikeMo
   protected abstract boolean canMoveToEmpty(ValueCard card);
 
   /**
-   * Method that checks if cards are in the same suit.
+   * Method that says whether a card continues the run of the card below it in a pile.
+   * The model keeps, for every card, how long the run ending at it is, so the run on top
+   * of a pile is known without walking down the pile. By default a run is a valid build.
+   * A card only counts as continuing the run when the card below was face up as it was
+   * dealt or placed, so runs never tell anything about cards a player hasn't seen.
+   *
+   * @param lower card lower in the pile.
+   * @param upper card placed directly on it.
+   * @return boolean if the upper card continues the lower card's run.
+   */
+  protected boolean extendsRun(ValueCard lower, ValueCard upper) {
+    return validBuild(upper, lower);
+  }
+
+  /**
+   * Method that gives the number of cards in the run on top of a pile, as decided by
+   * extendsRun. Kept up to date by every move, so this is a single array read.
+   *
+   * @param pile index of the pile.
+   * @return the number of cards in the top run, 0 for an empty pile.
+   */
+  protected int runLength(int pile) {
+    int size = piles.get(pile).size();
+    return size == 0 ? 0 : runs[pile][size - 1];
+  }
+
+  /**
+   * Gives the number of cards on top of a pile that were seen built one on another, so a
+   * player program can tell a move that breaks up a build from one that doesn't without
+   * looking at face-down cards.
+   *
+   * @param pileNum 0-based index of the pile.
+   * @return the number of cards in the top run, 0 for an empty pile.
+   * @throws IllegalStateException    if the game hasn't started.
+   * @throws IllegalArgumentException if the pile index is out of range.
+   */
+  public int getRunLength(int pileNum) {
+    gameInProgress();
+    paramLessCheck(pileNum, 0);
+    paramLessEqualCheck(piles.size(), pileNum);
+    return runLength(pileNum);
+  }
+
+  /**
+   * Method that gives the number of face-down cards at the bottom of a pile, for snapshots.
+   * Must agree with isCardVisible. By default only the top card is visible.
    *
-   * @param move list of cards being moved.
-   * @return boolean if all cards are the same.
+   * @param pile index of the pile.
+   * @return the number of hidden cards.
    */
-  protected abstract boolean moveSameSuit(List<ValueCard> move);
+  protected int hiddenCount(int pile) {
+    return Math.max(piles.get(pile).size() - 1, 0);
+  }
+
+  /**
+   * Method that gives the deepest card of a pile that isGameOver treats as able to lead a
+   * move to another pile. Every card from there to the top is counted.
+   *
+   * @param pile index of a non-empty pile being checked.
+   * @return index of the deepest card that may be moved onto another pile.
+   */
+  protected int moveSourceStart(int pile) {
+    return piles.get(pile).size() - 1;
+  }
+
+  /**
+   * Method that gives the deepest card of a pile that isGameOver treats as able to go to a
+   * foundation. Every card from there to the top is counted.
+   *
+   * @param pile index of a non-empty pile being checked.
+   * @return index of the deepest card that may be moved onto a foundation.
+   */
+  protected int foundationSourceStart(int pile) {
+    return piles.get(pile).size() - 1;
+  }
+
+  /**
+   * Method that gives the deepest card of a pile that movePile accepts as the bottom of the
+   * cards being moved. Every card from there to the top may lead a move.
+   *
+   * @param pile index of a non-empty pile being checked.
+   * @return index of the deepest card that movePile may move along with the cards above it.
+   */
+  protected int pileMoveStart(int pile) {
+    return 0;
+  }
 
   @Override
   public List<ValueCard> createNewDeck() {
     List<ValueCard> newDeck = new ArrayList<>();
     for (PossibleRank rank : PossibleRank.values()) {
       for (PossibleSuits suit : PossibleSuits.values()) {
-        newDeck.add((ValueCard) new ValueCard(suit, rank));
+        newDeck.add(ValueCard.of(suit, rank));
       }
     }
     this.deck = new ArrayList<>(newDeck);
@@ -77,10 +317,42 @@ public abstract class AbstractKlondike implements klondike.model.hw04.KlondikeMo
 
   @Override
   public void startGame(List<ValueCard> deck, boolean shuffle, int numPiles, int numDraw) {
+    int foundationCount = startCheck(deck, numPiles, numDraw);
+    ValueCard[] change = deck.toArray(new ValueCard[0]);
+    if (shuffle) {
+      Collections.shuffle(Arrays.asList(change));
+    }
+    deal(foundationCount, change, numPiles, numDraw);
+    if (replayLog != null) {
+      replayLog.start(variant(), change, numPiles, numDraw, false, 0);
+    }
+  }
+
+  @Override
+  public void startGame(List<ValueCard> deck, long seed, int numPiles, int numDraw) {
+    int foundationCount = startCheck(deck, numPiles, numDraw);
+    ValueCard[] change = deck.toArray(new ValueCard[0]);
+    SeededShuffle.shuffle(change, seed);
+    deal(foundationCount, change, numPiles, numDraw);
+    if (replayLog != null) {
+      replayLog.start(variant(), change, numPiles, numDraw, true, seed);
+    }
+  }
+
+  /**
+   * Helper that checks the arguments of startGame before anything is dealt.
+   *
+   * @param deck     deck to be dealt.
+   * @param numPiles number of piles to be dealt.
+   * @param numDraw  number of draw cards.
+   * @return the number of foundations the deck needs.
+   */
+  private int startCheck(List<ValueCard> deck, int numPiles, int numDraw) {
     if (gameStart) {
       throw new IllegalStateException("IllegalStateException");
     }
-    if (!checkingValidDecks(deck)) {
+    int foundationCount = DeckValidator.foundations(deck);
+    if (foundationCount == 0) {
       throw new IllegalArgumentException("Decks are invalid");
     }
     paramLessCheck(numPiles, 1);
@@ -88,86 +360,67 @@ public abstract class AbstractKlondike implements klondike.model.hw04.KlondikeMo
     paramLessCheck(deck.size(), numDraw);
     int neededCards = (numPiles * (numPiles + 1)) / 2;
     paramLessCheck(deck.size(), neededCards);
+    return foundationCount;
+  }
+
+  /**
+   * Helper that deals the cards in the order given and starts the game.
+   *
+   * @param foundationCount number of foundations, one per ace in the deck.
+   * @param change          the cards in the order they are dealt.
+   * @param numPiles        number of piles to be dealt.
+   * @param numDraw         number of draw cards.
+   */
+  private void deal(int foundationCount, ValueCard[] change, int numPiles, int numDraw) {
     gameStart = true;
-    List<ValueCard> change = new ArrayList<>(deck);
-    if (shuffle) {
-      Collections.shuffle(change);
-    }
     this.numDraw = numDraw;
     this.piles.clear();
-    this.foundations.clear();
-    this.hand.clear();
-    this.drawDeck.clear();
+    this.stock.clear();
     for (int pile = 0; pile < numPiles; pile++) {
       piles.add(new ArrayList<>());
     }
+    int next = 0;
     for (int rows = 0; rows < numPiles; rows++) {
       for (int columns = rows; columns < numPiles; columns++) {
-        piles.get(columns).add(change.remove(0));
+        piles.get(columns).add(change[next++]);
       }
     }
-    drawDeck.addAll(change);
-    addCardHand();
-    Set<PossibleSuits> possibleSuits = new HashSet<>();
-    for (ValueCard card : deck) {
-      if (card.possibleRank == PossibleRank.Ace) {
-        possibleSuits.add(card.possibleSuits);
-      }
+    while (next < change.length) {
+      stock.addLast(change[next++]);
     }
-    for (int foundationCard = 0; foundationCard < possibleSuits.size(); foundationCard++) {
-      foundations.add(new ArrayList<>());
+    this.runs = new int[numPiles][];
+    this.rows = new RowCounts(numPiles, change.length);
+    for (int pile = 0; pile < numPiles; pile++) {
+      rows.changed(0, piles.get(pile).size());
+      dealtRuns(pile);
     }
+    this.foundationTops = new int[foundationCount];
+    Arrays.fill(foundationTops, RuleTables.EMPTY);
+    this.score = 0;
+    resetTracker();
+    journal.clear();
+    hash = PositionHash.compute(this);
   }
 
   /**
-   * Helper to add a card to the hand from the deck.
-   * Only adds card if drawDeck is not empty and will only add however
-   * many you are allowed via numDraw.
+   * Helper that gives the number of draw cards currently showing.
+   * The draw cards are always the first numDraw cards of the stock.
+   *
+   * @return how many cards of the stock can be played.
    */
-  protected void addCardHand() {
-    while (hand.size() < numDraw && !drawDeck.isEmpty()) {
-      hand.add(drawDeck.remove(0));
-    }
+  protected int handSize() {
+    return Math.min(numDraw, stock.size());
   }
 
   /**
    * Checks the deck for complete suits.
-   * Returns false if suit is incomplete.
+   * Returns false if suit is incomplete. Each suit may come in several whole copies.
    *
    * @param deck deck being checked if it can be used in klondike.
    * @return boolean if the deck can be used.
    */
   protected boolean checkingValidDecks(List<ValueCard> deck) {
-    if (deck == null || deck.isEmpty()) {
-      return false;
-    }
-    for (ValueCard card : deck) {
-      if (card == null) {
-        return false;
-      }
-    }
-    boolean ace = deck.stream().anyMatch(card -> card.possibleRank == PossibleRank.Ace);
-    if (!ace) {
-      return false;
-    }
-    Map<PossibleSuits, Set<Integer>> map1 = new HashMap<>();
-    for (ValueCard card : deck) {
-      map1.computeIfAbsent(card.possibleSuits, k -> new HashSet<>())
-          .add(card.possibleRank.getNumber());
-    }
-    for (Set<Integer> set : map1.values()) {
-      int min = set.stream().mapToInt(i -> i).min().orElse(1);
-      if (min != 1) {
-        return false;
-      }
-      int max = set.stream().mapToInt(i -> i).max().orElse(13);
-      for (int gapCheck = min; gapCheck <= max; gapCheck++) {
-        if (!set.contains(gapCheck)) {
-          return false;
-        }
-      }
-    }
-    return true;
+    return DeckValidator.foundations(deck) > 0;
   }
 
   /**
@@ -222,124 +475,641 @@ public abstract class AbstractKlondike implements klondike.model.hw04.KlondikeMo
 
   @Override
   public void movePile(int srcPile, int numCards, int destPile) {
-    gameInProgress();
-    paramLessCheck(srcPile, 0);
-    paramLessEqualCheck(piles.size(), srcPile);
-    paramLessCheck(destPile, 0);
-    paramLessEqualCheck(piles.size(), destPile);
-    if (srcPile == destPile) {
-      throw new IllegalArgumentException("Illegal Argument Exception");
+    tryMovePile(srcPile, numCards, destPile).check();
+  }
+
+  @Override
+  public MoveStatus tryMovePile(int srcPile, int numCards, int destPile) {
+    if (!gameStart) {
+      return MoveStatus.NOT_STARTED;
+    }
+    if (outOfRange(srcPile, piles.size()) || outOfRange(destPile, piles.size())
+        || srcPile == destPile || numCards < 1 || piles.get(srcPile).size() < numCards) {
+      return MoveStatus.INVALID_ARGUMENT;
     }
-    paramLessCheck(numCards, 1);
+    List<ValueCard> src = piles.get(srcPile);
+    if (src.size() - numCards < pileMoveStart(srcPile)
+        || !fitsOnPile(src.get(src.size() - numCards), piles.get(destPile))) {
+      return MoveStatus.ILLEGAL_MOVE;
+    }
+    transferCards(srcPile, numCards, destPile);
+    return MoveStatus.OK;
+  }
+
+  /**
+   * Helper that moves the top cards of one pile onto another without checking the rules.
+   * Keeps the move tracking and the journal up to date, so every pile to pile move
+   * goes through here.
+   *
+   * @param srcPile  index of the pile the cards are taken from.
+   * @param numCards how many cards are moved.
+   * @param destPile index of the pile the cards are placed on.
+   */
+  protected void transferCards(int srcPile, int numCards, int destPile) {
+    shiftCards(srcPile, numCards, destPile);
+    journal.record(Moves.encode(Moves.PILE_TO_PILE, srcPile, destPile, numCards));
+  }
+
+  /**
+   * Helper that moves the top cards of one pile onto another and updates the move tracking.
+   *
+   * @param srcPile  index of the pile the cards are taken from.
+   * @param numCards how many cards are moved.
+   * @param destPile index of the pile the cards are placed on.
+   */
+  private void shiftCards(int srcPile, int numCards, int destPile) {
     List<ValueCard> src = piles.get(srcPile);
     List<ValueCard> dest = piles.get(destPile);
-    paramLessCheck(src.size(), numCards);
-    ValueCard srcCard = src.get(src.size() - numCards);
-    if (dest.isEmpty()) {
-      if (srcCard.possibleRank != PossibleRank.King) {
-        throw new IllegalStateException("Only King can be moved");
-      }
-    } else {
-      ValueCard destCard = dest.get(dest.size() - 1);
-      if (srcCard.possibleRank.getNumber() != destCard.possibleRank.getNumber() - 1
-          || !oppositeColorCheck(srcCard.possibleSuits.getSymbol(),
-          destCard.possibleSuits.getSymbol())) {
-        throw new IllegalStateException("Cannot place card");
-      }
+    tracker.detachPile(srcPile);
+    tracker.detachPile(destPile);
+    int from = src.size() - numCards;
+    for (int index = from; index < src.size(); index++) {
+      int card = src.get(index).ordinal();
+      hash ^= PositionHash.pileKey(srcPile, index, card)
+          ^ PositionHash.pileKey(destPile, dest.size() + index - from, card);
     }
-    List<ValueCard> card = new ArrayList<>(src.subList(src.size() - numCards, src.size()));
-    dest.addAll(card);
-    for (int value = 0; value < numCards; value++) {
-      src.remove(src.size() - 1);
+    List<ValueCard> moved = src.subList(from, src.size());
+    int landed = dest.size();
+    dest.addAll(moved);
+    moved.clear();
+    for (int index = landed; index < dest.size(); index++) {
+      if (index == landed || runs[srcPile][from + index - landed] > 1) {
+        updateRun(destPile, index);
+      } else {
+        setRun(destPile, index, 1);
+      }
     }
+    rows.changed(src.size() + numCards, src.size());
+    rows.changed(landed, dest.size());
+    tracker.attachPile(srcPile);
+    tracker.attachPile(destPile);
   }
 
   @Override
   public void moveDraw(int destPile) {
-    gameInProgress();
-    emptyCheck(hand);
-    paramLessCheck(destPile, 0);
-    paramLessEqualCheck(piles.size(), destPile);
-    ValueCard card = (ValueCard) hand.get(0);
-    List<ValueCard> dest = piles.get(destPile);
-    if (dest.isEmpty()) {
-      if (card.possibleRank != PossibleRank.King) {
-        throw new IllegalStateException("King only card that can be moved");
-      }
-    } else {
-      ValueCard topCard = dest.get(dest.size() - 1);
-      if (card.possibleRank.getNumber() != topCard.possibleRank.getNumber() - 1
-          || !oppositeColorCheck(card.possibleSuits.getSymbol(),
-          topCard.possibleSuits.getSymbol())) {
-        throw new IllegalStateException("InvalidState");
-      }
+    tryMoveDraw(destPile).check();
+  }
+
+  @Override
+  public MoveStatus tryMoveDraw(int destPile) {
+    if (!gameStart) {
+      return MoveStatus.NOT_STARTED;
+    }
+    if (stock.isEmpty()) {
+      return MoveStatus.NO_CARDS;
+    }
+    if (outOfRange(destPile, piles.size())) {
+      return MoveStatus.INVALID_ARGUMENT;
     }
-    dest.add(card);
-    hand.remove(0);
-    addCardHand();
+    if (!fitsOnPile(stock.get(0), piles.get(destPile))) {
+      return MoveStatus.ILLEGAL_MOVE;
+    }
+    drawToPile(destPile);
+    journal.record(Moves.encode(Moves.DRAW_TO_PILE, 0, destPile, 1));
+    return MoveStatus.OK;
   }
 
   @Override
   public void moveToFoundation(int srcPile, int foundationPile) {
-    gameInProgress();
-    paramLessCheck(srcPile, 0);
-    paramLessEqualCheck(piles.size(), srcPile);
-    paramLessCheck(foundationPile, 0);
-    paramLessEqualCheck(foundations.size(), foundationPile);
+    tryMoveToFoundation(srcPile, foundationPile).check();
+  }
+
+  @Override
+  public MoveStatus tryMoveToFoundation(int srcPile, int foundationPile) {
+    if (!gameStart) {
+      return MoveStatus.NOT_STARTED;
+    }
+    if (outOfRange(srcPile, piles.size()) || outOfRange(foundationPile, foundationTops.length)) {
+      return MoveStatus.INVALID_ARGUMENT;
+    }
     List<ValueCard> src = piles.get(srcPile);
-    emptyCheck(src);
-    ValueCard card = (ValueCard) src.get(src.size() - 1);
-    List<ValueCard> foundation = foundations.get(foundationPile);
-    if (!canPlaceFoundationCheck(card, foundation)) {
-      throw new IllegalStateException("Card cannot be moved to foundation");
+    if (src.isEmpty()) {
+      return MoveStatus.NO_CARDS;
     }
-    foundation.add(card);
-    src.remove(src.size() - 1);
+    if (!canPlaceFoundationCheck(src.get(src.size() - 1), foundationPile)) {
+      return MoveStatus.ILLEGAL_MOVE;
+    }
+    pileToFoundation(srcPile, foundationPile);
+    journal.record(Moves.encode(Moves.PILE_TO_FOUNDATION, srcPile, foundationPile, 1));
+    return MoveStatus.OK;
   }
 
   @Override
   public void moveDrawToFoundation(int foundationPile) {
+    tryMoveDrawToFoundation(foundationPile).check();
+  }
+
+  @Override
+  public MoveStatus tryMoveDrawToFoundation(int foundationPile) {
+    if (!gameStart) {
+      return MoveStatus.NOT_STARTED;
+    }
+    if (stock.isEmpty()) {
+      return MoveStatus.NO_CARDS;
+    }
+    if (outOfRange(foundationPile, foundationTops.length)) {
+      return MoveStatus.INVALID_ARGUMENT;
+    }
+    if (!canPlaceFoundationCheck(stock.get(0), foundationPile)) {
+      return MoveStatus.ILLEGAL_MOVE;
+    }
+    drawToFoundation(foundationPile);
+    journal.record(Moves.encode(Moves.DRAW_TO_FOUNDATION, 0, foundationPile, 1));
+    return MoveStatus.OK;
+  }
+
+  @Override
+  public void discardDraw() {
+    tryDiscardDraw().check();
+  }
+
+  @Override
+  public MoveStatus tryDiscardDraw() {
+    if (!gameStart) {
+      return MoveStatus.NOT_STARTED;
+    }
+    if (stock.isEmpty()) {
+      return MoveStatus.NO_CARDS;
+    }
+    rotateStock();
+    journal.record(Moves.encode(Moves.DISCARD, 0, 0, 1));
+    return MoveStatus.OK;
+  }
+
+  /**
+   * Helper that checks an index against the number of piles or foundations.
+   *
+   * @param index 0-based index given to a move.
+   * @param size  number of piles or foundations.
+   * @return boolean if the index does not name one of them.
+   */
+  private boolean outOfRange(int index, int size) {
+    return index < 0 || index >= size;
+  }
+
+  @Override
+  public void undo() {
     gameInProgress();
-    if (hand.isEmpty() && drawDeck.isEmpty()) {
-      throw new IllegalStateException("IllegalStateException");
+    int entry = journal.undo();
+    int src = Moves.source(entry);
+    int dest = Moves.destination(entry);
+    switch (Moves.kind(entry)) {
+      case Moves.PILE_TO_PILE:
+        shiftCards(dest, Moves.count(entry), src);
+        break;
+      case Moves.DRAW_TO_PILE:
+        pileToDraw(dest);
+        break;
+      case Moves.PILE_TO_FOUNDATION:
+        foundationToPile(dest, src);
+        break;
+      case Moves.DRAW_TO_FOUNDATION:
+        foundationToDraw(dest);
+        break;
+      default:
+        unrotateStock();
+        break;
     }
-    if (hand.isEmpty()) {
-      addCardHand();
-      if (hand.isEmpty()) {
-        throw new IllegalStateException("IllegalStateException");
-      }
+  }
+
+  @Override
+  public void redo() {
+    gameInProgress();
+    applyForward(journal.redo());
+  }
+
+  /**
+   * Helper that makes an encoded move without checking it or recording it.
+   *
+   * @param move the encoded move.
+   */
+  private void applyForward(int move) {
+    int src = Moves.source(move);
+    int dest = Moves.destination(move);
+    switch (Moves.kind(move)) {
+      case Moves.PILE_TO_PILE:
+        shiftCards(src, Moves.count(move), dest);
+        break;
+      case Moves.DRAW_TO_PILE:
+        drawToPile(dest);
+        break;
+      case Moves.PILE_TO_FOUNDATION:
+        pileToFoundation(src, dest);
+        break;
+      case Moves.DRAW_TO_FOUNDATION:
+        drawToFoundation(dest);
+        break;
+      default:
+        rotateStock();
+        break;
     }
-    if (foundationPile < 0 || foundationPile >= foundations.size()) {
-      throw new IllegalArgumentException("Illegal Argument Exception");
+  }
+
+  /**
+   * Says whether the cards an encoded move put down are where undo would take them from,
+   * for GameStateCodec to check a journal read back before undoing it.
+   * The move's indices must already be in range.
+   *
+   * @param move the encoded move.
+   * @return true if undo can take the move back.
+   */
+  boolean canTakeBack(int move) {
+    int dest = Moves.destination(move);
+    switch (Moves.kind(move)) {
+      case Moves.PILE_TO_PILE:
+        return piles.get(dest).size() >= Moves.count(move);
+      case Moves.DRAW_TO_PILE:
+        return !piles.get(dest).isEmpty();
+      case Moves.PILE_TO_FOUNDATION:
+      case Moves.DRAW_TO_FOUNDATION:
+        return foundationTops[dest] != RuleTables.EMPTY;
+      default:
+        return !stock.isEmpty();
+    }
+  }
+
+  /**
+   * Says whether an encoded move follows the rules in the current position, for
+   * GameStateCodec to check a journal read back. The move's indices must already be in range.
+   *
+   * @param move the encoded move.
+   * @return true if the move could be made.
+   */
+  boolean isLegal(int move) {
+    int src = Moves.source(move);
+    int dest = Moves.destination(move);
+    switch (Moves.kind(move)) {
+      case Moves.PILE_TO_PILE:
+        List<ValueCard> cards = piles.get(src);
+        int start = cards.size() - Moves.count(move);
+        return start >= 0 && start >= pileMoveStart(src)
+            && fitsOnPile(cards.get(start), piles.get(dest));
+      case Moves.DRAW_TO_PILE:
+        return !stock.isEmpty() && fitsOnPile(stock.get(0), piles.get(dest));
+      case Moves.PILE_TO_FOUNDATION:
+        return !piles.get(src).isEmpty()
+            && canPlaceFoundationCheck(piles.get(src).get(piles.get(src).size() - 1), dest);
+      case Moves.DRAW_TO_FOUNDATION:
+        return !stock.isEmpty() && canPlaceFoundationCheck(stock.get(0), dest);
+      default:
+        return !stock.isEmpty();
     }
-    ValueCard card = (ValueCard) hand.get(0);
-    List<ValueCard> foundation = foundations.get(foundationPile);
-    if (!canPlaceFoundationCheck(card, foundation)) {
-      throw new IllegalStateException("Foundation only card that can be moved");
+  }
+
+  @Override
+  public void applyMove(int move) {
+    gameInProgress();
+    applyForward(move);
+    journal.record(move);
+  }
+
+  @Override
+  public int legalMoves(int[] buffer) {
+    gameInProgress();
+    int count = 0;
+    for (int srcPile = 0; srcPile < piles.size(); srcPile++) {
+      List<ValueCard> src = piles.get(srcPile);
+      if (src.isEmpty()) {
+        continue;
+      }
+      for (int foundation = 0; foundation < foundationTops.length; foundation++) {
+        if (canPlaceFoundationCheck(src.get(src.size() - 1), foundation)) {
+          count = addMove(buffer, count,
+              Moves.encode(Moves.PILE_TO_FOUNDATION, srcPile, foundation, 1));
+        }
+      }
+      for (int start = pileMoveStart(srcPile); start < src.size(); start++) {
+        ValueCard card = src.get(start);
+        for (int destPile = 0; destPile < piles.size(); destPile++) {
+          if (destPile != srcPile && fitsOnPile(card, piles.get(destPile))) {
+            count = addMove(buffer, count,
+                Moves.encode(Moves.PILE_TO_PILE, srcPile, destPile, src.size() - start));
+          }
+        }
+      }
     }
-    foundation.add(card);
-    hand.remove(0);
-    if (!drawDeck.isEmpty()) {
-      addCardHand();
+    if (!stock.isEmpty()) {
+      ValueCard card = stock.get(0);
+      for (int foundation = 0; foundation < foundationTops.length; foundation++) {
+        if (canPlaceFoundationCheck(card, foundation)) {
+          count = addMove(buffer, count,
+              Moves.encode(Moves.DRAW_TO_FOUNDATION, 0, foundation, 1));
+        }
+      }
+      for (int destPile = 0; destPile < piles.size(); destPile++) {
+        if (fitsOnPile(card, piles.get(destPile))) {
+          count = addMove(buffer, count, Moves.encode(Moves.DRAW_TO_PILE, 0, destPile, 1));
+        }
+      }
+      count = addMove(buffer, count, Moves.encode(Moves.DISCARD, 0, 0, 1));
     }
+    return count;
+  }
+
+  /**
+   * Helper that writes one move into the buffer of legalMoves.
+   *
+   * @param buffer array the moves are written to.
+   * @param count  number of moves already written.
+   * @param move   the encoded move.
+   * @return the number of moves written after this one.
+   */
+  private int addMove(int[] buffer, int count, int move) {
+    paramLessEqualCheck(buffer.length, count);
+    buffer[count] = move;
+    return count + 1;
+  }
+
+  /**
+   * Helper that checks if a card may be placed on top of a pile.
+   *
+   * @param card card being moved.
+   * @param pile pile it would be placed on.
+   * @return boolean if the move is allowed.
+   */
+  private boolean fitsOnPile(ValueCard card, List<ValueCard> pile) {
+    return pile.isEmpty() ? canMoveToEmpty(card) : validBuild(card, pile.get(pile.size() - 1));
   }
 
   @Override
-  public void discardDraw() {
+  public boolean canUndo() {
     gameInProgress();
-    emptyCheck(hand);
-    drawDeck.add((ValueCard) hand.remove(0));
-    addCardHand();
+    return journal.canUndo();
   }
 
   @Override
-  public int getNumRows() {
+  public boolean canRedo() {
     gameInProgress();
-    int numRows = 0;
-    for (List<ValueCard> row : piles) {
-      numRows = Math.max(numRows, row.size());
+    return journal.canRedo();
+  }
+
+  /**
+   * Helper that moves the first draw card onto a pile and updates the move tracking.
+   *
+   * @param destPile index of the pile the card is placed on.
+   */
+  private void drawToPile(int destPile) {
+    tracker.detachPile(destPile);
+    ValueCard card = takeStockFront();
+    tracker.removeDrawCard(card);
+    addToPile(destPile, card);
+    tracker.attachPile(destPile);
+  }
+
+  /**
+   * Helper that puts the top card of a pile back in front of the draw cards.
+   *
+   * @param srcPile index of the pile the card is taken from.
+   */
+  private void pileToDraw(int srcPile) {
+    tracker.detachPile(srcPile);
+    ValueCard card = takeFromPile(srcPile);
+    putStockFront(card);
+    tracker.addDrawCard(card);
+    tracker.attachPile(srcPile);
+  }
+
+  /**
+   * Helper that moves the top card of a pile onto a foundation and updates the move tracking.
+   *
+   * @param srcPile        index of the pile the card is taken from.
+   * @param foundationPile index of the foundation the card is placed on.
+   */
+  private void pileToFoundation(int srcPile, int foundationPile) {
+    tracker.detachPile(srcPile);
+    tracker.detachFoundation(foundationPile);
+    addToFoundation(foundationPile, takeFromPile(srcPile));
+    tracker.attachPile(srcPile);
+    tracker.attachFoundation(foundationPile);
+  }
+
+  /**
+   * Helper that puts the top card of a foundation back on a pile.
+   *
+   * @param foundationPile index of the foundation the card is taken from.
+   * @param destPile       index of the pile the card is placed on.
+   */
+  private void foundationToPile(int foundationPile, int destPile) {
+    tracker.detachPile(destPile);
+    tracker.detachFoundation(foundationPile);
+    addToPile(destPile, takeFromFoundation(foundationPile));
+    tracker.attachPile(destPile);
+    tracker.attachFoundation(foundationPile);
+  }
+
+  /**
+   * Helper that moves the first draw card onto a foundation and updates the move tracking.
+   *
+   * @param foundationPile index of the foundation the card is placed on.
+   */
+  private void drawToFoundation(int foundationPile) {
+    tracker.detachFoundation(foundationPile);
+    ValueCard card = takeStockFront();
+    tracker.removeDrawCard(card);
+    addToFoundation(foundationPile, card);
+    tracker.attachFoundation(foundationPile);
+  }
+
+  /**
+   * Helper that puts the top card of a foundation back in front of the draw cards.
+   *
+   * @param foundationPile index of the foundation the card is taken from.
+   */
+  private void foundationToDraw(int foundationPile) {
+    tracker.detachFoundation(foundationPile);
+    ValueCard card = takeFromFoundation(foundationPile);
+    putStockFront(card);
+    tracker.addDrawCard(card);
+    tracker.attachFoundation(foundationPile);
+  }
+
+  /**
+   * Helper that adds a card on top of a pile and to the position hash.
+   *
+   * @param pile index of the pile.
+   * @param card card being added.
+   */
+  private void addToPile(int pile, ValueCard card) {
+    List<ValueCard> cards = piles.get(pile);
+    hash ^= PositionHash.pileKey(pile, cards.size(), card.ordinal());
+    cards.add(card);
+    updateRun(pile, cards.size() - 1);
+    rows.changed(cards.size() - 1, cards.size());
+  }
+
+  /**
+   * Helper that recounts the move tracking from the current position. The tracker reads the
+   * rule hooks, so it is only created here, once a game is dealt and the subclass is fully
+   * constructed.
+   */
+  private void resetTracker() {
+    if (tracker == null) {
+      tracker = new MoveTracker(this);
+    }
+    tracker.reset();
+  }
+
+  /**
+   * Helper that works out the runs of a pile just dealt or restored, where only the cards
+   * on a face-up card can be seen to continue a run.
+   *
+   * @param pile index of the pile.
+   */
+  private void dealtRuns(int pile) {
+    int hidden = hiddenCount(pile);
+    runs[pile] = new int[piles.get(pile).size()];
+    for (int index = 0; index < runs[pile].length; index++) {
+      if (index > hidden) {
+        updateRun(pile, index);
+      } else {
+        runs[pile][index] = 1;
+      }
+    }
+  }
+
+  /**
+   * Helper that works out the length of the run ending at a card from the card below it.
+   * Cards above it must be updated after it.
+   *
+   * @param pile  index of the pile.
+   * @param index index of the card in the pile.
+   */
+  private void updateRun(int pile, int index) {
+    List<ValueCard> cards = piles.get(pile);
+    setRun(pile, index, index > 0 && extendsRun(cards.get(index - 1), cards.get(index))
+        ? runs[pile][index - 1] + 1 : 1);
+  }
+
+  /**
+   * Helper that stores the length of the run ending at a card. Each pile's array starts at
+   * the height it was dealt with and doubles when a card lands past its end.
+   *
+   * @param pile   index of the pile.
+   * @param index  index of the card in the pile.
+   * @param length length of the run ending at it.
+   */
+  private void setRun(int pile, int index, int length) {
+    if (index >= runs[pile].length) {
+      runs[pile] = Arrays.copyOf(runs[pile], Math.max(index + 1, runs[pile].length * 2));
+    }
+    runs[pile][index] = length;
+  }
+
+  /**
+   * Helper that takes the top card off a pile and out of the position hash.
+   *
+   * @param pile index of the pile.
+   * @return the card taken.
+   */
+  private ValueCard takeFromPile(int pile) {
+    List<ValueCard> cards = piles.get(pile);
+    ValueCard card = cards.remove(cards.size() - 1);
+    rows.changed(cards.size() + 1, cards.size());
+    hash ^= PositionHash.pileKey(pile, cards.size(), card.ordinal());
+    return card;
+  }
+
+  /**
+   * Helper that adds a card on top of a foundation, swapping the foundation's key in the
+   * position hash from its old top card to the new one.
+   *
+   * @param foundation index of the foundation.
+   * @param card       card being added.
+   */
+  private void addToFoundation(int foundation, ValueCard card) {
+    int top = foundationTops[foundation];
+    if (top != RuleTables.EMPTY) {
+      hash ^= PositionHash.foundationKey(foundation, top);
     }
-    return numRows;
+    hash ^= PositionHash.foundationKey(foundation, card.ordinal());
+    foundationTops[foundation] = card.ordinal();
+    score++;
+  }
+
+  /**
+   * Helper that takes the top card off a foundation, swapping the foundation's key in the
+   * position hash back to the card below it. A foundation only ever holds one suit from the
+   * ace up, so the card below is the one with the next lower ordinal.
+   *
+   * @param foundation index of the foundation.
+   * @return the card taken.
+   */
+  private ValueCard takeFromFoundation(int foundation) {
+    int top = foundationTops[foundation];
+    int below = top % RuleTables.RANKS == 0 ? RuleTables.EMPTY : top - 1;
+    hash ^= PositionHash.foundationKey(foundation, top);
+    if (below != RuleTables.EMPTY) {
+      hash ^= PositionHash.foundationKey(foundation, below);
+    }
+    foundationTops[foundation] = below;
+    score--;
+    return ValueCard.ofOrdinal(top);
+  }
+
+  /**
+   * Helper that takes the first draw card out of the stock and out of the position hash.
+   * The card's two stock pairs are replaced by one pair joining its neighbours.
+   *
+   * @return the card taken.
+   */
+  private ValueCard takeStockFront() {
+    int size = stock.size();
+    int card = stock.get(0).ordinal();
+    hash ^= PositionHash.stockFrontKey(card);
+    if (size == 1) {
+      hash ^= PositionHash.stockPairKey(card, card);
+    } else {
+      int last = stock.get(size - 1).ordinal();
+      int next = stock.get(1).ordinal();
+      hash ^= PositionHash.stockPairKey(last, card) ^ PositionHash.stockPairKey(card, next)
+          ^ PositionHash.stockPairKey(last, next) ^ PositionHash.stockFrontKey(next);
+    }
+    return stock.removeFirst();
+  }
+
+  /**
+   * Helper that puts a card in front of the stock and into the position hash.
+   *
+   * @param card card being put back.
+   */
+  private void putStockFront(ValueCard card) {
+    int size = stock.size();
+    int ordinal = card.ordinal();
+    hash ^= PositionHash.stockFrontKey(ordinal);
+    if (size == 0) {
+      hash ^= PositionHash.stockPairKey(ordinal, ordinal);
+    } else {
+      int first = stock.get(0).ordinal();
+      int last = stock.get(size - 1).ordinal();
+      hash ^= PositionHash.stockPairKey(last, first) ^ PositionHash.stockPairKey(last, ordinal)
+          ^ PositionHash.stockPairKey(ordinal, first) ^ PositionHash.stockFrontKey(first);
+    }
+    stock.addFirst(card);
+  }
+
+  /**
+   * Helper that moves the first draw card to the bottom of the stock.
+   * The stock keeps its order around the wrap, so only the front card's key changes.
+   */
+  private void rotateStock() {
+    hash ^= PositionHash.stockFrontKey(stock.get(0).ordinal());
+    stock.rotate();
+    hash ^= PositionHash.stockFrontKey(stock.get(0).ordinal());
+  }
+
+  /**
+   * Helper that moves the bottom card of the stock back to the front, undoing a discard.
+   */
+  private void unrotateStock() {
+    hash ^= PositionHash.stockFrontKey(stock.get(0).ordinal());
+    stock.addFirst(stock.removeLast());
+    hash ^= PositionHash.stockFrontKey(stock.get(0).ordinal());
+  }
+
+  @Override
+  public int getNumRows() {
+    gameInProgress();
+    return rows.rows();
   }
 
   @Override
@@ -357,24 +1127,19 @@ public abstract class AbstractKlondike implements klondike.model.hw04.KlondikeMo
   @Override
   public boolean isGameOver() {
     gameInProgress();
-    boolean gameComplete = true;
-    for (List<ValueCard> foundation : foundations) {
-      if (foundation.size() != 13) {
-        gameComplete = false;
-        break;
-      }
-    }
-    if (gameComplete) {
+    if (tracker.allFoundationsComplete()) {
       return true;
     }
-    if (availableMove()) {
-      return false;
+    boolean openMove = tracker.hasOpenMove();
+    if (debugMoveTracking && openMove != availableMove()) {
+      throw new IllegalStateException("Tracked moves do not match a full scan of the board");
     }
-    return true;
+    return !openMove;
   }
 
   /**
    * Helper to check if any move can still be made in the game.
+   * Scans the whole board, so isGameOver only uses it to cross-check the tracked answer.
    *
    * @return boolean checking if a move can be made.
    */
@@ -385,7 +1150,7 @@ public abstract class AbstractKlondike implements klondike.model.hw04.KlondikeMo
         continue;
       }
       ValueCard card = src.get(src.size() - 1);
-      for (List<ValueCard> foundation : foundations) {
+      for (int foundation = 0; foundation < foundationTops.length; foundation++) {
         if (canPlaceFoundationCheck(card, foundation)) {
           return true;
         }
@@ -403,14 +1168,12 @@ public abstract class AbstractKlondike implements klondike.model.hw04.KlondikeMo
         }
         List<ValueCard> dest = piles.get(destPile);
         if (dest.isEmpty()) {
-          if (card.possibleRank == PossibleRank.King) {
+          if (canMoveToEmpty(card)) {
             return true;
           }
         } else {
           ValueCard destCard = dest.get(dest.size() - 1);
-          if (card.possibleRank.getNumber() == destCard.possibleRank.getNumber() - 1
-              && oppositeColorCheck(card.possibleSuits.getSymbol(),
-              destCard.possibleSuits.getSymbol())) {
+          if (validBuild(card, destCard)) {
             return true;
           }
         }
@@ -428,46 +1191,20 @@ public abstract class AbstractKlondike implements klondike.model.hw04.KlondikeMo
    * @return a boolean if an available move can be made from the deck or hand.
    */
   protected boolean handDeckChecker() {
-    if (!hand.isEmpty()) {
-      for (int hands = 0; hands < hand.size(); hands++) {
-        ValueCard drawCard = (ValueCard) hand.get(hands);
-        for (List<ValueCard> foundation : foundations) {
-          if (canPlaceFoundationCheck(drawCard, foundation)) {
-            return true;
-          }
-        }
-        for (List<ValueCard> pile : piles) {
-          if (pile.isEmpty()) {
-            if (drawCard.possibleRank == PossibleRank.King) {
-              return true;
-            }
-          } else {
-            ValueCard topCard = pile.get(pile.size() - 1);
-            if (drawCard.possibleRank.getNumber() == topCard.possibleRank.getNumber() - 1
-                && oppositeColorCheck(drawCard.possibleSuits.getSymbol(),
-                topCard.possibleSuits.getSymbol())) {
-              return true;
-            }
-          }
-        }
-      }
-    }
-    for (ValueCard drawCard : drawDeck) {
-      for (List<ValueCard> foundation : foundations) {
+    for (ValueCard drawCard : stock) {
+      for (int foundation = 0; foundation < foundationTops.length; foundation++) {
         if (canPlaceFoundationCheck(drawCard, foundation)) {
           return true;
         }
       }
       for (List<ValueCard> pile : piles) {
         if (pile.isEmpty()) {
-          if (drawCard.possibleRank == PossibleRank.King) {
+          if (canMoveToEmpty(drawCard)) {
             return true;
           }
         } else {
           ValueCard topCard = pile.get(pile.size() - 1);
-          if (drawCard.possibleRank.getNumber() == topCard.possibleRank.getNumber() - 1
-              && oppositeColorCheck(drawCard.possibleSuits.getSymbol(),
-              topCard.possibleSuits.getSymbol())) {
+          if (validBuild(drawCard, topCard)) {
             return true;
           }
         }
@@ -479,10 +1216,6 @@ public abstract class AbstractKlondike implements klondike.model.hw04.KlondikeMo
   @Override
   public int getScore() {
     gameInProgress();
-    int score = 0;
-    for (List<ValueCard> cards : foundations) {
-      score += cards.size();
-    }
     return score;
   }
 
@@ -494,6 +1227,16 @@ public abstract class AbstractKlondike implements klondike.model.hw04.KlondikeMo
     return piles.get(pileNum).size();
   }
 
+  @Override
+  public int[] getPileHeights() {
+    gameInProgress();
+    int[] heights = new int[piles.size()];
+    for (int pile = 0; pile < heights.length; pile++) {
+      heights[pile] = piles.get(pile).size();
+    }
+    return heights;
+  }
+
   @Override
   public ValueCard getCardAt(int pileNum, int card) {
     gameInProgress();
@@ -512,12 +1255,9 @@ public abstract class AbstractKlondike implements klondike.model.hw04.KlondikeMo
   public ValueCard getCardAt(int foundationPile) {
     gameInProgress();
     paramLessCheck(foundationPile, 0);
-    paramLessEqualCheck(foundations.size(), foundationPile);
-    List<ValueCard> foundation = foundations.get(foundationPile);
-    if (foundation.isEmpty()) {
-      return null;
-    }
-    return foundation.get(foundation.size() - 1);
+    paramLessEqualCheck(foundationTops.length, foundationPile);
+    int top = foundationTops[foundationPile];
+    return top == RuleTables.EMPTY ? null : ValueCard.ofOrdinal(top);
   }
 
   @Override
@@ -534,46 +1274,54 @@ public abstract class AbstractKlondike implements klondike.model.hw04.KlondikeMo
   @Override
   public List<ValueCard> getDrawCards() {
     gameInProgress();
-    return new ArrayList<>(hand);
+    List<ValueCard> drawCards = new ArrayList<>(handSize());
+    for (int index = 0; index < handSize(); index++) {
+      drawCards.add(stock.get(index));
+    }
+    return drawCards;
+  }
+
+  @Override
+  public BoardSnapshot snapshot() {
+    gameInProgress();
+    int visible = 0;
+    for (int pile = 0; pile < piles.size(); pile++) {
+      visible += piles.get(pile).size() - hiddenCount(pile);
+    }
+    BoardSnapshot.Builder builder =
+        new BoardSnapshot.Builder(piles.size(), foundationTops.length, handSize(), visible, score);
+    for (int pile = 0; pile < piles.size(); pile++) {
+      List<ValueCard> cards = piles.get(pile);
+      int hidden = hiddenCount(pile);
+      builder.pile(hidden);
+      for (int index = hidden; index < cards.size(); index++) {
+        builder.card(cards.get(index).ordinal());
+      }
+    }
+    for (int foundation = 0; foundation < foundationTops.length; foundation++) {
+      builder.foundation(foundation, foundationTops[foundation]);
+    }
+    for (int index = 0; index < handSize(); index++) {
+      builder.drawCard(index, stock.get(index).ordinal());
+    }
+    return builder.build();
   }
 
   @Override
   public int getNumFoundations() {
     gameInProgress();
-    return foundations.size();
+    return foundationTops.length;
   }
 
   /**
    * Helper method used to check if a card can be placed next on the foundation.
-   * Checks to see if card is ace and same suit.
+   * Looks the pair up in the shared foundation table.
    *
    * @param card       card being used.
-   * @param foundation foundation pile being checked.
+   * @param foundation index of the foundation pile being checked.
    * @return boolean if card can be placed or not.
    */
-  protected boolean canPlaceFoundationCheck(ValueCard card,
-                                            List<ValueCard> foundation) {
-    if (foundation.isEmpty()) {
-      return card.possibleRank == PossibleRank.Ace;
-    }
-    ValueCard topCard = foundation.get(foundation.size() - 1);
-    return card.possibleSuits.getSymbol().equals(topCard.possibleSuits.getSymbol())
-        && card.possibleRank.getNumber() == topCard.possibleRank.getNumber() + 1;
-  }
-
-  /**
-   * Helper method used to check if a card can be placed next on pile.
-   * Checks to see if card is red or black.
-   *
-   * @param suitA string symbol of card 1 (going to be card being placed on pile).
-   * @param suitB string symbol of card 2 (going to be pile card).
-   * @return boolean if card is or is not same color.
-   */
-  protected boolean oppositeColorCheck(String suitA, String suitB) {
-    boolean redA = suitA.equals(PossibleSuits.Diamond.getSymbol())
-        || suitA.equals(PossibleSuits.Heart.getSymbol());
-    boolean redB = suitB.equals(PossibleSuits.Diamond.getSymbol())
-        || suitB.equals(PossibleSuits.Heart.getSymbol());
-    return redA != redB;
+  protected boolean canPlaceFoundationCheck(ValueCard card, int foundation) {
+    return RuleTables.canPlaceFoundation(card.ordinal(), foundationTops[foundation]);
   }
 }
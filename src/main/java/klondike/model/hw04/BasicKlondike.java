@@ -1,12 +1,7 @@
 package klondike.model.hw04;
 
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Map;
-import java.util.Set;
+import klondike.model.hw02.CardQueue;
 
 
 /**
@@ -22,39 +17,29 @@ public class BasicKlondike extends AbstractKlondike {
   public BasicKlondike() {
     this.deck = new ArrayList<ValueCard>();
     this.piles = new ArrayList<>();
-    this.foundations = new ArrayList<>();
-    this.hand = new ArrayList<>();
-    this.drawDeck = new ArrayList<>();
+    this.stock = new CardQueue<>();
     this.gameStart = false;
     this.numDraw = 0;
   }
 
   @Override
-  protected boolean validBuild(ValueCard move, ValueCard dest) {
-    return oppositeColorCheck(move.possibleSuits.getSymbol(), dest.possibleSuits.getSymbol())
-        && (move.possibleRank.getNumber() == dest.possibleRank.getNumber() - 1);
+  protected AbstractKlondike createEmpty() {
+    return new BasicKlondike();
   }
 
   @Override
-  protected boolean canMoveToEmpty(ValueCard card) {
-    return card.possibleRank.getNumber() == 13;
+  protected KlondikeCreator.GameType variant() {
+    return KlondikeCreator.GameType.BASIC;
   }
 
   @Override
-  protected boolean moveSameSuit(List<ValueCard> move) {
-    if (move.isEmpty()) {
-      return false;
-    }
-    for (int size = 0; size < move.size() - 1; size++) {
-      ValueCard lower = move.get(size);
-      ValueCard upper = move.get(size + 1);
-      if (!(oppositeColorCheck(lower.possibleSuits.getSymbol(), upper.possibleSuits.getSymbol())
-          && (lower.possibleRank.getNumber() == upper.possibleRank.getNumber() - 1))) {
-        return false;
-      }
-      //return false;
-    }
-    return true;
+  protected boolean validBuild(ValueCard move, ValueCard dest) {
+    return RuleTables.BASIC.canBuild(move.ordinal(), dest.ordinal());
+  }
+
+  @Override
+  protected boolean canMoveToEmpty(ValueCard card) {
+    return RuleTables.BASIC.canMoveToEmpty(card.ordinal());
   }
 
 
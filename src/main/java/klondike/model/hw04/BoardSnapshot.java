@@ -0,0 +1,261 @@
+package klondike.model.hw04;
+
+/**
+ * Immutable copy of everything a player can see of a game at one moment.
+ * It holds the visible cards of each pile, how many cards are hidden under them, the top of
+ * each foundation, the draw cards and the score. Everything is kept in one int array of card
+ * ordinals, so a snapshot is cheap to take, and it never changes once built, so it can be
+ * read from any thread while the game goes on. Hidden cards are only counted, never stored.
+ *
+ * <p>The array holds, in order: the number of piles, foundations and draw cards, the score,
+ * the hidden count of each pile, where each pile's visible cards start (with one more entry
+ * for where the last pile ends), the foundation tops, the draw cards, and then the visible
+ * cards of every pile from the bottom up.
+ */
+public final class BoardSnapshot {
+  private static final int HEADER = 4;
+
+  private final int[] data;
+  private final int numPiles;
+  private final int numRows;
+  private final int starts;
+  private final int foundations;
+  private final int draws;
+
+  /**
+   * Constructor used by the builder once the array is filled.
+   *
+   * @param data the filled array.
+   */
+  private BoardSnapshot(int[] data) {
+    this.data = data;
+    this.numPiles = data[0];
+    this.starts = HEADER + numPiles;
+    this.foundations = starts + numPiles + 1;
+    this.draws = foundations + data[1];
+    int rows = 0;
+    for (int pile = 0; pile < numPiles; pile++) {
+      rows = Math.max(rows, data[HEADER + pile] + data[starts + pile + 1] - data[starts + pile]);
+    }
+    this.numRows = rows;
+  }
+
+  /**
+   * Returns the number of piles.
+   *
+   * @return the number of piles.
+   */
+  public int getNumPiles() {
+    return numPiles;
+  }
+
+  /**
+   * Returns the height of the tallest pile.
+   *
+   * @return the number of rows of the table.
+   */
+  public int getNumRows() {
+    return numRows;
+  }
+
+  /**
+   * Returns the number of cards in a pile, hidden ones included.
+   *
+   * @param pileNum 0-based index of the pile.
+   * @return the number of cards in the pile.
+   * @throws IllegalArgumentException if the pile number is invalid.
+   */
+  public int getPileHeight(int pileNum) {
+    indexCheck(pileNum, numPiles);
+    return data[HEADER + pileNum] + data[starts + pileNum + 1] - data[starts + pileNum];
+  }
+
+  /**
+   * Returns the number of face-down cards at the bottom of a pile.
+   *
+   * @param pileNum 0-based index of the pile.
+   * @return the number of hidden cards.
+   * @throws IllegalArgumentException if the pile number is invalid.
+   */
+  public int getHiddenCount(int pileNum) {
+    indexCheck(pileNum, numPiles);
+    return data[HEADER + pileNum];
+  }
+
+  /**
+   * Returns whether a card of a pile is face-up.
+   *
+   * @param pileNum 0-based index of the pile.
+   * @param card    0-based index of the card, from the bottom of the pile.
+   * @return true if the card is visible.
+   * @throws IllegalArgumentException if the coordinates are invalid.
+   */
+  public boolean isCardVisible(int pileNum, int card) {
+    indexCheck(card, getPileHeight(pileNum));
+    return card >= data[HEADER + pileNum];
+  }
+
+  /**
+   * Returns a visible card of a pile.
+   *
+   * @param pileNum 0-based index of the pile.
+   * @param card    0-based index of the card, from the bottom of the pile.
+   * @return the card.
+   * @throws IllegalArgumentException if the coordinates are invalid or the card is hidden.
+   */
+  public ValueCard getCardAt(int pileNum, int card) {
+    if (!isCardVisible(pileNum, card)) {
+      throw new IllegalArgumentException("Card is hidden");
+    }
+    return ValueCard.ofOrdinal(data[data[starts + pileNum] + card - data[HEADER + pileNum]]);
+  }
+
+  /**
+   * Returns the number of foundations.
+   *
+   * @return the number of foundations.
+   */
+  public int getNumFoundations() {
+    return data[1];
+  }
+
+  /**
+   * Returns the top card of a foundation.
+   *
+   * @param foundationPile 0-based index of the foundation.
+   * @return the top card, or null if the foundation is empty.
+   * @throws IllegalArgumentException if the foundation number is invalid.
+   */
+  public ValueCard getFoundationTop(int foundationPile) {
+    indexCheck(foundationPile, data[1]);
+    int top = data[foundations + foundationPile];
+    return top == RuleTables.EMPTY ? null : ValueCard.ofOrdinal(top);
+  }
+
+  /**
+   * Returns the number of draw cards that can be seen.
+   *
+   * @return the number of draw cards.
+   */
+  public int getNumDrawCards() {
+    return data[2];
+  }
+
+  /**
+   * Returns one of the draw cards, the first being the one that can be played.
+   *
+   * @param index 0-based index of the draw card.
+   * @return the draw card.
+   * @throws IllegalArgumentException if the index is invalid.
+   */
+  public ValueCard getDrawCard(int index) {
+    indexCheck(index, data[2]);
+    return ValueCard.ofOrdinal(data[draws + index]);
+  }
+
+  /**
+   * Returns the score of the game.
+   *
+   * @return the score.
+   */
+  public int getScore() {
+    return data[3];
+  }
+
+  /**
+   * Helper that checks an index is within a range.
+   *
+   * @param index index being checked.
+   * @param size  number of valid indices.
+   * @throws IllegalArgumentException if the index is negative or not below size.
+   */
+  private static void indexCheck(int index, int size) {
+    if (index < 0 || index >= size) {
+      throw new IllegalArgumentException("Index out of range");
+    }
+  }
+
+  /**
+   * Fills the array of a snapshot for the models of this package. The piles are given in
+   * order, each followed by its visible cards from the bottom up.
+   */
+  static final class Builder {
+    private final int[] data;
+    private final int starts;
+    private final int foundations;
+    private int pile;
+    private int next;
+
+    /**
+     * Constructs a builder for a snapshot of a given size.
+     *
+     * @param numPiles       number of piles.
+     * @param numFoundations number of foundations.
+     * @param numDrawCards   number of visible draw cards.
+     * @param visibleCards   number of visible cards over all piles.
+     * @param score          score of the game.
+     */
+    Builder(int numPiles, int numFoundations, int numDrawCards, int visibleCards, int score) {
+      this.starts = HEADER + numPiles;
+      this.foundations = starts + numPiles + 1;
+      this.data = new int[foundations + numFoundations + numDrawCards + visibleCards];
+      data[0] = numPiles;
+      data[1] = numFoundations;
+      data[2] = numDrawCards;
+      data[3] = score;
+      this.next = foundations + numFoundations + numDrawCards;
+      data[starts] = next;
+    }
+
+    /**
+     * Starts the next pile.
+     *
+     * @param hidden number of hidden cards at the bottom of the pile.
+     */
+    void pile(int hidden) {
+      if (pile > 0) {
+        data[starts + pile] = next;
+      }
+      data[HEADER + pile++] = hidden;
+    }
+
+    /**
+     * Adds a visible card to the pile being filled.
+     *
+     * @param ordinal ordinal of the card.
+     */
+    void card(int ordinal) {
+      data[next++] = ordinal;
+    }
+
+    /**
+     * Sets the top of a foundation.
+     *
+     * @param foundationPile index of the foundation.
+     * @param top            ordinal of the top card, or RuleTables.EMPTY.
+     */
+    void foundation(int foundationPile, int top) {
+      data[foundations + foundationPile] = top;
+    }
+
+    /**
+     * Sets one of the draw cards.
+     *
+     * @param index   index of the draw card.
+     * @param ordinal ordinal of the card.
+     */
+    void drawCard(int index, int ordinal) {
+      data[foundations + data[1] + index] = ordinal;
+    }
+
+    /**
+     * Finishes the snapshot. The builder must not be used afterwards.
+     *
+     * @return the snapshot.
+     */
+    BoardSnapshot build() {
+      data[starts + pile] = next;
+      return new BoardSnapshot(data);
+    }
+  }
+}
@@ -0,0 +1,489 @@
+package klondike.model.hw04;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import klondike.model.hw02.DeckValidator;
+import klondike.model.hw02.PossibleRank;
+import klondike.model.hw02.PossibleSuits;
+
+/**
+ * A klondike game model that keeps the whole table in flat byte arrays.
+ * Every card is stored as a byte from 0 to 51 (suit ordinal * 13 + rank ordinal) and
+ * is only turned back into a ValueCard when it is handed out through the interface.
+ * Piles share one array where pile i starts at offset i * stride, the stock and draw
+ * cards share one ring, and a foundation is just the id of its top card.
+ * Plays by either the Basic or the Whitehead rules depending on the game type given.
+ */
+public class CompactKlondike implements KlondikeModel<ValueCard> {
+  private static final byte NONE = RuleTables.EMPTY;
+
+  private final boolean whitehead;
+  private final RuleTables rules;
+  private byte[] tableau;
+  private int[] heights;
+  private RowCounts rows;
+  private int stride;
+  private int numPiles;
+  private byte[] stock;
+  private int stockHead;
+  private int stockSize;
+  private byte[] foundations;
+  private int score;
+  private boolean gameStart;
+  private int numDraw;
+
+  /**
+   * Constructor that sets the fields for the chosen rules.
+   *
+   * @param gameType which rules the game is played by.
+   * @throws IllegalArgumentException if the game type is null.
+   */
+  public CompactKlondike(KlondikeCreator.GameType gameType) {
+    if (gameType == null) {
+      throw new IllegalArgumentException("Game type is null");
+    }
+    this.whitehead = gameType == KlondikeCreator.GameType.WHITEHEAD;
+    this.rules = whitehead ? RuleTables.WHITEHEAD : RuleTables.BASIC;
+    this.tableau = new byte[0];
+    this.heights = new int[0];
+    this.rows = new RowCounts(0, 0);
+    this.stock = new byte[0];
+    this.foundations = new byte[0];
+    this.gameStart = false;
+    this.numDraw = 0;
+  }
+
+  @Override
+  public List<ValueCard> createNewDeck() {
+    List<ValueCard> newDeck = new ArrayList<>();
+    for (PossibleRank rank : PossibleRank.values()) {
+      for (PossibleSuits suit : PossibleSuits.values()) {
+        newDeck.add(ValueCard.of(suit, rank));
+      }
+    }
+    return newDeck;
+  }
+
+  @Override
+  public void startGame(List<ValueCard> deck, boolean shuffle, int numPiles, int numDraw) {
+    int foundationCount = startCheck(deck, numPiles, numDraw);
+    ValueCard[] change = deck.toArray(new ValueCard[0]);
+    if (shuffle) {
+      Collections.shuffle(Arrays.asList(change));
+    }
+    deal(foundationCount, change, numPiles, numDraw);
+  }
+
+  @Override
+  public void startGame(List<ValueCard> deck, long seed, int numPiles, int numDraw) {
+    int foundationCount = startCheck(deck, numPiles, numDraw);
+    ValueCard[] change = deck.toArray(new ValueCard[0]);
+    SeededShuffle.shuffle(change, seed);
+    deal(foundationCount, change, numPiles, numDraw);
+  }
+
+  /**
+   * Helper that checks the arguments of startGame before anything is dealt.
+   *
+   * @param deck     deck to be dealt.
+   * @param numPiles number of piles to be dealt.
+   * @param numDraw  number of draw cards.
+   * @return the number of foundations the deck needs.
+   */
+  private int startCheck(List<ValueCard> deck, int numPiles, int numDraw) {
+    if (gameStart) {
+      throw new IllegalStateException("IllegalStateException");
+    }
+    int foundationCount = DeckValidator.foundations(deck);
+    if (foundationCount == 0) {
+      throw new IllegalArgumentException("Decks are invalid");
+    }
+    paramLessCheck(numPiles, 1);
+    paramLessCheck(numDraw, 1);
+    paramLessCheck(deck.size(), numDraw);
+    int neededCards = (numPiles * (numPiles + 1)) / 2;
+    paramLessCheck(deck.size(), neededCards);
+    return foundationCount;
+  }
+
+  /**
+   * Helper that deals the cards in the order given and starts the game.
+   *
+   * @param foundationCount number of foundations, one per ace in the deck.
+   * @param change          the cards in the order they are dealt.
+   * @param numPiles        number of piles to be dealt.
+   * @param numDraw         number of draw cards.
+   */
+  private void deal(int foundationCount, ValueCard[] change, int numPiles, int numDraw) {
+    gameStart = true;
+    this.numDraw = numDraw;
+    this.numPiles = numPiles;
+    this.stride = change.length;
+    this.tableau = new byte[numPiles * stride];
+    this.heights = new int[numPiles];
+    int next = 0;
+    for (int rows = 0; rows < numPiles; rows++) {
+      for (int columns = rows; columns < numPiles; columns++) {
+        tableau[columns * stride + heights[columns]++] = id(change[next++]);
+      }
+    }
+    this.rows = new RowCounts(numPiles, change.length);
+    for (int pile = 0; pile < numPiles; pile++) {
+      rows.changed(0, heights[pile]);
+    }
+    this.stock = new byte[change.length - next];
+    this.stockHead = 0;
+    this.stockSize = 0;
+    while (next < change.length) {
+      stock[stockSize++] = id(change[next++]);
+    }
+    this.foundations = new byte[foundationCount];
+    Arrays.fill(foundations, NONE);
+    this.score = 0;
+  }
+
+  /**
+   * Helper method that checks game state.
+   * Throws exception if start game has not yet been run.
+   */
+  private void gameInProgress() {
+    if (!gameStart) {
+      throw new IllegalStateException("Game has not started");
+    }
+  }
+
+  /**
+   * Helper that checks Illegal Argument Exception using less than.
+   *
+   * @param param1 integer that has to be less than param2.
+   * @param param2 integer that had to be greater than param1.
+   */
+  private void paramLessCheck(int param1, int param2) {
+    if (param1 < param2) {
+      throw new IllegalArgumentException("Illegal Argument Exception");
+    }
+  }
+
+  /**
+   * Helper that checks that an index is within zero and the given size.
+   *
+   * @param index index being checked.
+   * @param size  number of valid indices.
+   */
+  private void indexCheck(int index, int size) {
+    if (index < 0 || index >= size) {
+      throw new IllegalArgumentException("Illegal Argument Exception");
+    }
+  }
+
+  @Override
+  public void movePile(int srcPile, int numCards, int destPile) {
+    gameInProgress();
+    indexCheck(srcPile, numPiles);
+    indexCheck(destPile, numPiles);
+    if (srcPile == destPile) {
+      throw new IllegalArgumentException("Illegal Argument Exception");
+    }
+    paramLessCheck(numCards, 1);
+    int srcHeight = heights[srcPile];
+    paramLessCheck(srcHeight, numCards);
+    int from = srcPile * stride + srcHeight - numCards;
+    if (whitehead) {
+      int suit = RuleTables.suitOf(tableau[from]);
+      for (int index = from + 1; index < from + numCards; index++) {
+        if (RuleTables.suitOf(tableau[index]) != suit) {
+          throw new IllegalStateException("Illegal State Exception");
+        }
+      }
+    }
+    if (!canPlaceOnPile(tableau[from], destPile)) {
+      throw new IllegalStateException("Cannot place card");
+    }
+    System.arraycopy(tableau, from, tableau, destPile * stride + heights[destPile], numCards);
+    rows.changed(heights[destPile], heights[destPile] + numCards);
+    rows.changed(srcHeight, srcHeight - numCards);
+    heights[destPile] += numCards;
+    heights[srcPile] -= numCards;
+  }
+
+  @Override
+  public void moveDraw(int destPile) {
+    gameInProgress();
+    if (stockSize == 0) {
+      throw new IllegalStateException("Illegal State Exception");
+    }
+    indexCheck(destPile, numPiles);
+    byte card = stock[stockHead];
+    if (!canPlaceOnPile(card, destPile)) {
+      throw new IllegalStateException("InvalidState");
+    }
+    rows.changed(heights[destPile], heights[destPile] + 1);
+    tableau[destPile * stride + heights[destPile]++] = card;
+    removeDrawCard();
+  }
+
+  @Override
+  public void moveToFoundation(int srcPile, int foundationPile) {
+    gameInProgress();
+    indexCheck(srcPile, numPiles);
+    indexCheck(foundationPile, foundations.length);
+    if (heights[srcPile] == 0) {
+      throw new IllegalStateException("Illegal State Exception");
+    }
+    byte card = tableau[srcPile * stride + heights[srcPile] - 1];
+    if (!RuleTables.canPlaceFoundation(card, foundations[foundationPile])) {
+      throw new IllegalStateException("Card cannot be moved to foundation");
+    }
+    foundations[foundationPile] = card;
+    score++;
+    rows.changed(heights[srcPile], heights[srcPile] - 1);
+    heights[srcPile]--;
+  }
+
+  @Override
+  public void moveDrawToFoundation(int foundationPile) {
+    gameInProgress();
+    if (stockSize == 0) {
+      throw new IllegalStateException("IllegalStateException");
+    }
+    indexCheck(foundationPile, foundations.length);
+    byte card = stock[stockHead];
+    if (!RuleTables.canPlaceFoundation(card, foundations[foundationPile])) {
+      throw new IllegalStateException("Foundation only card that can be moved");
+    }
+    foundations[foundationPile] = card;
+    score++;
+    removeDrawCard();
+  }
+
+  @Override
+  public void discardDraw() {
+    gameInProgress();
+    if (stockSize == 0) {
+      throw new IllegalStateException("Illegal State Exception");
+    }
+    stock[(stockHead + stockSize) % stock.length] = stock[stockHead];
+    stockHead = (stockHead + 1) % stock.length;
+  }
+
+  /**
+   * Helper that takes the topmost draw card out of the stock ring.
+   */
+  private void removeDrawCard() {
+    stockHead = (stockHead + 1) % stock.length;
+    stockSize--;
+  }
+
+  @Override
+  public int getNumRows() {
+    gameInProgress();
+    return rows.rows();
+  }
+
+  @Override
+  public int getNumPiles() {
+    gameInProgress();
+    return numPiles;
+  }
+
+  @Override
+  public int getNumDraw() {
+    gameInProgress();
+    return numDraw;
+  }
+
+  @Override
+  public boolean isGameOver() {
+    gameInProgress();
+    boolean gameComplete = true;
+    for (byte top : foundations) {
+      if (top == NONE || RuleTables.rankOf(top) != RuleTables.RANKS) {
+        gameComplete = false;
+        break;
+      }
+    }
+    return gameComplete || !availableMove();
+  }
+
+  /**
+   * Helper to check if any move can still be made in the game.
+   * Follows the same rules as the list based models so both agree on when a game ends.
+   *
+   * @return boolean checking if a move can be made.
+   */
+  private boolean availableMove() {
+    for (int srcPile = 0; srcPile < numPiles; srcPile++) {
+      int height = heights[srcPile];
+      if (height == 0) {
+        continue;
+      }
+      int base = srcPile * stride;
+      int top = base + height - 1;
+      int first = whitehead ? base : top;
+      for (int index = first; index <= top; index++) {
+        if (canPlaceAnyFoundation(tableau[index])) {
+          return true;
+        }
+      }
+      int runStart = top;
+      if (whitehead) {
+        int suit = RuleTables.suitOf(tableau[top]);
+        while (runStart > base && RuleTables.suitOf(tableau[runStart - 1]) == suit) {
+          runStart--;
+        }
+      }
+      for (int index = runStart; index <= top; index++) {
+        for (int destPile = 0; destPile < numPiles; destPile++) {
+          if (destPile != srcPile && canPlaceOnPile(tableau[index], destPile)) {
+            return true;
+          }
+        }
+      }
+    }
+    for (int count = 0; count < stockSize; count++) {
+      byte card = stock[(stockHead + count) % stock.length];
+      if (canPlaceAnyFoundation(card)) {
+        return true;
+      }
+      for (int destPile = 0; destPile < numPiles; destPile++) {
+        if (canPlaceOnPile(card, destPile)) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public int getScore() {
+    gameInProgress();
+    return score;
+  }
+
+  @Override
+  public int getPileHeight(int pileNum) {
+    gameInProgress();
+    indexCheck(pileNum, numPiles);
+    return heights[pileNum];
+  }
+
+  @Override
+  public int[] getPileHeights() {
+    gameInProgress();
+    return heights.clone();
+  }
+
+  @Override
+  public ValueCard getCardAt(int pileNum, int card) {
+    gameInProgress();
+    if (!isCardVisible(pileNum, card)) {
+      throw new IllegalArgumentException("IllegalArgumentException");
+    }
+    return ValueCard.ofOrdinal(tableau[pileNum * stride + card]);
+  }
+
+  @Override
+  public ValueCard getCardAt(int foundationPile) {
+    gameInProgress();
+    indexCheck(foundationPile, foundations.length);
+    byte top = foundations[foundationPile];
+    return top == NONE ? null : ValueCard.ofOrdinal(top);
+  }
+
+  @Override
+  public boolean isCardVisible(int pileNum, int card) {
+    gameInProgress();
+    indexCheck(pileNum, numPiles);
+    indexCheck(card, heights[pileNum]);
+    return whitehead || card == heights[pileNum] - 1;
+  }
+
+  @Override
+  public List<ValueCard> getDrawCards() {
+    gameInProgress();
+    int count = Math.min(numDraw, stockSize);
+    List<ValueCard> drawCards = new ArrayList<>(count);
+    for (int index = 0; index < count; index++) {
+      drawCards.add(ValueCard.ofOrdinal(stock[(stockHead + index) % stock.length]));
+    }
+    return drawCards;
+  }
+
+  @Override
+  public BoardSnapshot snapshot() {
+    gameInProgress();
+    int visible = 0;
+    for (int pile = 0; pile < numPiles; pile++) {
+      visible += heights[pile] - hiddenCount(pile);
+    }
+    int drawCards = Math.min(numDraw, stockSize);
+    BoardSnapshot.Builder builder =
+        new BoardSnapshot.Builder(numPiles, foundations.length, drawCards, visible, score);
+    for (int pile = 0; pile < numPiles; pile++) {
+      int hidden = hiddenCount(pile);
+      builder.pile(hidden);
+      for (int index = hidden; index < heights[pile]; index++) {
+        builder.card(tableau[pile * stride + index]);
+      }
+    }
+    for (int foundation = 0; foundation < foundations.length; foundation++) {
+      builder.foundation(foundation, foundations[foundation]);
+    }
+    for (int index = 0; index < drawCards; index++) {
+      builder.drawCard(index, stock[(stockHead + index) % stock.length]);
+    }
+    return builder.build();
+  }
+
+  /**
+   * Helper that gives the number of face-down cards at the bottom of a pile.
+   *
+   * @param pile index of the pile.
+   * @return the number of hidden cards.
+   */
+  private int hiddenCount(int pile) {
+    return whitehead ? 0 : Math.max(heights[pile] - 1, 0);
+  }
+
+  @Override
+  public int getNumFoundations() {
+    gameInProgress();
+    return foundations.length;
+  }
+
+  /**
+   * Helper that checks if a card can be placed on top of a pile under this game's rules.
+   *
+   * @param card     id of the card being moved.
+   * @param destPile pile the card would be placed on.
+   * @return boolean if the move is allowed.
+   */
+  private boolean canPlaceOnPile(byte card, int destPile) {
+    int height = heights[destPile];
+    if (height == 0) {
+      return rules.canMoveToEmpty(card);
+    }
+    return rules.canBuild(card, tableau[destPile * stride + height - 1]);
+  }
+
+  /**
+   * Helper that checks if a card can be placed on any of the foundations.
+   *
+   * @param card id of the card being moved.
+   * @return boolean if some foundation accepts the card.
+   */
+  private boolean canPlaceAnyFoundation(byte card) {
+    for (byte top : foundations) {
+      if (RuleTables.canPlaceFoundation(card, top)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static byte id(ValueCard card) {
+    return (byte) card.ordinal();
+  }
+}
@@ -0,0 +1,504 @@
+package klondike.model.hw04;
+
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import klondike.model.hw02.DeckValidator;
+
+/**
+ * Turns a started game into a few bytes and back, to save it, park it or send it elsewhere.
+ * A game starts with two magic bytes, a version, the variant and a byte of flags, then the
+ * number of draw cards, each pile as its height, its number of hidden cards and its cards
+ * from the bottom up, the top of each foundation and the stock with the draw cards first.
+ * Every card is one byte holding its ordinal and every count a variable length number, so a
+ * fresh deal of seven piles takes 79 bytes.
+ * The journal of moves, which lets undo and redo work on a game read back, is an optional
+ * last section that a flag says is there. Each of its moves takes one to three bytes.
+ */
+public final class GameStateCodec {
+  /**
+   * Version of the format written by encode.
+   */
+  public static final int VERSION = 2;
+
+  private static final int MAGIC_0 = 'K';
+  private static final int MAGIC_1 = 'G';
+  private static final int BASIC = 0;
+  private static final int WHITEHEAD = 1;
+  private static final int JOURNAL = 1;
+  private static final int KIND_BITS = 3;
+
+  private GameStateCodec() {
+  }
+
+  /**
+   * Gives the number of bytes encode writes for a game with its journal.
+   *
+   * @param model started game.
+   * @return the number of bytes of the game.
+   * @throws IllegalArgumentException if the model is null.
+   * @throws IllegalStateException    if the game hasn't started.
+   */
+  public static int sizeOf(AbstractKlondike model) {
+    return sizeOf(model, true);
+  }
+
+  /**
+   * Gives the number of bytes encode writes for a game.
+   *
+   * @param model   started game.
+   * @param journal true to count the journal of moves too.
+   * @return the number of bytes of the game.
+   * @throws IllegalArgumentException if the model is null.
+   * @throws IllegalStateException    if the game hasn't started.
+   */
+  public static int sizeOf(AbstractKlondike model, boolean journal) {
+    variantOf(model);
+    model.gameInProgress();
+    int size = 5 + numberSize(model.numDraw) + numberSize(model.piles.size());
+    for (int pile = 0; pile < model.piles.size(); pile++) {
+      int height = model.piles.get(pile).size();
+      size += numberSize(height) + numberSize(model.hiddenCount(pile)) + height;
+    }
+    size += numberSize(model.foundationTops.length) + model.foundationTops.length;
+    size += numberSize(model.stock.size()) + model.stock.size();
+    if (journal) {
+      MoveJournal moves = model.journal();
+      size += numberSize(moves.size()) + numberSize(moves.cursor());
+      for (int index = 0; index < moves.size(); index++) {
+        size += moveSize(moves.get(index));
+      }
+    }
+    return size;
+  }
+
+  /**
+   * Writes a game with its journal as bytes.
+   *
+   * @param model started game.
+   * @return the bytes of the game.
+   * @throws IllegalArgumentException if the model is null.
+   * @throws IllegalStateException    if the game hasn't started.
+   */
+  public static byte[] encode(AbstractKlondike model) {
+    return encode(model, true);
+  }
+
+  /**
+   * Writes a game as bytes.
+   *
+   * @param model   started game.
+   * @param journal true to write the journal of moves too, so they can be undone later.
+   * @return the bytes of the game.
+   * @throws IllegalArgumentException if the model is null.
+   * @throws IllegalStateException    if the game hasn't started.
+   */
+  public static byte[] encode(AbstractKlondike model, boolean journal) {
+    byte[] bytes = new byte[sizeOf(model, journal)];
+    encode(model, ByteBuffer.wrap(bytes), journal);
+    return bytes;
+  }
+
+  /**
+   * Writes a game with its journal into a buffer at its position, leaving the position after
+   * the game. Several games may be written one after another into the same buffer.
+   *
+   * @param model started game.
+   * @param out   buffer with at least sizeOf(model) bytes remaining.
+   * @throws IllegalArgumentException if the model or buffer is null or the buffer is too
+   *                                  small.
+   * @throws IllegalStateException    if the game hasn't started.
+   */
+  public static void encode(AbstractKlondike model, ByteBuffer out) {
+    encode(model, out, true);
+  }
+
+  /**
+   * Writes a game into a buffer at its position, leaving the position after the game.
+   *
+   * @param model   started game.
+   * @param out     buffer with at least sizeOf(model, journal) bytes remaining.
+   * @param journal true to write the journal of moves too, so they can be undone later.
+   * @throws IllegalArgumentException if the model or buffer is null or the buffer is too
+   *                                  small.
+   * @throws IllegalStateException    if the game hasn't started.
+   */
+  public static void encode(AbstractKlondike model, ByteBuffer out, boolean journal) {
+    int variant = variantOf(model);
+    if (out == null) {
+      throw new IllegalArgumentException("Buffer is null");
+    }
+    model.gameInProgress();
+    int start = out.position();
+    try {
+      out.put((byte) MAGIC_0).put((byte) MAGIC_1).put((byte) VERSION).put((byte) variant)
+          .put((byte) (journal ? JOURNAL : 0));
+      putNumber(out, model.numDraw);
+      putNumber(out, model.piles.size());
+      for (int pile = 0; pile < model.piles.size(); pile++) {
+        putNumber(out, model.piles.get(pile).size());
+        putNumber(out, model.hiddenCount(pile));
+        for (ValueCard card : model.piles.get(pile)) {
+          out.put((byte) card.ordinal());
+        }
+      }
+      putNumber(out, model.foundationTops.length);
+      for (int top : model.foundationTops) {
+        out.put((byte) top);
+      }
+      putNumber(out, model.stock.size());
+      for (ValueCard card : model.stock) {
+        out.put((byte) card.ordinal());
+      }
+      if (journal) {
+        MoveJournal moves = model.journal();
+        putNumber(out, moves.size());
+        putNumber(out, moves.cursor());
+        for (int index = 0; index < moves.size(); index++) {
+          putMove(out, moves.get(index));
+        }
+      }
+    } catch (BufferOverflowException e) {
+      out.position(start);
+      throw new IllegalArgumentException("Buffer is too small", e);
+    }
+  }
+
+  /**
+   * Reads back a game written by encode.
+   *
+   * @param bytes the bytes of exactly one game.
+   * @return a started game in the same position, with the same moves to undo and redo if
+   *         the journal was written.
+   * @throws IllegalArgumentException if the bytes are null, not a game or longer than one.
+   */
+  public static AbstractKlondike decode(byte[] bytes) {
+    if (bytes == null) {
+      throw new IllegalArgumentException("Bytes are null");
+    }
+    ByteBuffer in = ByteBuffer.wrap(bytes);
+    AbstractKlondike model = decode(in);
+    if (in.hasRemaining()) {
+      throw new IllegalArgumentException("Bytes left over");
+    }
+    return model;
+  }
+
+  /**
+   * Reads back a game written by encode from a buffer at its position, leaving the position
+   * after the game.
+   *
+   * @param in buffer holding the game.
+   * @return a started game in the same position, with the same moves to undo and redo if
+   *         the journal was written.
+   * @throws IllegalArgumentException if the buffer is null or doesn't hold a game of a known
+   *                                  version, such as when its cards don't make up a deck
+   *                                  or its journal has a move that could not have been
+   *                                  made on the board.
+   */
+  public static AbstractKlondike decode(ByteBuffer in) {
+    if (in == null) {
+      throw new IllegalArgumentException("Buffer is null");
+    }
+    try {
+      if (in.get() != MAGIC_0 || in.get() != MAGIC_1) {
+        throw new IllegalArgumentException("Not a saved game");
+      }
+      if (in.get() != VERSION) {
+        throw new IllegalArgumentException("Unsupported version");
+      }
+      AbstractKlondike model = switch (in.get()) {
+        case BASIC -> new BasicKlondike();
+        case WHITEHEAD -> new WhiteheadKlondike();
+        default -> throw new IllegalArgumentException("Unknown variant");
+      };
+      int flags = in.get();
+      if ((flags & ~JOURNAL) != 0) {
+        throw new IllegalArgumentException("Unknown flags");
+      }
+      int numDraw = getNumber(in);
+      if (numDraw < 1) {
+        throw new IllegalArgumentException("Invalid number of draw cards");
+      }
+      int[] counts = new int[RuleTables.CARDS];
+      ValueCard[][] tableau = new ValueCard[getCount(in)][];
+      if (tableau.length == 0) {
+        throw new IllegalArgumentException("Invalid number of piles");
+      }
+      int[] hidden = new int[tableau.length];
+      for (int pile = 0; pile < tableau.length; pile++) {
+        int height = getCount(in);
+        hidden[pile] = getNumber(in);
+        tableau[pile] = getCards(in, height, counts);
+      }
+      int[] tops = new int[getCount(in)];
+      for (int foundation = 0; foundation < tops.length; foundation++) {
+        tops[foundation] = in.get();
+        if (tops[foundation] < RuleTables.EMPTY || tops[foundation] >= RuleTables.CARDS) {
+          throw new IllegalArgumentException("Invalid foundation");
+        }
+        for (int card = tops[foundation]; card >= 0; card--) {
+          counts[card]++;
+          if (card % RuleTables.RANKS == 0) {
+            break;
+          }
+        }
+      }
+      ValueCard[] stock = getCards(in, getCount(in), counts);
+      if (tops.length == 0 || DeckValidator.foundations(counts) != tops.length) {
+        throw new IllegalArgumentException("Cards don't make up a deck");
+      }
+      int[] moves = new int[0];
+      int cursor = 0;
+      if (flags == JOURNAL) {
+        moves = new int[getCount(in)];
+        cursor = getNumber(in);
+        if (cursor > moves.length) {
+          throw new IllegalArgumentException("Invalid journal");
+        }
+        for (int index = 0; index < moves.length; index++) {
+          moves[index] = getMove(in, tableau.length, tops.length, tops.length * RuleTables.RANKS);
+        }
+      }
+      model.restore(tableau, tops, stock, numDraw, moves, cursor);
+      for (int pile = 0; pile < tableau.length; pile++) {
+        if (hidden[pile] != model.hiddenCount(pile)) {
+          throw new IllegalArgumentException("Hidden cards don't match the variant");
+        }
+      }
+      if (moves.length > 0) {
+        checkJournal(model);
+        model.restore(tableau, tops, stock, numDraw, moves, cursor);
+      }
+      return model;
+    } catch (BufferUnderflowException e) {
+      throw new IllegalArgumentException("Game is cut short", e);
+    }
+  }
+
+  /**
+   * Helper that checks the journal of a game read back can be played from the board.
+   * The moves that can be redone are redone, checking each is legal, then every move is
+   * undone, checking its cards are there to take back and that it was a legal move. The
+   * game is left at the start of its journal, so decode restores it again after.
+   *
+   * @param model the game read back.
+   * @throws IllegalArgumentException if a move of the journal could not have been made.
+   */
+  private static void checkJournal(AbstractKlondike model) {
+    MoveJournal moves = model.journal();
+    for (int index = moves.cursor(); index < moves.size(); index++) {
+      if (!model.isLegal(moves.get(index))) {
+        throw new IllegalArgumentException("Journal doesn't match the board");
+      }
+      model.redo();
+    }
+    for (int index = moves.size() - 1; index >= 0; index--) {
+      if (!model.canTakeBack(moves.get(index))) {
+        throw new IllegalArgumentException("Journal doesn't match the board");
+      }
+      model.undo();
+      if (!model.isLegal(moves.get(index))) {
+        throw new IllegalArgumentException("Journal doesn't match the board");
+      }
+    }
+  }
+
+  /**
+   * Helper that gives the byte written for the variant of a game.
+   *
+   * @param model the game.
+   * @return the variant's byte.
+   * @throws IllegalArgumentException if the model is null.
+   */
+  private static int variantOf(AbstractKlondike model) {
+    if (model == null) {
+      throw new IllegalArgumentException("Model is null");
+    }
+    return switch (model.variant()) {
+      case BASIC -> BASIC;
+      case WHITEHEAD -> WHITEHEAD;
+    };
+  }
+
+  /**
+   * Helper that reads a run of cards written as one ordinal each, counting each card read.
+   *
+   * @param in     the bytes being read.
+   * @param count  number of cards.
+   * @param counts number of each card read so far, by ordinal.
+   * @return the cards.
+   * @throws IllegalArgumentException if a byte is not a card.
+   */
+  private static ValueCard[] getCards(ByteBuffer in, int count, int[] counts) {
+    ValueCard[] cards = new ValueCard[count];
+    for (int index = 0; index < cards.length; index++) {
+      int ordinal = in.get();
+      if (ordinal < 0 || ordinal >= RuleTables.CARDS) {
+        throw new IllegalArgumentException("Invalid card");
+      }
+      counts[ordinal]++;
+      cards[index] = ValueCard.ofOrdinal(ordinal);
+    }
+    return cards;
+  }
+
+  /**
+   * Helper that gives the number of bytes putMove writes for a move.
+   *
+   * @param move a move encoded by Moves.
+   * @return the number of bytes.
+   */
+  private static int moveSize(int move) {
+    int size = numberSize(Moves.kind(move) | lead(move) << KIND_BITS);
+    if (Moves.kind(move) == Moves.PILE_TO_PILE) {
+      size += numberSize(Moves.destination(move)) + numberSize(Moves.count(move));
+    } else if (Moves.kind(move) == Moves.PILE_TO_FOUNDATION) {
+      size += numberSize(Moves.destination(move));
+    }
+    return size;
+  }
+
+  /**
+   * Helper that writes a move of the journal with only the parts its kind uses: the kind
+   * together with its first index, then the destination and count of a pile move or the
+   * foundation of a move from a pile to a foundation.
+   *
+   * @param out  the buffer written to.
+   * @param move a move encoded by Moves.
+   */
+  private static void putMove(ByteBuffer out, int move) {
+    putNumber(out, Moves.kind(move) | lead(move) << KIND_BITS);
+    if (Moves.kind(move) == Moves.PILE_TO_PILE) {
+      putNumber(out, Moves.destination(move));
+      putNumber(out, Moves.count(move));
+    } else if (Moves.kind(move) == Moves.PILE_TO_FOUNDATION) {
+      putNumber(out, Moves.destination(move));
+    }
+  }
+
+  /**
+   * Helper that gives the index written with the kind of a move: the source pile of moves
+   * from a pile, otherwise the destination.
+   *
+   * @param move a move encoded by Moves.
+   * @return the index.
+   */
+  private static int lead(int move) {
+    int kind = Moves.kind(move);
+    return kind == Moves.PILE_TO_PILE || kind == Moves.PILE_TO_FOUNDATION
+        ? Moves.source(move) : Moves.destination(move);
+  }
+
+  /**
+   * Helper that reads a move written by putMove and checks it fits the board.
+   *
+   * @param in          the bytes being read.
+   * @param piles       number of piles.
+   * @param foundations number of foundations.
+   * @param cards       number of cards in the game.
+   * @return the move encoded by Moves, as the journal recorded it.
+   * @throws IllegalArgumentException if the move is of no known kind or off the board.
+   */
+  private static int getMove(ByteBuffer in, int piles, int foundations, int cards) {
+    int first = getNumber(in);
+    int kind = first & ((1 << KIND_BITS) - 1);
+    int lead = first >>> KIND_BITS;
+    return switch (kind) {
+      case Moves.PILE_TO_PILE -> {
+        int dest = getNumber(in);
+        int count = getNumber(in);
+        if (lead >= piles || dest >= piles || lead == dest || count < 1 || count > cards) {
+          throw new IllegalArgumentException("Invalid move in journal");
+        }
+        yield Moves.encode(kind, lead, dest, count);
+      }
+      case Moves.DRAW_TO_PILE -> Moves.encode(kind, 0, checked(lead, piles), 1);
+      case Moves.PILE_TO_FOUNDATION -> {
+        int dest = getNumber(in);
+        yield Moves.encode(kind, checked(lead, piles), checked(dest, foundations), 1);
+      }
+      case Moves.DRAW_TO_FOUNDATION -> Moves.encode(kind, 0, checked(lead, foundations), 1);
+      case Moves.DISCARD -> Moves.encode(kind, 0, checked(lead, 1), 1);
+      default -> throw new IllegalArgumentException("Invalid move in journal");
+    };
+  }
+
+  /**
+   * Helper that checks an index read from a journal move.
+   *
+   * @param index the index.
+   * @param limit number of piles or foundations it indexes.
+   * @return the index.
+   * @throws IllegalArgumentException if the index is out of range.
+   */
+  private static int checked(int index, int limit) {
+    if (index >= limit) {
+      throw new IllegalArgumentException("Invalid move in journal");
+    }
+    return index;
+  }
+
+  /**
+   * Helper that reads a count and checks it fits in the bytes left, so a damaged count
+   * can't make decode allocate a huge array.
+   *
+   * @param in the bytes being read.
+   * @return the count.
+   * @throws IllegalArgumentException if the count is larger than the bytes left.
+   */
+  private static int getCount(ByteBuffer in) {
+    int count = getNumber(in);
+    if (count > in.remaining()) {
+      throw new IllegalArgumentException("Invalid count");
+    }
+    return count;
+  }
+
+  /**
+   * Helper that gives the number of bytes putNumber writes for a number.
+   *
+   * @param number a number that is not negative.
+   * @return the number of bytes, from 1 to 5.
+   */
+  private static int numberSize(int number) {
+    return (31 - Integer.numberOfLeadingZeros(number | 1)) / 7 + 1;
+  }
+
+  /**
+   * Helper that writes a number that is not negative, seven bits a byte, low bits first.
+   * The high bit of a byte says another byte follows.
+   *
+   * @param out    the buffer written to.
+   * @param number the number.
+   */
+  private static void putNumber(ByteBuffer out, int number) {
+    while ((number & ~0x7f) != 0) {
+      out.put((byte) (number & 0x7f | 0x80));
+      number >>>= 7;
+    }
+    out.put((byte) number);
+  }
+
+  /**
+   * Helper that reads a number written by putNumber.
+   *
+   * @param in the bytes being read.
+   * @return the number.
+   * @throws IllegalArgumentException if the number is too long or negative.
+   */
+  private static int getNumber(ByteBuffer in) {
+    int number = 0;
+    for (int shift = 0; shift < 32; shift += 7) {
+      int part = in.get();
+      number |= (part & 0x7f) << shift;
+      if ((part & 0x80) == 0) {
+        if (number < 0) {
+          throw new IllegalArgumentException("Invalid number");
+        }
+        return number;
+      }
+    }
+    throw new IllegalArgumentException("Invalid number");
+  }
+}
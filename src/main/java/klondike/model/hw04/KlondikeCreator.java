@@ -26,4 +26,15 @@ public final class KlondikeCreator {
       case WHITEHEAD -> new WhiteheadKlondike();
     };
   }
+
+  /**
+   * Method that instantiates the byte encoded model that plays by the chosen game's rules.
+   * Behaves the same as the model from create, but keeps the table in flat arrays.
+   *
+   * @param gameType enum given that guarantees method is given only one of two options.
+   * @return an instantiated compact klondike game model of the type chosen.
+   */
+  public static KlondikeModel<ValueCard> createCompact(GameType gameType) {
+    return new CompactKlondike(gameType);
+  }
 }
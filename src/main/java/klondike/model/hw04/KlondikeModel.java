@@ -60,6 +60,25 @@ public interface KlondikeModel<C extends Card>
   void startGame(List<C> deck, boolean shuffle, int numPiles, int numDraw)
       throws IllegalArgumentException, IllegalStateException;
 
+  /**
+   * Deal a new game of Klondike from a deck shuffled by the given seed.
+   * Works like {@link #startGame(List, boolean, int, int)} with shuffling on, except the
+   * order comes from the seed: the same deck order, seed and sizes always deal the same
+   * game, on any run and any JVM. Shuffling uses no shared random state, so many games
+   * can be dealt at once from different threads.
+   *
+   * @param deck     the deck to be dealt
+   * @param seed     64-bit seed that decides the shuffled order
+   * @param numPiles number of piles to be dealt
+   * @param numDraw  maximum number of draw cards available at a time
+   * @throws IllegalStateException    if the game has already started
+   * @throws IllegalArgumentException if the deck is null or invalid,
+   *                                  a full cascade cannot be dealt with the given sizes,
+   *                                  or another input is invalid
+   */
+  void startGame(List<C> deck, long seed, int numPiles, int numDraw)
+      throws IllegalArgumentException, IllegalStateException;
+
   /**
    * Moves the requested number of cards from the source pile to the destination pile,
    * if allowable by the rules of the game.
@@ -224,4 +243,15 @@ public interface KlondikeModel<C extends Card>
    * @throws IllegalStateException if the game hasn't been started yet
    */
   int getNumFoundations() throws IllegalStateException;
+
+  /**
+   * Returns an immutable copy of everything a player can see of the game right now:
+   * the visible pile cards, how many cards each pile hides, the foundation tops,
+   * the draw cards and the score. Later moves do not change the snapshot, and it
+   * may be read from any thread.
+   *
+   * @return the snapshot of the board
+   * @throws IllegalStateException if the game hasn't been started yet
+   */
+  BoardSnapshot snapshot() throws IllegalStateException;
 }
@@ -0,0 +1,29 @@
+package klondike.model.hw04;
+
+/**
+ * Behaviors for listing and making moves without going through exceptions.
+ * Moves are encoded as ints by the Moves class, so a caller can keep one buffer and reuse
+ * it for every position without creating any objects.
+ */
+public interface MoveGenerator {
+  /**
+   * Fills the buffer with every move the model would accept in the current position.
+   * Discarding a draw card counts as a move whenever there are draw cards.
+   *
+   * @param buffer array the encoded moves are written to, starting at index 0
+   * @return the number of moves written
+   * @throws IllegalStateException if the game hasn't started
+   * @throws IllegalArgumentException if the buffer is too small to hold every move
+   */
+  int legalMoves(int[] buffer);
+
+  /**
+   * Makes an encoded move without checking it against the rules again.
+   * The move must come from legalMoves for the current position; anything else leaves the
+   * game in a broken state.
+   *
+   * @param move the encoded move
+   * @throws IllegalStateException if the game hasn't started
+   */
+  void applyMove(int move);
+}
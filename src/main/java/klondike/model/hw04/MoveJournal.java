@@ -0,0 +1,139 @@
+package klondike.model.hw04;
+
+import java.util.Arrays;
+
+/**
+ * Journal of the moves made in an AbstractKlondike game, kept for undo and redo.
+ * Each move is one int encoded by Moves, so undoing a move only has to move the same
+ * cards back instead of restoring a copy of the board.
+ * Entries past the cursor are moves that were undone and can still be redone; recording
+ * a new move throws them away.
+ */
+final class MoveJournal {
+  private int[] entries;
+  private int cursor;
+  private int end;
+  private ReplayWriter log;
+
+  /**
+   * Constructs an empty journal.
+   */
+  MoveJournal() {
+    this.entries = new int[64];
+    this.cursor = 0;
+    this.end = 0;
+  }
+
+  /**
+   * Adds a move that was just made and forgets any moves that could have been redone.
+   *
+   * @param entry the encoded move.
+   */
+  void record(int entry) {
+    if (cursor == entries.length) {
+      entries = Arrays.copyOf(entries, entries.length * 2);
+    }
+    entries[cursor++] = entry;
+    end = cursor;
+    if (log != null) {
+      log.move(entry);
+    }
+  }
+
+  /**
+   * Steps back over the last move made.
+   *
+   * @return the encoded move to undo.
+   * @throws IllegalStateException if there is no move to undo.
+   */
+  int undo() {
+    if (cursor == 0) {
+      throw new IllegalStateException("No move to undo");
+    }
+    if (log != null) {
+      log.move(ReplayWriter.UNDO);
+    }
+    return entries[--cursor];
+  }
+
+  /**
+   * Steps forward over the last move undone.
+   *
+   * @return the encoded move to redo.
+   * @throws IllegalStateException if there is no move to redo.
+   */
+  int redo() {
+    if (cursor == end) {
+      throw new IllegalStateException("No move to redo");
+    }
+    if (log != null) {
+      log.move(ReplayWriter.REDO);
+    }
+    return entries[cursor++];
+  }
+
+  boolean canUndo() {
+    return cursor > 0;
+  }
+
+  boolean canRedo() {
+    return cursor < end;
+  }
+
+  /**
+   * Gives the number of moves kept, including those that can be redone.
+   *
+   * @return the number of moves in the journal.
+   */
+  int size() {
+    return end;
+  }
+
+  /**
+   * Gives the number of moves that can be undone.
+   *
+   * @return the position of the cursor.
+   */
+  int cursor() {
+    return cursor;
+  }
+
+  /**
+   * Gives one of the moves kept.
+   *
+   * @param index index of the move, from the first move of the game.
+   * @return the encoded move.
+   */
+  int get(int index) {
+    return entries[index];
+  }
+
+  /**
+   * Replaces the journal with moves read back from a saved game.
+   *
+   * @param moves  every move kept, including those that can be redone.
+   * @param cursor number of moves that can be undone.
+   */
+  void restore(int[] moves, int cursor) {
+    this.entries = Arrays.copyOf(moves, Math.max(moves.length, 64));
+    this.cursor = cursor;
+    this.end = moves.length;
+  }
+
+  /**
+   * Sets the replay log every move, undo and redo is written to from now on.
+   *
+   * @param log the log, or null to stop writing.
+   */
+  void setLog(ReplayWriter log) {
+    this.log = log;
+  }
+
+  /**
+   * Forgets every move, used when a new game is dealt.
+   */
+  void clear() {
+    cursor = 0;
+    end = 0;
+  }
+}
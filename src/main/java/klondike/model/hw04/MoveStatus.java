@@ -0,0 +1,47 @@
+package klondike.model.hw04;
+
+/**
+ * Result of trying a move on a klondike game.
+ * Each rejection matches the exception the throwing version of the move would give,
+ * so callers that play many illegal moves can check the status instead of catching.
+ */
+public enum MoveStatus {
+  OK(null, false),
+  NOT_STARTED("Game has not started", false),
+  INVALID_ARGUMENT("Illegal Argument Exception", true),
+  NO_CARDS("Illegal State Exception", false),
+  ILLEGAL_MOVE("Cannot place card", false);
+
+  private final String message;
+  private final boolean argumentError;
+
+  MoveStatus(String message, boolean argumentError) {
+    this.message = message;
+    this.argumentError = argumentError;
+  }
+
+  /**
+   * Says whether the move was made.
+   *
+   * @return true if the move was made.
+   */
+  public boolean isOk() {
+    return this == OK;
+  }
+
+  /**
+   * Throws the exception the throwing version of the move gives for this status.
+   *
+   * @throws IllegalArgumentException for INVALID_ARGUMENT.
+   * @throws IllegalStateException    for every other rejection.
+   */
+  public void check() {
+    if (this == OK) {
+      return;
+    }
+    if (argumentError) {
+      throw new IllegalArgumentException(message);
+    }
+    throw new IllegalStateException(message);
+  }
+}
@@ -0,0 +1,248 @@
+package klondike.model.hw04;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps a running count of the moves that are open in an AbstractKlondike game.
+ * For every card ordinal it counts how many piles and foundations would accept that card
+ * and how many places hold that card where it could be moved from. The open move count is
+ * the number of (source, destination) pairs that match, so the model only has to detach a
+ * pile or foundation before changing it and attach it again afterwards to keep it exact.
+ * A pile never counts as a destination for its own cards, just like the full scan.
+ */
+final class MoveTracker {
+  private static final int CARDS = RuleTables.CARDS;
+  private static final Map<Class<?>, Tables> TABLES = new ConcurrentHashMap<>();
+
+  private final AbstractKlondike model;
+  private boolean[] accepts;
+  private int[][] pileAccepts;
+  private int[][] foundationAccepts;
+  private final int[] pileAcceptors;
+  private final int[] foundationAcceptors;
+  private final int[] pileSources;
+  private final int[] foundationSources;
+  private long openMoves;
+  private int completeFoundations;
+
+  /**
+   * Constructor for the tracker of one model.
+   * The rule tables are read from the model's hooks when the first game of its class starts.
+   *
+   * @param model the model whose moves are being tracked.
+   */
+  MoveTracker(AbstractKlondike model) {
+    this.model = model;
+    this.pileAcceptors = new int[CARDS];
+    this.foundationAcceptors = new int[CARDS];
+    this.pileSources = new int[CARDS];
+    this.foundationSources = new int[CARDS];
+  }
+
+  /**
+   * Recounts everything from the model's current piles, foundations and draw cards.
+   * Called once the model has dealt a new game.
+   */
+  void reset() {
+    if (accepts == null) {
+      Tables tables = TABLES.computeIfAbsent(model.getClass(), type -> new Tables(model));
+      accepts = tables.accepts;
+      pileAccepts = tables.pileAccepts;
+      foundationAccepts = tables.foundationAccepts;
+    }
+    Arrays.fill(pileAcceptors, 0);
+    Arrays.fill(foundationAcceptors, 0);
+    Arrays.fill(pileSources, 0);
+    Arrays.fill(foundationSources, 0);
+    openMoves = 0;
+    completeFoundations = 0;
+    for (int foundation = 0; foundation < model.foundationTops.length; foundation++) {
+      attachFoundation(foundation);
+    }
+    for (int pile = 0; pile < model.piles.size(); pile++) {
+      attachPile(pile);
+    }
+    for (ValueCard card : model.stock) {
+      addDrawCard(card);
+    }
+  }
+
+  /**
+   * Says whether any move is open.
+   *
+   * @return true if at least one card can be moved somewhere.
+   */
+  boolean hasOpenMove() {
+    return openMoves > 0;
+  }
+
+  /**
+   * Says whether every foundation holds a full suit.
+   *
+   * @return true if all foundations have 13 cards.
+   */
+  boolean allFoundationsComplete() {
+    return completeFoundations == model.foundationTops.length;
+  }
+
+  /**
+   * Takes a pile out of the counts, both as a source and as a destination.
+   * Must be called before the pile changes, with the pile as it was when attached.
+   *
+   * @param pile index of the pile.
+   */
+  void detachPile(int pile) {
+    List<ValueCard> cards = model.piles.get(pile);
+    int top = topOf(cards);
+    if (!cards.isEmpty()) {
+      for (int index = model.moveSourceStart(pile); index < cards.size(); index++) {
+        int card = cards.get(index).ordinal();
+        pileSources[card]--;
+        openMoves -= pileAcceptors[card] - (accepts[(top + 1) * CARDS + card] ? 1 : 0);
+      }
+      for (int index = model.foundationSourceStart(pile); index < cards.size(); index++) {
+        int card = cards.get(index).ordinal();
+        foundationSources[card]--;
+        openMoves -= foundationAcceptors[card];
+      }
+    }
+    for (int card : pileAccepts[top + 1]) {
+      pileAcceptors[card]--;
+      openMoves -= pileSources[card];
+    }
+  }
+
+  /**
+   * Puts a pile back into the counts after it has changed.
+   *
+   * @param pile index of the pile.
+   */
+  void attachPile(int pile) {
+    List<ValueCard> cards = model.piles.get(pile);
+    int top = topOf(cards);
+    for (int card : pileAccepts[top + 1]) {
+      pileAcceptors[card]++;
+      openMoves += pileSources[card];
+    }
+    if (!cards.isEmpty()) {
+      for (int index = model.moveSourceStart(pile); index < cards.size(); index++) {
+        int card = cards.get(index).ordinal();
+        openMoves += pileAcceptors[card] - (accepts[(top + 1) * CARDS + card] ? 1 : 0);
+        pileSources[card]++;
+      }
+      for (int index = model.foundationSourceStart(pile); index < cards.size(); index++) {
+        int card = cards.get(index).ordinal();
+        openMoves += foundationAcceptors[card];
+        foundationSources[card]++;
+      }
+    }
+  }
+
+  /**
+   * Takes a foundation out of the counts before it changes.
+   *
+   * @param foundation index of the foundation.
+   */
+  void detachFoundation(int foundation) {
+    int top = model.foundationTops[foundation];
+    if (top % RuleTables.RANKS == RuleTables.RANKS - 1) {
+      completeFoundations--;
+    }
+    for (int card : foundationAccepts[top + 1]) {
+      foundationAcceptors[card]--;
+      openMoves -= foundationSources[card];
+    }
+  }
+
+  /**
+   * Puts a foundation back into the counts after it has changed.
+   *
+   * @param foundation index of the foundation.
+   */
+  void attachFoundation(int foundation) {
+    int top = model.foundationTops[foundation];
+    if (top % RuleTables.RANKS == RuleTables.RANKS - 1) {
+      completeFoundations++;
+    }
+    for (int card : foundationAccepts[top + 1]) {
+      foundationAcceptors[card]++;
+      openMoves += foundationSources[card];
+    }
+  }
+
+  /**
+   * Counts a card that has joined the draw cards or the stock.
+   *
+   * @param card the card added.
+   */
+  void addDrawCard(ValueCard card) {
+    int ordinal = card.ordinal();
+    openMoves += pileAcceptors[ordinal] + foundationAcceptors[ordinal];
+    pileSources[ordinal]++;
+    foundationSources[ordinal]++;
+  }
+
+  /**
+   * Stops counting a card that has left the draw cards and the stock.
+   *
+   * @param card the card removed.
+   */
+  void removeDrawCard(ValueCard card) {
+    int ordinal = card.ordinal();
+    pileSources[ordinal]--;
+    foundationSources[ordinal]--;
+    openMoves -= pileAcceptors[ordinal] + foundationAcceptors[ordinal];
+  }
+
+  private static int topOf(List<ValueCard> cards) {
+    return cards.isEmpty() ? RuleTables.EMPTY : cards.get(cards.size() - 1).ordinal();
+  }
+
+  /**
+   * Which cards go where under the rules of one model class, read from the rule hooks once
+   * per class and shared by every model of it, since validBuild and canMoveToEmpty only
+   * depend on the cards. Index 0 of each table is an empty pile or foundation, index
+   * ordinal + 1 a top card.
+   */
+  private static final class Tables {
+    private final boolean[] accepts;
+    private final int[][] pileAccepts;
+    private final int[][] foundationAccepts;
+
+    /**
+     * Asks a model's rule hooks which cards go where.
+     *
+     * @param model model whose rules are read.
+     */
+    private Tables(AbstractKlondike model) {
+      accepts = new boolean[(CARDS + 1) * CARDS];
+      pileAccepts = new int[CARDS + 1][];
+      foundationAccepts = new int[CARDS + 1][];
+      for (int top = -1; top < CARDS; top++) {
+        int pileCount = 0;
+        int foundationCount = 0;
+        for (int move = 0; move < CARDS; move++) {
+          ValueCard card = ValueCard.ofOrdinal(move);
+          boolean fits = top < 0 ? model.canMoveToEmpty(card)
+              : model.validBuild(card, ValueCard.ofOrdinal(top));
+          accepts[(top + 1) * CARDS + move] = fits;
+          pileCount += fits ? 1 : 0;
+          foundationCount += RuleTables.canPlaceFoundation(move, top) ? 1 : 0;
+        }
+        pileAccepts[top + 1] = new int[pileCount];
+        foundationAccepts[top + 1] = new int[foundationCount];
+        for (int move = CARDS - 1; move >= 0; move--) {
+          if (accepts[(top + 1) * CARDS + move]) {
+            pileAccepts[top + 1][--pileCount] = move;
+          }
+          if (RuleTables.canPlaceFoundation(move, top)) {
+            foundationAccepts[top + 1][--foundationCount] = move;
+          }
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,77 @@
+package klondike.model.hw04;
+
+/**
+ * Encoding of klondike moves as single ints.
+ * A move holds its kind, the pile it comes from, the pile or foundation it goes to and the
+ * number of cards moved, so move lists can be kept in plain int arrays and reused without
+ * creating objects. Piles and foundations are 0-based and limited to 512, card counts to 2048.
+ * Moves from the draw cards have source 0 and discards have destination 0.
+ */
+public final class Moves {
+  public static final int PILE_TO_PILE = 0;
+  public static final int DRAW_TO_PILE = 1;
+  public static final int PILE_TO_FOUNDATION = 2;
+  public static final int DRAW_TO_FOUNDATION = 3;
+  public static final int DISCARD = 4;
+
+  private static final int KIND_BITS = 3;
+  private static final int INDEX_BITS = 9;
+  private static final int INDEX_MASK = (1 << INDEX_BITS) - 1;
+
+  private Moves() {
+  }
+
+  /**
+   * Packs a move into a single int.
+   *
+   * @param kind  which kind of move it is.
+   * @param src   pile the cards come from.
+   * @param dest  pile or foundation the cards go to.
+   * @param count number of cards moved.
+   * @return the encoded move.
+   */
+  public static int encode(int kind, int src, int dest, int count) {
+    return kind | src << KIND_BITS | dest << (KIND_BITS + INDEX_BITS)
+        | count << (KIND_BITS + 2 * INDEX_BITS);
+  }
+
+  /**
+   * Gives the kind of an encoded move.
+   *
+   * @param move the encoded move.
+   * @return one of the kind constants.
+   */
+  public static int kind(int move) {
+    return move & ((1 << KIND_BITS) - 1);
+  }
+
+  /**
+   * Gives the pile an encoded move takes cards from.
+   *
+   * @param move the encoded move.
+   * @return 0-based index of the source pile.
+   */
+  public static int source(int move) {
+    return (move >>> KIND_BITS) & INDEX_MASK;
+  }
+
+  /**
+   * Gives the pile or foundation an encoded move puts cards on.
+   *
+   * @param move the encoded move.
+   * @return 0-based index of the destination.
+   */
+  public static int destination(int move) {
+    return (move >>> (KIND_BITS + INDEX_BITS)) & INDEX_MASK;
+  }
+
+  /**
+   * Gives the number of cards an encoded move moves.
+   *
+   * @param move the encoded move.
+   * @return the card count.
+   */
+  public static int count(int move) {
+    return move >>> (KIND_BITS + 2 * INDEX_BITS);
+  }
+}
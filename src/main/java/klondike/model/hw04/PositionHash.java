@@ -0,0 +1,81 @@
+package klondike.model.hw04;
+
+import java.util.List;
+
+/**
+ * Zobrist style keys for hashing klondike positions into 64 bits.
+ * Every (pile, depth, card) and (foundation, top card) has its own key and a position's hash
+ * is the xor of the keys of everything in it. The stock is hashed by the key of its front
+ * card plus one key for each card and the card after it, wrapping around at the end, so
+ * discarding to the bottom of the stock only changes the front card's key.
+ * Keys are computed by mixing their coordinates instead of being stored in tables.
+ */
+final class PositionHash {
+  private static final long PILE = 1L << 60;
+  private static final long FOUNDATION = 2L << 60;
+  private static final long STOCK_PAIR = 3L << 60;
+  private static final long STOCK_FRONT = 4L << 60;
+
+  private PositionHash() {
+  }
+
+  static long pileKey(int pile, int depth, int card) {
+    return mix(PILE | (long) pile << 40 | (long) depth << 20 | card);
+  }
+
+  static long foundationKey(int foundation, int top) {
+    return mix(FOUNDATION | (long) foundation << 20 | (top + 1));
+  }
+
+  static long stockPairKey(int card, int next) {
+    return mix(STOCK_PAIR | (long) card << 20 | next);
+  }
+
+  static long stockFrontKey(int card) {
+    return mix(STOCK_FRONT | card);
+  }
+
+  /**
+   * Hashes a whole position from scratch.
+   *
+   * @param model the model whose position is hashed.
+   * @return the 64 bit hash of the position.
+   */
+  static long compute(AbstractKlondike model) {
+    long hash = 0;
+    for (int pile = 0; pile < model.piles.size(); pile++) {
+      List<ValueCard> cards = model.piles.get(pile);
+      for (int depth = 0; depth < cards.size(); depth++) {
+        hash ^= pileKey(pile, depth, cards.get(depth).ordinal());
+      }
+    }
+    for (int foundation = 0; foundation < model.foundationTops.length; foundation++) {
+      int top = model.foundationTops[foundation];
+      if (top != RuleTables.EMPTY) {
+        hash ^= foundationKey(foundation, top);
+      }
+    }
+    int size = model.stock.size();
+    if (size > 0) {
+      hash ^= stockFrontKey(model.stock.get(0).ordinal());
+      for (int index = 0; index < size; index++) {
+        hash ^= stockPairKey(model.stock.get(index).ordinal(),
+            model.stock.get((index + 1) % size).ordinal());
+      }
+    }
+    return hash;
+  }
+
+  /**
+   * Scrambles a long so that nearby inputs give unrelated keys (the SplitMix64 finalizer).
+   *
+   * @param value the coordinates of a key.
+   * @return the key.
+   */
+  private static long mix(long value) {
+    long mix = value * 0x9E3779B97F4A7C15L;
+    mix = (mix ^ (mix >>> 30)) * 0xBF58476D1CE4E5B9L;
+    mix = (mix ^ (mix >>> 27)) * 0x94D049BB133111EBL;
+    return mix ^ (mix >>> 31);
+  }
+}
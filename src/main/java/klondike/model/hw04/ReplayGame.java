@@ -0,0 +1,202 @@
+package klondike.model.hw04;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * One game read back from a replay log: how it was dealt and every move accepted in it.
+ * The game can be played again to any point without rendering, either trusting the log,
+ * which makes each move without checking it, or checking every move against the current
+ * rules to find the first one they no longer accept.
+ */
+public final class ReplayGame {
+  private final KlondikeCreator.GameType gameType;
+  private final int numPiles;
+  private final int numDraw;
+  private final boolean seeded;
+  private final long seed;
+  private final ValueCard[] dealt;
+  private final int[] moves;
+
+  /**
+   * Constructor for a game read by ReplayReader.
+   *
+   * @param gameType rules the game was played by.
+   * @param numPiles number of piles dealt.
+   * @param numDraw  number of draw cards.
+   * @param seeded   true if the deal was shuffled by a seed.
+   * @param seed     the seed, if there was one.
+   * @param dealt    the cards in the order they were dealt.
+   * @param moves    every move accepted, with undo and redo as ReplayWriter writes them.
+   */
+  ReplayGame(KlondikeCreator.GameType gameType, int numPiles, int numDraw, boolean seeded,
+             long seed, ValueCard[] dealt, int[] moves) {
+    this.gameType = gameType;
+    this.numPiles = numPiles;
+    this.numDraw = numDraw;
+    this.seeded = seeded;
+    this.seed = seed;
+    this.dealt = dealt;
+    this.moves = moves;
+  }
+
+  /**
+   * Gives the rules the game was played by.
+   *
+   * @return the game type.
+   */
+  public KlondikeCreator.GameType getGameType() {
+    return gameType;
+  }
+
+  /**
+   * Gives the number of piles dealt.
+   *
+   * @return the number of piles.
+   */
+  public int getNumPiles() {
+    return numPiles;
+  }
+
+  /**
+   * Gives the number of draw cards.
+   *
+   * @return the number of draw cards.
+   */
+  public int getNumDraw() {
+    return numDraw;
+  }
+
+  /**
+   * Says whether the deal was shuffled by a seed.
+   *
+   * @return true if getSeed gives the seed of the deal.
+   */
+  public boolean isSeeded() {
+    return seeded;
+  }
+
+  /**
+   * Gives the seed the deal was shuffled by.
+   *
+   * @return the seed, or 0 if the deal had none.
+   */
+  public long getSeed() {
+    return seed;
+  }
+
+  /**
+   * Gives the cards in the order they were dealt.
+   *
+   * @return a new list of the cards.
+   */
+  public List<ValueCard> getDeal() {
+    return Arrays.asList(dealt.clone());
+  }
+
+  /**
+   * Gives the number of moves in the log, undo and redo included.
+   *
+   * @return the number of moves.
+   */
+  public int getNumMoves() {
+    return moves.length;
+  }
+
+  /**
+   * Plays the whole game again, trusting every move in the log.
+   *
+   * @return the game after its last move.
+   */
+  public AbstractKlondike replay() {
+    return replay(moves.length);
+  }
+
+  /**
+   * Plays the game again up to a move, trusting every move in the log.
+   * Undo and redo still work on the game given back, as they did in the game logged.
+   *
+   * @param count number of moves to make, undo and redo included.
+   * @return the game after that many moves.
+   * @throws IllegalArgumentException if the count is negative or more than the moves logged.
+   */
+  public AbstractKlondike replay(int count) {
+    if (count < 0 || count > moves.length) {
+      throw new IllegalArgumentException("Invalid number of moves");
+    }
+    AbstractKlondike model = deal();
+    for (int index = 0; index < count; index++) {
+      int move = moves[index];
+      if (move == ReplayWriter.UNDO) {
+        model.undo();
+      } else if (move == ReplayWriter.REDO) {
+        model.redo();
+      } else {
+        model.applyMove(move);
+      }
+    }
+    return model;
+  }
+
+  /**
+   * Plays the game again checking every move against the current rules, such as after a
+   * fix to them.
+   *
+   * @return index of the first move the rules don't accept, or -1 if they accept them all.
+   */
+  public int verify() {
+    AbstractKlondike model = deal();
+    for (int index = 0; index < moves.length; index++) {
+      if (!tryMove(model, moves[index])) {
+        return index;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Helper that makes one logged move through the checked versions of the moves.
+   *
+   * @param model game being played.
+   * @param move  the logged move.
+   * @return true if the game accepted the move.
+   */
+  private static boolean tryMove(AbstractKlondike model, int move) {
+    if (move == ReplayWriter.UNDO) {
+      if (!model.canUndo()) {
+        return false;
+      }
+      model.undo();
+      return true;
+    }
+    if (move == ReplayWriter.REDO) {
+      if (!model.canRedo()) {
+        return false;
+      }
+      model.redo();
+      return true;
+    }
+    int src = Moves.source(move);
+    int dest = Moves.destination(move);
+    MoveStatus status = switch (Moves.kind(move)) {
+      case Moves.PILE_TO_PILE -> model.tryMovePile(src, Moves.count(move), dest);
+      case Moves.DRAW_TO_PILE -> model.tryMoveDraw(dest);
+      case Moves.PILE_TO_FOUNDATION -> model.tryMoveToFoundation(src, dest);
+      case Moves.DRAW_TO_FOUNDATION -> model.tryMoveDrawToFoundation(dest);
+      default -> model.tryDiscardDraw();
+    };
+    return status.isOk();
+  }
+
+  /**
+   * Helper that deals a new model the way the game was dealt.
+   *
+   * @return the dealt model.
+   */
+  private AbstractKlondike deal() {
+    AbstractKlondike model = gameType == KlondikeCreator.GameType.WHITEHEAD
+        ? new WhiteheadKlondike() : new BasicKlondike();
+    model.startGame(Arrays.asList(dealt), false, numPiles, numDraw);
+    return model;
+  }
+}
@@ -0,0 +1,136 @@
+package klondike.model.hw04;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Reads the games of a replay log written by ReplayWriter, one at a time.
+ * The log is read through one reusable buffer. A word or game header cut short at the end,
+ * as left by a process that died while writing, is ignored.
+ */
+public final class ReplayReader implements Closeable {
+  private final InputStream in;
+  private final ByteBuffer buffer = ByteBuffer.allocate(65536);
+  private int[] moves = new int[256];
+  private boolean ended;
+
+  /**
+   * Constructor for a reader of a log in a stream.
+   *
+   * @param in stream the log is read from.
+   * @throws IllegalArgumentException if the stream is null.
+   */
+  public ReplayReader(InputStream in) {
+    if (in == null) {
+      throw new IllegalArgumentException("Stream is null");
+    }
+    this.in = in;
+    buffer.flip();
+  }
+
+  /**
+   * Reads the next game of the log.
+   *
+   * @return the game, or null if the log has no more games.
+   * @throws IOException              if the stream can't be read.
+   * @throws IllegalArgumentException if the log is damaged or of an unknown version.
+   */
+  public ReplayGame next() throws IOException {
+    if (!fill(1)) {
+      return null;
+    }
+    if (buffer.getInt() != ReplayWriter.GAME) {
+      throw new IllegalArgumentException("Damaged log");
+    }
+    if (!fill(6)) {
+      return null;
+    }
+    int settings = buffer.getInt();
+    if (settings >>> 16 != ReplayWriter.VERSION) {
+      throw new IllegalArgumentException("Unsupported version");
+    }
+    KlondikeCreator.GameType gameType = (settings >>> 8 & 0xff) == 0
+        ? KlondikeCreator.GameType.BASIC : KlondikeCreator.GameType.WHITEHEAD;
+    boolean seeded = (settings & 1) != 0;
+    int numPiles = buffer.getInt();
+    int numDraw = buffer.getInt();
+    long seed = (long) buffer.getInt() << 32 | buffer.getInt() & 0xffffffffL;
+    int size = buffer.getInt();
+    if (size < 0 || size > buffer.capacity()) {
+      throw new IllegalArgumentException("Damaged log");
+    }
+    if (!fill((size + 3) / 4)) {
+      return null;
+    }
+    ValueCard[] dealt = new ValueCard[size];
+    for (int index = 0; index < size; index += 4) {
+      int packed = buffer.getInt();
+      for (int card = index; card < index + 4; card++) {
+        int ordinal = packed >>> 24;
+        packed <<= 8;
+        if (card < size) {
+          if (ordinal >= RuleTables.CARDS) {
+            throw new IllegalArgumentException("Damaged log");
+          }
+          dealt[card] = ValueCard.ofOrdinal(ordinal);
+        }
+      }
+    }
+    int count = 0;
+    while (fill(1)) {
+      int move = buffer.getInt(buffer.position());
+      if (Moves.kind(move) == ReplayWriter.HEADER_KIND) {
+        break;
+      }
+      if (Moves.kind(move) > Moves.DISCARD && move != ReplayWriter.UNDO
+          && move != ReplayWriter.REDO) {
+        throw new IllegalArgumentException("Damaged log");
+      }
+      buffer.position(buffer.position() + 4);
+      if (count == moves.length) {
+        moves = Arrays.copyOf(moves, count * 2);
+      }
+      moves[count++] = move;
+    }
+    return new ReplayGame(gameType, numPiles, numDraw, seeded, seed, dealt,
+        Arrays.copyOf(moves, count));
+  }
+
+  /**
+   * Helper that makes sure the buffer holds some whole words, reading more if it must.
+   *
+   * @param words number of words needed.
+   * @return false if the log ends first.
+   * @throws IOException if the stream can't be read.
+   */
+  private boolean fill(int words) throws IOException {
+    int needed = words * 4;
+    if (buffer.remaining() >= needed) {
+      return true;
+    }
+    buffer.compact();
+    while (!ended && buffer.position() < needed) {
+      int read = in.read(buffer.array(), buffer.position(), buffer.remaining());
+      if (read < 0) {
+        ended = true;
+      } else {
+        buffer.position(buffer.position() + read);
+      }
+    }
+    buffer.flip();
+    return buffer.remaining() >= needed;
+  }
+
+  /**
+   * Closes the stream.
+   *
+   * @throws IOException if the stream can't be closed.
+   */
+  @Override
+  public void close() throws IOException {
+    in.close();
+  }
+}
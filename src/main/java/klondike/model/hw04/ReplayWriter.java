@@ -0,0 +1,140 @@
+package klondike.model.hw04;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Appends games to a replay log as they are played, for ReplayReader to read back.
+ * The log is a run of 4 byte words. A game starts with a header of the tag, the version,
+ * variant and seed flag, the number of piles and draw cards, the seed and the cards in the
+ * order they were dealt, four to a word. Then every move the model accepts is one word
+ * encoded by Moves, with undo and redo as words of their own, so the game can be played
+ * again exactly without rendering anything. Games are only ever appended, so a log may be
+ * reopened for appending and may hold a whole day of games.
+ * Words are collected in a buffer and written when it fills, on flush and on close. A model
+ * can't throw an IOException from a move, so the first write error is kept, nothing more is
+ * written, and flush and close throw it.
+ * A writer is not thread safe; every thread playing games needs its own.
+ */
+public final class ReplayWriter implements Closeable {
+  /**
+   * Version of the log written.
+   */
+  public static final int VERSION = 1;
+
+  static final int GAME = 0x4b524c07;
+  static final int UNDO = 5;
+  static final int REDO = 6;
+  static final int HEADER_KIND = 7;
+  static final int NO_CARD = 0xff;
+
+  private final OutputStream out;
+  private final ByteBuffer buffer = ByteBuffer.allocate(8192);
+  private IOException error;
+
+  /**
+   * Constructor for a writer appending to a stream.
+   *
+   * @param out stream the log is written to.
+   * @throws IllegalArgumentException if the stream is null.
+   */
+  public ReplayWriter(OutputStream out) {
+    if (out == null) {
+      throw new IllegalArgumentException("Stream is null");
+    }
+    this.out = out;
+  }
+
+  /**
+   * Writes the header of a game that was just dealt.
+   *
+   * @param gameType rules the game is played by.
+   * @param dealt    the cards in the order they were dealt.
+   * @param numPiles number of piles dealt.
+   * @param numDraw  number of draw cards.
+   * @param seeded   true if the deal was shuffled by a seed.
+   * @param seed     the seed, if there was one.
+   */
+  void start(KlondikeCreator.GameType gameType, ValueCard[] dealt, int numPiles, int numDraw,
+             boolean seeded, long seed) {
+    int whitehead = gameType == KlondikeCreator.GameType.WHITEHEAD ? 1 : 0;
+    word(GAME);
+    word(VERSION << 16 | whitehead << 8 | (seeded ? 1 : 0));
+    word(numPiles);
+    word(numDraw);
+    word((int) (seed >>> 32));
+    word((int) seed);
+    word(dealt.length);
+    for (int index = 0; index < dealt.length; index += 4) {
+      int packed = 0;
+      for (int card = index; card < index + 4; card++) {
+        packed = packed << 8 | (card < dealt.length ? dealt[card].ordinal() : NO_CARD);
+      }
+      word(packed);
+    }
+  }
+
+  /**
+   * Writes a move the model accepted, or UNDO or REDO.
+   *
+   * @param move the encoded move.
+   */
+  void move(int move) {
+    word(move);
+  }
+
+  /**
+   * Helper that adds one word to the buffer, writing the buffer out when it is full.
+   *
+   * @param word the word.
+   */
+  private void word(int word) {
+    if (!buffer.hasRemaining()) {
+      drain();
+    }
+    buffer.putInt(word);
+  }
+
+  /**
+   * Helper that writes out the buffer, keeping the first error.
+   */
+  private void drain() {
+    if (error == null && buffer.position() > 0) {
+      try {
+        out.write(buffer.array(), 0, buffer.position());
+      } catch (IOException e) {
+        error = e;
+      }
+    }
+    buffer.clear();
+  }
+
+  /**
+   * Writes out every word so far and flushes the stream.
+   *
+   * @throws IOException if this or any earlier write failed.
+   */
+  public void flush() throws IOException {
+    drain();
+    if (error != null) {
+      throw error;
+    }
+    out.flush();
+  }
+
+  /**
+   * Writes out every word so far and closes the stream.
+   *
+   * @throws IOException if this or any earlier write failed.
+   */
+  @Override
+  public void close() throws IOException {
+    try {
+      flush();
+    } finally {
+      out.close();
+    }
+  }
+}
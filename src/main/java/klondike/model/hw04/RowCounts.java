@@ -0,0 +1,63 @@
+package klondike.model.hw04;
+
+/**
+ * Keeps the height of the tallest pile as piles grow and shrink, for getNumRows.
+ * Counts how many piles have each height, so when the tallest pile shrinks the new tallest
+ * height is found by stepping down past the empty counts. Each step down was paid for by a
+ * card that was added earlier, so a change costs constant time on average and getNumRows
+ * no longer looks at every pile.
+ */
+final class RowCounts {
+  private final int[] piles;
+  private int rows;
+
+  /**
+   * Constructs counts for a table where every pile is empty.
+   *
+   * @param numPiles  number of piles on the table.
+   * @param maxHeight most cards any pile can hold.
+   */
+  RowCounts(int numPiles, int maxHeight) {
+    this.piles = new int[maxHeight + 1];
+    this.piles[0] = numPiles;
+    this.rows = 0;
+  }
+
+  /**
+   * Records that one pile changed height.
+   *
+   * @param before height of the pile before the change.
+   * @param after  height of the pile after the change.
+   */
+  void changed(int before, int after) {
+    piles[before]--;
+    piles[after]++;
+    if (after > rows) {
+      rows = after;
+    }
+    while (rows > 0 && piles[rows] == 0) {
+      rows--;
+    }
+  }
+
+  /**
+   * Gives the height of the tallest pile.
+   *
+   * @return the number of rows of the table.
+   */
+  int rows() {
+    return rows;
+  }
+
+  /**
+   * Copies the counts for a copied model.
+   *
+   * @return counts that change independently of these.
+   */
+  RowCounts copy() {
+    RowCounts copy = new RowCounts(0, piles.length - 1);
+    System.arraycopy(piles, 0, copy.piles, 0, piles.length);
+    copy.rows = rows;
+    return copy;
+  }
+}
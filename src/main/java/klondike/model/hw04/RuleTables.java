@@ -0,0 +1,97 @@
+package klondike.model.hw04;
+
+import klondike.model.hw02.PossibleRank;
+import klondike.model.hw02.PossibleSuits;
+
+/**
+ * Precomputed legality tables for one set of klondike rules.
+ * Cards are looked up by their ordinal (suit ordinal * 13 + rank ordinal), so every
+ * rule check is a single array read instead of comparing suit symbols and ranks.
+ * There is one shared instance per game type; the foundation table is the same for both.
+ */
+final class RuleTables {
+  static final int RANKS = PossibleRank.values().length;
+  static final int CARDS = PossibleSuits.values().length * RANKS;
+  static final int EMPTY = -1;
+  static final RuleTables BASIC = new RuleTables(false, false);
+  static final RuleTables WHITEHEAD = new RuleTables(true, true);
+
+  private static final boolean[] FOUNDATION_NEXT = new boolean[CARDS * (CARDS + 1)];
+
+  static {
+    for (int move = 0; move < CARDS; move++) {
+      FOUNDATION_NEXT[move * (CARDS + 1)] = rankOf(move) == PossibleRank.Ace.getNumber();
+      for (int top = 0; top < CARDS; top++) {
+        FOUNDATION_NEXT[move * (CARDS + 1) + top + 1] = suitOf(move) == suitOf(top)
+            && rankOf(move) == rankOf(top) + 1;
+      }
+    }
+  }
+
+  private final boolean[] buildOn;
+  private final boolean[] toEmpty;
+
+  /**
+   * Fills in the tables for one set of rules.
+   *
+   * @param sameColor  true if cards build on the same color, false for opposite colors.
+   * @param anyToEmpty true if any card may go to an empty pile, false for kings only.
+   */
+  private RuleTables(boolean sameColor, boolean anyToEmpty) {
+    this.buildOn = new boolean[CARDS * CARDS];
+    this.toEmpty = new boolean[CARDS];
+    for (int move = 0; move < CARDS; move++) {
+      toEmpty[move] = anyToEmpty || rankOf(move) == PossibleRank.King.getNumber();
+      for (int dest = 0; dest < CARDS; dest++) {
+        boolean colors = (isRed(move) == isRed(dest)) == sameColor;
+        buildOn[move * CARDS + dest] = colors && rankOf(move) == rankOf(dest) - 1;
+      }
+    }
+  }
+
+  /**
+   * Checks if a card may be built on top of another card in a pile.
+   *
+   * @param move ordinal of the card being moved.
+   * @param dest ordinal of the card it is placed on.
+   * @return boolean if the move is allowed.
+   */
+  boolean canBuild(int move, int dest) {
+    return buildOn[move * CARDS + dest];
+  }
+
+  /**
+   * Checks if a card may be placed on an empty pile.
+   *
+   * @param move ordinal of the card being moved.
+   * @return boolean if the move is allowed.
+   */
+  boolean canMoveToEmpty(int move) {
+    return toEmpty[move];
+  }
+
+  /**
+   * Checks if a card is the next card of a foundation.
+   * Foundations fill the same way under every set of rules, so this table is shared.
+   *
+   * @param move ordinal of the card being moved.
+   * @param top  ordinal of the foundation's top card, or EMPTY if it has none.
+   * @return boolean if the card can be placed on the foundation.
+   */
+  static boolean canPlaceFoundation(int move, int top) {
+    return FOUNDATION_NEXT[move * (CARDS + 1) + top + 1];
+  }
+
+  static int suitOf(int card) {
+    return card / RANKS;
+  }
+
+  static int rankOf(int card) {
+    return card % RANKS + 1;
+  }
+
+  private static boolean isRed(int card) {
+    int suit = suitOf(card);
+    return suit == PossibleSuits.Diamond.ordinal() || suit == PossibleSuits.Heart.ordinal();
+  }
+}
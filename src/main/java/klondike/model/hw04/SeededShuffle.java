@@ -0,0 +1,63 @@
+package klondike.model.hw04;
+
+/**
+ * Reproducible shuffle used to deal seeded games.
+ * Each shuffle has its own SplitMix64 generator created from the seed, so no random state
+ * is shared between threads, and the generator is written out here instead of borrowed
+ * from the JDK so a seed deals the same game on every run and every JVM.
+ */
+final class SeededShuffle {
+  private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+  private long state;
+
+  private SeededShuffle(long seed) {
+    this.state = seed;
+  }
+
+  /**
+   * Shuffles the cards in place with a Fisher-Yates shuffle driven by the seed.
+   *
+   * @param cards cards being shuffled.
+   * @param seed  seed that decides the order.
+   */
+  static void shuffle(Object[] cards, long seed) {
+    SeededShuffle random = new SeededShuffle(seed);
+    for (int index = cards.length - 1; index > 0; index--) {
+      int swap = random.nextInt(index + 1);
+      Object card = cards[index];
+      cards[index] = cards[swap];
+      cards[swap] = card;
+    }
+  }
+
+  /**
+   * Returns the next value of the SplitMix64 sequence.
+   *
+   * @return 64 random bits.
+   */
+  private long nextLong() {
+    state += GOLDEN_GAMMA;
+    long mix = state;
+    mix = (mix ^ (mix >>> 30)) * 0xBF58476D1CE4E5B9L;
+    mix = (mix ^ (mix >>> 27)) * 0x94D049BB133111EBL;
+    return mix ^ (mix >>> 31);
+  }
+
+  /**
+   * Returns an evenly distributed value from 0 up to but not including the bound.
+   * Draws that would favor the low values are thrown away and drawn again.
+   *
+   * @param bound number of possible values, must be positive.
+   * @return a value in [0, bound).
+   */
+  private int nextInt(int bound) {
+    int bits;
+    int value;
+    do {
+      bits = (int) (nextLong() >>> 33);
+      value = bits % bound;
+    } while (bits - value + (bound - 1) < 0);
+    return value;
+  }
+}
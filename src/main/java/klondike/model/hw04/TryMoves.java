@@ -0,0 +1,50 @@
+package klondike.model.hw04;
+
+/**
+ * Versions of the klondike moves that report a status instead of throwing.
+ * Each one checks its arguments in the same order as the throwing move and leaves the game
+ * alone unless it returns OK.
+ */
+public interface TryMoves {
+  /**
+   * Tries to move cards from one pile to another.
+   *
+   * @param srcPile  the 0-based index of the source pile
+   * @param numCards the number of cards to move
+   * @param destPile the 0-based index of the destination pile
+   * @return OK if the cards were moved, otherwise why not
+   */
+  MoveStatus tryMovePile(int srcPile, int numCards, int destPile);
+
+  /**
+   * Tries to move the first draw card onto a pile.
+   *
+   * @param destPile the 0-based index of the destination pile
+   * @return OK if the card was moved, otherwise why not
+   */
+  MoveStatus tryMoveDraw(int destPile);
+
+  /**
+   * Tries to move the top card of a pile onto a foundation.
+   *
+   * @param srcPile        the 0-based index of the source pile
+   * @param foundationPile the 0-based index of the foundation
+   * @return OK if the card was moved, otherwise why not
+   */
+  MoveStatus tryMoveToFoundation(int srcPile, int foundationPile);
+
+  /**
+   * Tries to move the first draw card onto a foundation.
+   *
+   * @param foundationPile the 0-based index of the foundation
+   * @return OK if the card was moved, otherwise why not
+   */
+  MoveStatus tryMoveDrawToFoundation(int foundationPile);
+
+  /**
+   * Tries to discard the first draw card to the bottom of the stock.
+   *
+   * @return OK if the card was discarded, otherwise why not
+   */
+  MoveStatus tryDiscardDraw();
+}
@@ -0,0 +1,38 @@
+package klondike.model.hw04;
+
+/**
+ * Behaviors for a game whose moves can be taken back and made again.
+ * Making a new move after an undo forgets the moves that could have been redone,
+ * and starting a new game forgets every move.
+ */
+public interface Undoable {
+  /**
+   * Takes back the last move made.
+   *
+   * @throws IllegalStateException if the game hasn't started or there is no move to undo
+   */
+  void undo();
+
+  /**
+   * Makes the last undone move again.
+   *
+   * @throws IllegalStateException if the game hasn't started or there is no move to redo
+   */
+  void redo();
+
+  /**
+   * Says whether there is a move to take back.
+   *
+   * @return true if undo would succeed
+   * @throws IllegalStateException if the game hasn't started
+   */
+  boolean canUndo();
+
+  /**
+   * Says whether there is an undone move to make again.
+   *
+   * @return true if redo would succeed
+   * @throws IllegalStateException if the game hasn't started
+   */
+  boolean canRedo();
+}
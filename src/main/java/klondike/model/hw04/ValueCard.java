@@ -1,6 +1,5 @@
 package klondike.model.hw04;
 
-import java.util.Objects;
 import klondike.model.hw02.PossibleRank;
 import klondike.model.hw02.PossibleSuits;
 
@@ -9,10 +8,24 @@ import klondike.model.hw02.PossibleSuits;
  * ValueCard implements the card class and utilizes the possibleRank and possibleSuit
  * enum classes to make a ValueCard object.
  * ValueCard for hw04 needed b/c issues.
+ * Every suit and rank pair has one shared instance given by of, which is what the models
+ * deal; cards made with the constructor are still equal to it.
  */
 public class ValueCard extends klondike.model.hw02.ValueCard implements klondike.model.hw04.Card {
-  protected final PossibleSuits possibleSuits;
-  protected final PossibleRank possibleRank;
+  private static final ValueCard[] CANONICAL = new ValueCard[RuleTables.CARDS];
+
+  static {
+    for (PossibleSuits suit : PossibleSuits.values()) {
+      for (PossibleRank rank : PossibleRank.values()) {
+        ValueCard card = new ValueCard(suit, rank);
+        CANONICAL[card.ordinal] = card;
+      }
+    }
+  }
+
+  private final int ordinal;
+  private final String text;
+  private final String glyph;
 
   /**
    * Constructs a ValueCard object.
@@ -23,18 +36,91 @@ public class ValueCard extends klondike.model.hw02.ValueCard implements klondike
    */
   public ValueCard(PossibleSuits possibleSuits, PossibleRank possibleRank) {
     super(possibleSuits, possibleRank);
-    this.possibleSuits = possibleSuits;
-    this.possibleRank = possibleRank;
+    this.ordinal = possibleSuits.ordinal() * RuleTables.RANKS + possibleRank.ordinal();
+    this.text = possibleRank.getRank() + possibleSuits.getSymbol();
+    this.glyph = String.format("%3s", text);
+  }
+
+  /**
+   * Gives the shared card of a suit and rank without creating anything.
+   *
+   * @param possibleSuits suit of the solitaire card.
+   * @param possibleRank  rank of the solitaire card.
+   * @return the one shared instance of that card.
+   * @throws IllegalArgumentException if the suit or rank is null.
+   */
+  public static ValueCard of(PossibleSuits possibleSuits, PossibleRank possibleRank) {
+    if (possibleSuits == null || possibleRank == null) {
+      throw new IllegalArgumentException("Suit or rank is null");
+    }
+    return CANONICAL[possibleSuits.ordinal() * RuleTables.RANKS + possibleRank.ordinal()];
+  }
+
+  /**
+   * Gives the shared card at a position of a single 52 card deck ordered by suit then rank.
+   *
+   * @param ordinal the suit ordinal times 13 plus the rank ordinal.
+   * @return the one shared instance of that card.
+   */
+  static ValueCard ofOrdinal(int ordinal) {
+    return CANONICAL[ordinal];
+  }
+
+  /**
+   * Returns the position of this card in a single 52 card deck ordered by suit then rank.
+   * Used by the models to look cards up in precomputed tables.
+   *
+   * @return the suit ordinal times 13 plus the rank ordinal.
+   */
+  int ordinal() {
+    return ordinal;
+  }
+
+  /**
+   * Gives the suit of the card to the models of this package.
+   *
+   * @return the suit.
+   */
+  PossibleSuits suit() {
+    return possibleSuits;
+  }
+
+  /**
+   * Gives the rank of the card to the models of this package.
+   *
+   * @return the rank.
+   */
+  PossibleRank rank() {
+    return possibleRank;
+  }
+
+  /**
+   * Gives the value of the card's rank, for code outside the models that compares ranks.
+   *
+   * @return the value from 1 for an ace to 13 for a king.
+   */
+  public int value() {
+    return possibleRank.getNumber();
+  }
+
+  /**
+   * Gives the card as the views draw it in a pile column, padded on the left to three
+   * characters. Made once per card, so drawing a board builds no card strings.
+   *
+   * @return the card's text right aligned in three characters.
+   */
+  public String glyph() {
+    return glyph;
   }
 
   @Override
   public String toString() {
-    return possibleRank.getRank() + possibleSuits.getSymbol();
+    return text;
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(possibleSuits, possibleRank);
+    return ordinal;
   }
 
   @Override
@@ -45,6 +131,6 @@ public class ValueCard extends klondike.model.hw02.ValueCard implements klondike
     if (!(o instanceof ValueCard valueCard)) {
       return false;
     }
-    return possibleSuits == valueCard.possibleSuits && possibleRank == valueCard.possibleRank;
+    return ordinal == valueCard.ordinal;
   }
 }
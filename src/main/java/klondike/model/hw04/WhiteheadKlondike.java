@@ -2,14 +2,14 @@ package klondike.model.hw04;
 
 import java.util.ArrayList;
 import java.util.List;
-import klondike.model.hw02.PossibleRank;
+import klondike.model.hw02.CardQueue;
 
 /**
  * A class that implements the KlondikeModel interface with ValueCard type objects.
  * WhiteheadKlondike provides functions that would allow one to play a game of solitaire.
  * ValueCard type for the implementation.
- * Changed isCardVisible, movePile, and moveDraw to conform to game using new methods
- * given in abstract class.
+ * Changed isCardVisible to conform to game, and only lets runs of one suit move
+ * between piles through the pileMoveStart hook of the abstract class.
  */
 public class WhiteheadKlondike extends AbstractKlondike {
 
@@ -19,36 +19,29 @@ public class WhiteheadKlondike extends AbstractKlondike {
   public WhiteheadKlondike() {
     this.deck = new ArrayList<ValueCard>();
     this.piles = new ArrayList<>();
-    this.foundations = new ArrayList<>();
-    this.hand = new ArrayList<>();
-    this.drawDeck = new ArrayList<>();
+    this.stock = new CardQueue<>();
     this.gameStart = false;
     this.numDraw = 0;
   }
 
   @Override
-  protected boolean validBuild(ValueCard move, ValueCard dest) {
-    return (!oppositeColorCheck(move.possibleSuits.getSymbol(), dest.possibleSuits.getSymbol()))
-        && (move.possibleRank.getNumber() == dest.possibleRank.getNumber() - 1);
+  protected AbstractKlondike createEmpty() {
+    return new WhiteheadKlondike();
   }
 
   @Override
-  protected boolean canMoveToEmpty(ValueCard card) {
-    return true;
+  protected KlondikeCreator.GameType variant() {
+    return KlondikeCreator.GameType.WHITEHEAD;
   }
 
   @Override
-  protected boolean moveSameSuit(List<ValueCard> move) {
-    if (move.isEmpty()) {
-      return false;
-    }
-    String suit = move.get(0).possibleSuits.getSymbol();
-    for (ValueCard card : move) {
-      if (!card.possibleSuits.getSymbol().equals(suit)) {
-        return false;
-      }
-    }
-    return true;
+  protected boolean validBuild(ValueCard move, ValueCard dest) {
+    return RuleTables.WHITEHEAD.canBuild(move.ordinal(), dest.ordinal());
+  }
+
+  @Override
+  protected boolean canMoveToEmpty(ValueCard card) {
+    return RuleTables.WHITEHEAD.canMoveToEmpty(card.ordinal());
   }
 
   @Override
@@ -63,62 +56,28 @@ public class WhiteheadKlondike extends AbstractKlondike {
   }
 
   @Override
-  public void movePile(int srcPile, int numCards, int destPile) {
-    gameInProgress();
-    paramLessCheck(srcPile, 0);
-    paramLessEqualCheck(piles.size(), srcPile);
-    paramLessCheck(destPile, 0);
-    paramLessEqualCheck(piles.size(), destPile);
-    if (srcPile == destPile) {
-      throw new IllegalArgumentException("Illegal Argument Exception");
-    }
-    paramLessCheck(numCards, 1);
-    List<ValueCard> src = piles.get(srcPile);
-    List<ValueCard> dest = piles.get(destPile);
-    paramLessCheck(src.size(), numCards);
-    List<ValueCard> cardsMove = new ArrayList<>(src.subList(src.size() - numCards, src.size()));
-    if (!moveSameSuit(cardsMove)) {
-      throw new IllegalStateException("Illegal State Exception");
-    }
-    ValueCard srcCard = cardsMove.get(0);
-    if (dest.isEmpty()) {
-      if (!canMoveToEmpty(srcCard)) {
-        throw new IllegalStateException("Only King can be moved");
-      }
-    } else {
-      ValueCard destCard = dest.get(dest.size() - 1);
-      if (!validBuild(srcCard, destCard)) {
-        throw new IllegalStateException("Cannot place card");
-      }
-    }
-    //List<ValueCard> card = new ArrayList<>(src.subList(src.size() - numCards, src.size()));
-    dest.addAll(cardsMove);
-    for (int value = 0; value < numCards; value++) {
-      src.remove(src.size() - 1);
-    }
+  protected int hiddenCount(int pile) {
+    return 0;
   }
 
   @Override
-  public void moveDraw(int destPile) {
-    gameInProgress();
-    emptyCheck(hand);
-    paramLessCheck(destPile, 0);
-    paramLessEqualCheck(piles.size(), destPile);
-    ValueCard card = (ValueCard) hand.get(0);
-    List<ValueCard> dest = piles.get(destPile);
-    if (dest.isEmpty()) {
-      if (!canMoveToEmpty(card)) {
-        throw new IllegalStateException("King only card that can be moved");
-      }
-    } else {
-      ValueCard topCard = dest.get(dest.size() - 1);
-      if (!validBuild(card, topCard)) {
-        throw new IllegalStateException("InvalidState");
-      }
-    }
-    dest.add(card);
-    hand.remove(0);
-    addCardHand();
+  protected boolean extendsRun(ValueCard lower, ValueCard upper) {
+    return lower.suit() == upper.suit();
+  }
+
+  @Override
+  protected int moveSourceStart(int pile) {
+    return piles.get(pile).size() - runLength(pile);
+  }
+
+  @Override
+  protected int pileMoveStart(int pile) {
+    return moveSourceStart(pile);
+  }
+
+  @Override
+  protected int foundationSourceStart(int pile) {
+    return 0;
   }
 
   @Override
@@ -130,14 +89,8 @@ public class WhiteheadKlondike extends AbstractKlondike {
       }
       for (int index = 0; index < src.size(); index++) {
         ValueCard card = src.get(index);
-        //ValueCard card = src.get(src.size() - 1);
-        for (List<ValueCard> foundation : foundations) {
+        for (int foundation = 0; foundation < foundationTops.length; foundation++) {
           if (canPlaceFoundationCheck(card, foundation)) {
-            /*
-            List<ValueCard> cardMove = new ArrayList<>(src.subList(index, src.size()));
-            if (moveSameSuit(cardMove)) {
-            }
-             */
             return true;
           }
         }
@@ -148,13 +101,8 @@ public class WhiteheadKlondike extends AbstractKlondike {
       if (src.isEmpty()) {
         continue;
       }
-      for (int index = 0; index < src.size(); index++) {
+      for (int index = moveSourceStart(srcPile); index < src.size(); index++) {
         ValueCard card = src.get(index);
-        List<ValueCard> cardMove = new ArrayList<>(src.subList(index, src.size()));
-        if (!moveSameSuit(cardMove)) {
-          continue;
-        }
-        //ValueCard card = src.get(src.size() - 1);
         for (int destPile = 0; destPile < piles.size(); destPile++) {
           if (srcPile == destPile) {
             continue;
@@ -178,52 +126,4 @@ public class WhiteheadKlondike extends AbstractKlondike {
     }
     return false;
   }
-
-  @Override
-  protected boolean handDeckChecker() {
-    if (!hand.isEmpty()) {
-      for (int hands = 0; hands < hand.size(); hands++) {
-        ValueCard drawCard = (ValueCard) hand.get(hands);
-        for (List<ValueCard> foundation : foundations) {
-          if (canPlaceFoundationCheck(drawCard, foundation)) {
-            return true;
-          }
-        }
-        for (List<ValueCard> pile : piles) {
-          if (pile.isEmpty()) {
-            if (canMoveToEmpty(drawCard)) {
-              return true;
-            }
-          } else {
-            ValueCard topCard = pile.get(pile.size() - 1);
-            if (validBuild(drawCard, topCard)) {
-              return true;
-            }
-          }
-        }
-      }
-    }
-    for (ValueCard drawCard : drawDeck) {
-      for (List<ValueCard> foundation : foundations) {
-        if (canPlaceFoundationCheck(drawCard, foundation)) {
-          return true;
-        }
-      }
-      for (List<ValueCard> pile : piles) {
-        if (pile.isEmpty()) {
-          if (canMoveToEmpty(drawCard)) {
-            return true;
-          }
-        } else {
-          ValueCard topCard = pile.get(pile.size() - 1);
-          if (validBuild(drawCard, topCard)) {
-            return true;
-          }
-        }
-      }
-    }
-    return false;
-  }
-
-
 }
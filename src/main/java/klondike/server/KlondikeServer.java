@@ -0,0 +1,255 @@
+package klondike.server;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import klondike.model.hw04.KlondikeCreator;
+
+/**
+ * Server that lets many players play klondike at once over TCP on the loopback address.
+ * Every connection gets its own model from KlondikeCreator and its own
+ * KlondikeTextualController, run on a virtual thread, so a player waiting to type costs a
+ * parked virtual thread and a few small buffers rather than a platform thread.
+ * Running sessions are kept in a registry so the server can end them when it closes.
+ */
+public final class KlondikeServer implements AutoCloseable {
+  private static final long ACCEPT_RETRY_MILLIS = 50;
+
+  private final KlondikeCreator.GameType gameType;
+  private final int numPiles;
+  private final int numDraw;
+  private final SessionStore store;
+  private final Map<Long, Session> sessions = new ConcurrentHashMap<>();
+  private final AtomicLong started = new AtomicLong();
+  private final AtomicLong finished = new AtomicLong();
+  private final LatencyHistogram latency = new LatencyHistogram();
+  private final ExecutorService threads = Executors.newVirtualThreadPerTaskExecutor();
+  private volatile ServerSocket listener;
+  private volatile boolean closing;
+
+  /**
+   * Constructor for a server whose games are all dealt the same way.
+   *
+   * @param gameType rules every game is played by.
+   * @param numPiles number of piles dealt.
+   * @param numDraw  number of draw cards.
+   * @throws IllegalArgumentException if the game type is null or a number is not positive.
+   */
+  public KlondikeServer(KlondikeCreator.GameType gameType, int numPiles, int numDraw) {
+    this(gameType, numPiles, numDraw, null);
+  }
+
+  /**
+   * Constructor for a server whose games are all dealt the same way and kept by a store that
+   * parks the games of idle players.
+   *
+   * @param gameType rules every game is played by.
+   * @param numPiles number of piles dealt.
+   * @param numDraw  number of draw cards.
+   * @param store    store keeping the games, or null to keep every game hot; the caller
+   *                 closes it.
+   * @throws IllegalArgumentException if the game type is null or a number is not positive.
+   */
+  public KlondikeServer(KlondikeCreator.GameType gameType, int numPiles, int numDraw,
+                        SessionStore store) {
+    if (gameType == null || numPiles < 1 || numDraw < 1) {
+      throw new IllegalArgumentException("Invalid game settings");
+    }
+    this.gameType = gameType;
+    this.numPiles = numPiles;
+    this.numDraw = numDraw;
+    this.store = store;
+  }
+
+  /**
+   * Starts accepting players on a port of the loopback address.
+   *
+   * @param port port to listen on, or 0 for any free port.
+   * @return the port the server listens on.
+   * @throws IOException           if the port can't be opened.
+   * @throws IllegalStateException if the server was already started.
+   */
+  public synchronized int start(int port) throws IOException {
+    if (listener != null) {
+      throw new IllegalStateException("Server already started");
+    }
+    listener = new ServerSocket();
+    listener.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 1024);
+    threads.execute(this::accept);
+    return listener.getLocalPort();
+  }
+
+  /**
+   * Helper that accepts connections until the server closes, starting a session for each.
+   */
+  private void accept() {
+    while (true) {
+      Socket socket;
+      try {
+        socket = listener.accept();
+        socket.setTcpNoDelay(true);
+      } catch (IOException e) {
+        if (closing) {
+          return;
+        }
+        pause();
+        continue;
+      }
+      Session session = new Session(started.incrementAndGet(), socket, this);
+      sessions.put(session.getId(), session);
+      if (closing) {
+        session.stopReading();
+      }
+      try {
+        threads.execute(session);
+      } catch (RejectedExecutionException e) {
+        sessions.remove(session.getId());
+        session.close();
+        return;
+      }
+    }
+  }
+
+  /**
+   * Helper that waits a little after a failed accept, such as when the process is out of
+   * file descriptors, so the accept loop doesn't spin until one is free.
+   */
+  private void pause() {
+    try {
+      Thread.sleep(ACCEPT_RETRY_MILLIS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Removes a session from the registry when its game is over.
+   *
+   * @param session the session that ended.
+   */
+  void finished(Session session) {
+    sessions.remove(session.getId());
+    finished.incrementAndGet();
+  }
+
+  /**
+   * Says whether the server is shutting down.
+   *
+   * @return true once close was called.
+   */
+  boolean isClosing() {
+    return closing;
+  }
+
+  /**
+   * Gives the rules the games are played by.
+   *
+   * @return the game type.
+   */
+  KlondikeCreator.GameType getGameType() {
+    return gameType;
+  }
+
+  /**
+   * Gives the store keeping the games.
+   *
+   * @return the store, or null if every game is kept hot.
+   */
+  SessionStore getStore() {
+    return store;
+  }
+
+  /**
+   * Gives the number of piles dealt.
+   *
+   * @return the number of piles.
+   */
+  int getNumPiles() {
+    return numPiles;
+  }
+
+  /**
+   * Gives the number of draw cards.
+   *
+   * @return the number of draw cards.
+   */
+  int getNumDraw() {
+    return numDraw;
+  }
+
+  /**
+   * Gives the number of games being played right now.
+   *
+   * @return the number of open sessions.
+   */
+  public int getActiveSessions() {
+    return sessions.size();
+  }
+
+  /**
+   * Gives the number of sessions started since the server started.
+   *
+   * @return the number of sessions started.
+   */
+  public long getSessionsStarted() {
+    return started.get();
+  }
+
+  /**
+   * Gives the number of sessions that have ended.
+   *
+   * @return the number of sessions ended.
+   */
+  public long getSessionsFinished() {
+    return finished.get();
+  }
+
+  /**
+   * Gives the histogram of the time from a command arriving to its reply being sent.
+   *
+   * @return the latency histogram, still being recorded into.
+   */
+  public LatencyHistogram getLatency() {
+    return latency;
+  }
+
+  /**
+   * Shuts the server down. No more players are accepted and every session stops reading,
+   * so each game ends after the command it is playing, telling the player the server is
+   * shutting down. Sessions still open after five seconds are cut off.
+   */
+  @Override
+  public void close() {
+    closing = true;
+    try {
+      if (listener != null) {
+        listener.close();
+      }
+    } catch (IOException e) {
+      // nothing more to accept either way
+    }
+    for (Session session : sessions.values()) {
+      session.stopReading();
+    }
+    threads.shutdown();
+    try {
+      if (!threads.awaitTermination(5, TimeUnit.SECONDS)) {
+        for (Session session : sessions.values()) {
+          session.close();
+        }
+        threads.awaitTermination(5, TimeUnit.SECONDS);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,106 @@
+package klondike.server;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogram of latencies in nanoseconds that any number of threads may record into.
+ * Values are counted in buckets that split every power of two into 16 equal parts, so a
+ * percentile is reported within about 6% of the true value while the whole histogram is a
+ * fixed array of a few hundred counters. Recording is one atomic increment and never blocks.
+ */
+public final class LatencyHistogram {
+  private static final int SUB_BITS = 4;
+  private static final int SUB_BUCKETS = 1 << SUB_BITS;
+  private static final int MAX_EXPONENT = 40;
+
+  private final AtomicLongArray counts =
+      new AtomicLongArray((MAX_EXPONENT - SUB_BITS + 2) * SUB_BUCKETS);
+
+  /**
+   * Records one latency. Negative values count as 0 and values over about 18 minutes count
+   * as the largest bucket.
+   *
+   * @param nanos the latency in nanoseconds.
+   */
+  public void record(long nanos) {
+    counts.incrementAndGet(bucket(Math.max(nanos, 0)));
+  }
+
+  /**
+   * Gives the number of latencies recorded.
+   *
+   * @return the count.
+   */
+  public long count() {
+    long total = 0;
+    for (int index = 0; index < counts.length(); index++) {
+      total += counts.get(index);
+    }
+    return total;
+  }
+
+  /**
+   * Gives a percentile of the recorded latencies, rounded up to the end of its bucket.
+   *
+   * @param percentile the percentile, from 0 to 100.
+   * @return the latency in nanoseconds, or 0 if nothing was recorded.
+   * @throws IllegalArgumentException if the percentile is not between 0 and 100.
+   */
+  public long percentile(double percentile) {
+    if (percentile < 0 || percentile > 100) {
+      throw new IllegalArgumentException("Percentile must be between 0 and 100");
+    }
+    long[] snapshot = new long[counts.length()];
+    long total = 0;
+    for (int index = 0; index < snapshot.length; index++) {
+      snapshot[index] = counts.get(index);
+      total += snapshot[index];
+    }
+    if (total == 0) {
+      return 0;
+    }
+    long rank = Math.max(1, (long) Math.ceil(total * percentile / 100));
+    long seen = 0;
+    for (int index = 0; index < snapshot.length; index++) {
+      seen += snapshot[index];
+      if (seen >= rank) {
+        return upperBound(index);
+      }
+    }
+    return upperBound(snapshot.length - 1);
+  }
+
+  /**
+   * Helper that gives the bucket of a value.
+   * Values below 16 have a bucket each, larger ones go by their highest bit and the next four.
+   *
+   * @param value a value that is not negative.
+   * @return index of the bucket.
+   */
+  private int bucket(long value) {
+    if (value < SUB_BUCKETS) {
+      return (int) value;
+    }
+    int exponent = Math.min(63 - Long.numberOfLeadingZeros(value), MAX_EXPONENT);
+    int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+    if (exponent == MAX_EXPONENT && value >>> MAX_EXPONENT > 1) {
+      sub = SUB_BUCKETS - 1;
+    }
+    return (exponent - SUB_BITS + 1) * SUB_BUCKETS + sub;
+  }
+
+  /**
+   * Helper that gives the largest value a bucket holds.
+   *
+   * @param bucket index of the bucket.
+   * @return the largest value counted in it.
+   */
+  private long upperBound(int bucket) {
+    if (bucket < SUB_BUCKETS) {
+      return bucket;
+    }
+    int exponent = bucket / SUB_BUCKETS + SUB_BITS - 1;
+    long sub = bucket % SUB_BUCKETS;
+    return ((SUB_BUCKETS + sub + 1) << (exponent - SUB_BITS)) - 1;
+  }
+}
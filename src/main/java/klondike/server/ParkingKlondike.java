@@ -0,0 +1,275 @@
+package klondike.server;
+
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import klondike.model.hw04.AbstractKlondike;
+import klondike.model.hw04.BasicKlondike;
+import klondike.model.hw04.BoardSnapshot;
+import klondike.model.hw04.GameStateCodec;
+import klondike.model.hw04.KlondikeCreator;
+import klondike.model.hw04.KlondikeModel;
+import klondike.model.hw04.MoveStatus;
+import klondike.model.hw04.TryMoves;
+import klondike.model.hw04.Undoable;
+import klondike.model.hw04.ValueCard;
+import klondike.model.hw04.WhiteheadKlondike;
+
+/**
+ * Game of a session that its SessionStore may park while the player is idle.
+ * A parked game keeps only the bytes of GameStateCodec in place of the model's objects; the
+ * next call on it reads the model back, so the controller playing it never notices.
+ * Every call tells the store the game was used, after the game's lock is let go, so the
+ * store can park other games without two game locks ever being held at once.
+ */
+public final class ParkingKlondike implements KlondikeModel<ValueCard>, TryMoves, Undoable {
+  private final SessionStore store;
+  private AbstractKlondike model;
+  private byte[] parked;
+
+  /**
+   * Constructor for a game that hasn't been dealt yet.
+   *
+   * @param gameType rules the game is played by.
+   * @param store    store that parks the game.
+   */
+  ParkingKlondike(KlondikeCreator.GameType gameType, SessionStore store) {
+    this.store = store;
+    this.model = switch (gameType) {
+      case BASIC -> new BasicKlondike();
+      case WHITEHEAD -> new WhiteheadKlondike();
+    };
+  }
+
+  /**
+   * Replaces the model with its bytes, unless it is parked already or hasn't been dealt.
+   *
+   * @return true if the game was parked by this call.
+   */
+  synchronized boolean park() {
+    if (model == null) {
+      return false;
+    }
+    try {
+      parked = GameStateCodec.encode(model);
+    } catch (IllegalStateException e) {
+      return false;
+    }
+    model = null;
+    return true;
+  }
+
+  /**
+   * Says whether the game is parked.
+   *
+   * @return true if only the bytes of the game are kept.
+   */
+  public synchronized boolean isParked() {
+    return model == null;
+  }
+
+  /**
+   * Gives the number of bytes the game takes while parked.
+   *
+   * @return length of the parked bytes, or 0 if the game is not parked.
+   */
+  public synchronized int getParkedBytes() {
+    return parked == null ? 0 : parked.length;
+  }
+
+  /**
+   * Helper that gives the model, reading it back first if the game is parked.
+   * Must be called holding the game's lock.
+   *
+   * @return the model.
+   */
+  private AbstractKlondike live() {
+    if (model == null) {
+      model = GameStateCodec.decode(parked);
+      parked = null;
+      store.missed();
+    } else {
+      store.hit();
+    }
+    return model;
+  }
+
+  /**
+   * Helper that runs a call on the model and tells the store the game was used.
+   *
+   * @param call the call.
+   * @param <T>  type the call gives back.
+   * @return what the call gave back.
+   */
+  private <T> T get(Function<AbstractKlondike, T> call) {
+    T result;
+    synchronized (this) {
+      result = call.apply(live());
+    }
+    store.used(this);
+    return result;
+  }
+
+  /**
+   * Helper that runs a call that gives nothing back on the model and tells the store the
+   * game was used.
+   *
+   * @param call the call.
+   */
+  private void run(Consumer<AbstractKlondike> call) {
+    synchronized (this) {
+      call.accept(live());
+    }
+    store.used(this);
+  }
+
+  @Override
+  public List<ValueCard> createNewDeck() {
+    return get(AbstractKlondike::createNewDeck);
+  }
+
+  @Override
+  public void startGame(List<ValueCard> deck, boolean shuffle, int numPiles, int numDraw) {
+    run(game -> game.startGame(deck, shuffle, numPiles, numDraw));
+  }
+
+  @Override
+  public void startGame(List<ValueCard> deck, long seed, int numPiles, int numDraw) {
+    run(game -> game.startGame(deck, seed, numPiles, numDraw));
+  }
+
+  @Override
+  public void movePile(int srcPile, int numCards, int destPile) {
+    run(game -> game.movePile(srcPile, numCards, destPile));
+  }
+
+  @Override
+  public void moveDraw(int destPile) {
+    run(game -> game.moveDraw(destPile));
+  }
+
+  @Override
+  public void moveToFoundation(int srcPile, int foundationPile) {
+    run(game -> game.moveToFoundation(srcPile, foundationPile));
+  }
+
+  @Override
+  public void moveDrawToFoundation(int foundationPile) {
+    run(game -> game.moveDrawToFoundation(foundationPile));
+  }
+
+  @Override
+  public void discardDraw() {
+    run(AbstractKlondike::discardDraw);
+  }
+
+  @Override
+  public MoveStatus tryMovePile(int srcPile, int numCards, int destPile) {
+    return get(game -> game.tryMovePile(srcPile, numCards, destPile));
+  }
+
+  @Override
+  public MoveStatus tryMoveDraw(int destPile) {
+    return get(game -> game.tryMoveDraw(destPile));
+  }
+
+  @Override
+  public MoveStatus tryMoveToFoundation(int srcPile, int foundationPile) {
+    return get(game -> game.tryMoveToFoundation(srcPile, foundationPile));
+  }
+
+  @Override
+  public MoveStatus tryMoveDrawToFoundation(int foundationPile) {
+    return get(game -> game.tryMoveDrawToFoundation(foundationPile));
+  }
+
+  @Override
+  public MoveStatus tryDiscardDraw() {
+    return get(AbstractKlondike::tryDiscardDraw);
+  }
+
+  @Override
+  public void undo() {
+    run(AbstractKlondike::undo);
+  }
+
+  @Override
+  public void redo() {
+    run(AbstractKlondike::redo);
+  }
+
+  @Override
+  public boolean canUndo() {
+    return get(AbstractKlondike::canUndo);
+  }
+
+  @Override
+  public boolean canRedo() {
+    return get(AbstractKlondike::canRedo);
+  }
+
+  @Override
+  public int getNumRows() {
+    return get(AbstractKlondike::getNumRows);
+  }
+
+  @Override
+  public int getNumPiles() {
+    return get(AbstractKlondike::getNumPiles);
+  }
+
+  @Override
+  public int getNumDraw() {
+    return get(AbstractKlondike::getNumDraw);
+  }
+
+  @Override
+  public boolean isGameOver() {
+    return get(AbstractKlondike::isGameOver);
+  }
+
+  @Override
+  public int getScore() {
+    return get(AbstractKlondike::getScore);
+  }
+
+  @Override
+  public int getPileHeight(int pileNum) {
+    return get(game -> game.getPileHeight(pileNum));
+  }
+
+  @Override
+  public int[] getPileHeights() {
+    return get(AbstractKlondike::getPileHeights);
+  }
+
+  @Override
+  public ValueCard getCardAt(int pileNum, int card) {
+    return get(game -> game.getCardAt(pileNum, card));
+  }
+
+  @Override
+  public ValueCard getCardAt(int foundationPile) {
+    return get(game -> game.getCardAt(foundationPile));
+  }
+
+  @Override
+  public boolean isCardVisible(int pileNum, int card) {
+    return get(game -> game.isCardVisible(pileNum, card));
+  }
+
+  @Override
+  public List<ValueCard> getDrawCards() {
+    return get(AbstractKlondike::getDrawCards);
+  }
+
+  @Override
+  public int getNumFoundations() {
+    return get(AbstractKlondike::getNumFoundations);
+  }
+
+  @Override
+  public BoardSnapshot snapshot() {
+    return get(AbstractKlondike::snapshot);
+  }
+}
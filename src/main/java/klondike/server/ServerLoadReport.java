@@ -0,0 +1,163 @@
+package klondike.server;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import klondike.model.hw04.KlondikeCreator;
+
+/**
+ * Prints how many sessions a second the server runs and its command latency, then how much
+ * memory idle sessions hold and how long the server takes to shut them all down.
+ * Clients run on virtual threads in the same process and talk to the server over loopback.
+ * Each short session reads the board, discards ten draw cards one command at a time, waiting
+ * for each reply, and quits. Given a number of hot games, the games are kept by a SessionStore
+ * that keeps that many hot and parks any idle for a second, and its counters are printed too.
+ */
+public final class ServerLoadReport {
+  private static final int COMMANDS = 10;
+
+  private ServerLoadReport() {
+  }
+
+  /**
+   * Runs the report.
+   *
+   * @param args optional number of short sessions, clients at once, idle sessions and hot
+   *             games, defaulting to 2000, 64, 10000 and no store.
+   * @throws Exception if the server or a client fails.
+   */
+  public static void main(String[] args) throws Exception {
+    int sessions = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+    int clients = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+    int idle = args.length > 2 ? Integer.parseInt(args[2]) : 10_000;
+    SessionStore store =
+        args.length > 3 ? new SessionStore(Integer.parseInt(args[3]), 1000) : null;
+    KlondikeServer server = new KlondikeServer(KlondikeCreator.GameType.WHITEHEAD, 7, 3, store);
+    int port = server.start(0);
+    LatencyHistogram roundTrips = new LatencyHistogram();
+    Semaphore slots = new Semaphore(clients);
+    long start = System.nanoTime();
+    try (ExecutorService players = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (int session = 0; session < sessions; session++) {
+        slots.acquire();
+        players.execute(() -> {
+          try {
+            play(port, roundTrips);
+          } catch (IOException e) {
+            throw new IllegalStateException(e);
+          } finally {
+            slots.release();
+          }
+        });
+      }
+    }
+    double seconds = (System.nanoTime() - start) / 1e9;
+    System.out.printf("%d sessions of %d commands with %d clients in %.2fs: %.0f sessions/s%n",
+        sessions, COMMANDS, clients, seconds, sessions / seconds);
+    LatencyHistogram latency = server.getLatency();
+    System.out.printf("server command latency over %d commands: p50 %dus p99 %dus%n",
+        latency.count(), latency.percentile(50) / 1000, latency.percentile(99) / 1000);
+    System.out.printf("client round trip: p50 %dus p99 %dus%n",
+        roundTrips.percentile(50) / 1000, roundTrips.percentile(99) / 1000);
+
+    long before = usedMemory();
+    List<Socket> sockets = new ArrayList<>();
+    for (int session = 0; session < idle; session++) {
+      Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+      readReply(new BufferedInputStream(socket.getInputStream(), 512));
+      sockets.add(socket);
+    }
+    if (store != null) {
+      Thread.sleep(2000);
+    }
+    long perSession = (usedMemory() - before) / Math.max(idle, 1);
+    System.out.printf("%d idle sessions open, about %d bytes of heap each, both ends included%n",
+        server.getActiveSessions(), perSession);
+    start = System.nanoTime();
+    server.close();
+    System.out.printf("shut down %d sessions in %dms%n", server.getSessionsFinished(),
+        (System.nanoTime() - start) / 1_000_000);
+    for (Socket socket : sockets) {
+      socket.close();
+    }
+    if (store != null) {
+      System.out.printf("store: %d hits, %d misses, %d evictions, %d expirations%n",
+          store.getHits(), store.getMisses(), store.getEvictions(), store.getExpirations());
+      store.close();
+    }
+  }
+
+  /**
+   * Plays one short session.
+   *
+   * @param port       port of the server.
+   * @param roundTrips histogram of the time from sending a command to reading its reply.
+   * @throws IOException if the connection fails.
+   */
+  private static void play(int port, LatencyHistogram roundTrips) throws IOException {
+    try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+      socket.setTcpNoDelay(true);
+      InputStream in = new BufferedInputStream(socket.getInputStream(), 512);
+      OutputStream out = socket.getOutputStream();
+      readReply(in);
+      for (int command = 0; command < COMMANDS; command++) {
+        long sent = System.nanoTime();
+        out.write("dd\n".getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+        readReply(in);
+        roundTrips.record(System.nanoTime() - sent);
+      }
+      out.write("q\n".getBytes(StandardCharsets.US_ASCII));
+      out.flush();
+      while (in.read() >= 0) {
+        // read the final board until the server hangs up
+      }
+    }
+  }
+
+  /**
+   * Reads one reply of the server, which ends with the score line or the invalid move line.
+   *
+   * @param in the connection's input.
+   * @throws IOException if the connection fails or closes first.
+   */
+  private static void readReply(InputStream in) throws IOException {
+    StringBuilder line = new StringBuilder();
+    while (true) {
+      int read = in.read();
+      if (read < 0) {
+        throw new IOException("Server hung up");
+      }
+      if (read != '\n') {
+        line.append((char) read);
+        continue;
+      }
+      if (line.indexOf("Score: ") == 0 || line.indexOf("Invalid move") == 0) {
+        return;
+      }
+      line.setLength(0);
+    }
+  }
+
+  /**
+   * Helper that gives the heap in use after a garbage collection.
+   *
+   * @return bytes of heap in use.
+   */
+  private static long usedMemory() {
+    Runtime runtime = Runtime.getRuntime();
+    for (int collection = 0; collection < 3; collection++) {
+      System.gc();
+    }
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+}
@@ -0,0 +1,190 @@
+package klondike.server;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import klondike.controller.KlondikeController;
+import klondike.controller.KlondikeTextualController;
+import klondike.model.hw04.KlondikeCreator;
+import klondike.model.hw04.KlondikeModel;
+import klondike.model.hw04.ValueCard;
+
+/**
+ * One player's game on the server, run on its own virtual thread.
+ * The controller reads the socket through a small byte buffer and writes into a text buffer
+ * that is sent whenever the controller is about to wait for more input, so each command's
+ * reply goes out in one write. The time from a command arriving to its reply being ready to
+ * send is recorded as the command's latency. If the server has a SessionStore, the game is
+ * kept by the store so it can be parked while the player is idle.
+ */
+final class Session implements Runnable {
+  private static final int READ_BUFFER = 256;
+
+  private final long id;
+  private final Socket socket;
+  private final KlondikeServer server;
+
+  /**
+   * Constructor for a session on an accepted connection.
+   *
+   * @param id     number of the session.
+   * @param socket the connection to the player.
+   * @param server server the session belongs to.
+   */
+  Session(long id, Socket socket, KlondikeServer server) {
+    this.id = id;
+    this.socket = socket;
+    this.server = server;
+  }
+
+  @Override
+  public void run() {
+    try (socket) {
+      Output output = new Output(socket.getOutputStream());
+      Input input = new Input(socket.getInputStream(), output);
+      SessionStore store = server.getStore();
+      ParkingKlondike parking = store == null ? null : store.open(server.getGameType());
+      KlondikeModel<ValueCard> model = parking == null
+          ? KlondikeCreator.create(server.getGameType()) : parking;
+      KlondikeController controller = new KlondikeTextualController(input, output);
+      try {
+        controller.playGame(model, model.createNewDeck(), true, server.getNumPiles(),
+            server.getNumDraw());
+      } catch (IllegalStateException e) {
+        if (server.isClosing()) {
+          output.append("Server shutting down.\n");
+        }
+      } finally {
+        if (parking != null) {
+          store.remove(parking);
+        }
+      }
+      input.replied();
+    } catch (IOException e) {
+      // the player is gone, nothing left to tell them
+    } finally {
+      server.finished(this);
+    }
+  }
+
+  /**
+   * Gives the number of the session.
+   *
+   * @return the session number.
+   */
+  long getId() {
+    return id;
+  }
+
+  /**
+   * Stops reading commands, so the game ends after the one being played, if any.
+   * Called by the server when it shuts down.
+   */
+  void stopReading() {
+    try {
+      socket.shutdownInput();
+    } catch (IOException e) {
+      // already closed
+    }
+  }
+
+  /**
+   * Closes the connection at once.
+   */
+  void close() {
+    try {
+      socket.close();
+    } catch (IOException e) {
+      // already closed
+    }
+  }
+
+  /**
+   * Reads commands from the socket. Before every wait for more input, the replies to the
+   * commands read so far are sent and their latency recorded.
+   */
+  private final class Input implements Readable {
+    private final InputStream in;
+    private final Output output;
+    private final byte[] buffer = new byte[READ_BUFFER];
+    private long arrived;
+
+    private Input(InputStream in, Output output) {
+      this.in = in;
+      this.output = output;
+    }
+
+    @Override
+    public int read(CharBuffer cb) throws IOException {
+      replied();
+      int read = in.read(buffer, 0, Math.min(buffer.length, cb.remaining()));
+      if (read < 0) {
+        return -1;
+      }
+      arrived = System.nanoTime();
+      for (int index = 0; index < read; index++) {
+        cb.put((char) (buffer[index] & 0xff));
+      }
+      return read;
+    }
+
+    /**
+     * Records how long the replies waiting in the output took and sends them.
+     *
+     * @throws IOException if the socket can't be written.
+     */
+    private void replied() throws IOException {
+      if (arrived != 0) {
+        server.getLatency().record(System.nanoTime() - arrived);
+        arrived = 0;
+      }
+      output.flush();
+    }
+  }
+
+  /**
+   * Collects what the controller writes until the session sends it.
+   */
+  private static final class Output implements Appendable {
+    private final OutputStream out;
+    private final StringBuilder text = new StringBuilder();
+
+    private Output(OutputStream out) {
+      this.out = out;
+    }
+
+    @Override
+    public Appendable append(CharSequence csq) {
+      text.append(csq);
+      return this;
+    }
+
+    @Override
+    public Appendable append(CharSequence csq, int start, int end) {
+      text.append(csq, start, end);
+      return this;
+    }
+
+    @Override
+    public Appendable append(char c) {
+      text.append(c);
+      return this;
+    }
+
+    /**
+     * Sends everything collected so far.
+     *
+     * @throws IOException if the socket can't be written.
+     */
+    private void flush() throws IOException {
+      if (text.length() > 0) {
+        out.write(text.toString().getBytes(StandardCharsets.UTF_8));
+        out.flush();
+        text.setLength(0);
+      }
+    }
+  }
+}
@@ -0,0 +1,196 @@
+package klondike.server;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import klondike.model.hw04.KlondikeCreator;
+
+/**
+ * Keeps the games of the server's sessions, parking the ones not being played.
+ * At most a fixed number of games are kept hot, in least recently used order; using one more
+ * parks the game used longest ago. Games not used for the idle period are parked by a
+ * sweeper too, so a quiet server holds only the few bytes of each game rather than its model.
+ * A parked game is read back by the first call on it.
+ * Hits and misses count calls on a game that found it hot or parked, evictions count games
+ * parked to stay under the size and expirations games parked for being idle.
+ */
+public final class SessionStore implements AutoCloseable {
+  private final int maxHot;
+  private final long idleNanos;
+  private final LinkedHashMap<ParkingKlondike, Long> hot = new LinkedHashMap<>(16, 0.75f, true);
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+  private final AtomicLong evictions = new AtomicLong();
+  private final AtomicLong expirations = new AtomicLong();
+  private final ScheduledExecutorService sweeper =
+      Executors.newSingleThreadScheduledExecutor(Thread.ofVirtual().factory());
+
+  /**
+   * Constructor for a store that parks games beyond a number kept hot or idle for a while.
+   *
+   * @param maxHot     most games kept hot at once.
+   * @param idleMillis milliseconds a game may go unused before it is parked.
+   * @throws IllegalArgumentException if a number is not positive.
+   */
+  public SessionStore(int maxHot, long idleMillis) {
+    if (maxHot < 1 || idleMillis < 1) {
+      throw new IllegalArgumentException("Invalid store settings");
+    }
+    this.maxHot = maxHot;
+    this.idleNanos = TimeUnit.MILLISECONDS.toNanos(idleMillis);
+    long period = Math.max(idleMillis / 2, 1);
+    sweeper.scheduleWithFixedDelay(this::sweep, period, period, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Gives a new game kept by the store.
+   *
+   * @param gameType rules the game is played by.
+   * @return the game, not yet dealt.
+   * @throws IllegalArgumentException if the game type is null.
+   */
+  public ParkingKlondike open(KlondikeCreator.GameType gameType) {
+    if (gameType == null) {
+      throw new IllegalArgumentException("Game type is null");
+    }
+    return new ParkingKlondike(gameType, this);
+  }
+
+  /**
+   * Forgets a game whose session has ended.
+   *
+   * @param game the game.
+   */
+  public void remove(ParkingKlondike game) {
+    synchronized (hot) {
+      hot.remove(game);
+    }
+  }
+
+  /**
+   * Marks a game as the most recently used and parks the games used longest ago if too many
+   * are hot. The games are parked after the store's lock is let go.
+   *
+   * @param game the game just used.
+   */
+  void used(ParkingKlondike game) {
+    List<ParkingKlondike> victims = null;
+    synchronized (hot) {
+      hot.put(game, System.nanoTime());
+      if (hot.size() > maxHot) {
+        victims = new ArrayList<>();
+        Iterator<ParkingKlondike> eldest = hot.keySet().iterator();
+        while (hot.size() > maxHot) {
+          victims.add(eldest.next());
+          eldest.remove();
+        }
+      }
+    }
+    if (victims != null) {
+      for (ParkingKlondike victim : victims) {
+        if (victim.park()) {
+          evictions.incrementAndGet();
+        }
+      }
+    }
+  }
+
+  /**
+   * Helper that parks every hot game not used for the idle period.
+   */
+  private void sweep() {
+    List<ParkingKlondike> idle = new ArrayList<>();
+    long now = System.nanoTime();
+    synchronized (hot) {
+      Iterator<Map.Entry<ParkingKlondike, Long>> eldest = hot.entrySet().iterator();
+      while (eldest.hasNext()) {
+        Map.Entry<ParkingKlondike, Long> entry = eldest.next();
+        if (now - entry.getValue() < idleNanos) {
+          break;
+        }
+        idle.add(entry.getKey());
+        eldest.remove();
+      }
+    }
+    for (ParkingKlondike game : idle) {
+      if (game.park()) {
+        expirations.incrementAndGet();
+      }
+    }
+  }
+
+  /**
+   * Counts a call that found its game hot.
+   */
+  void hit() {
+    hits.incrementAndGet();
+  }
+
+  /**
+   * Counts a call that had to read its game back.
+   */
+  void missed() {
+    misses.incrementAndGet();
+  }
+
+  /**
+   * Gives the number of games kept hot right now.
+   *
+   * @return the number of hot games.
+   */
+  public int getHotGames() {
+    synchronized (hot) {
+      return hot.size();
+    }
+  }
+
+  /**
+   * Gives the number of calls on a game that found it hot.
+   *
+   * @return the number of hits.
+   */
+  public long getHits() {
+    return hits.get();
+  }
+
+  /**
+   * Gives the number of calls on a game that had to read it back first.
+   *
+   * @return the number of misses.
+   */
+  public long getMisses() {
+    return misses.get();
+  }
+
+  /**
+   * Gives the number of games parked to keep the hot games under the limit.
+   *
+   * @return the number of evictions.
+   */
+  public long getEvictions() {
+    return evictions.get();
+  }
+
+  /**
+   * Gives the number of games parked for being idle.
+   *
+   * @return the number of expirations.
+   */
+  public long getExpirations() {
+    return expirations.get();
+  }
+
+  /**
+   * Stops the sweeper. Games already parked stay parked until used.
+   */
+  @Override
+  public void close() {
+    sweeper.shutdownNow();
+  }
+}
@@ -0,0 +1,80 @@
+package klondike.simulation;
+
+import java.util.SplittableRandom;
+import klondike.model.hw04.AbstractKlondike;
+import klondike.model.hw04.Moves;
+
+/**
+ * Policy that always makes the move that does the most right away.
+ * Moves to a foundation come first, then pile moves that build cards which were not built
+ * before, then playing the draw card onto a pile, and discarding last. A pile move is only
+ * made if it takes cards off a face-up card they can't be built on, takes a whole run off a
+ * face-down card, or joins a whole pile onto another, so the cards never go back and forth
+ * and a game always ends. Like a player, the policy only goes by cards that are or were
+ * face up.
+ */
+public final class GreedyPolicy implements Policy {
+  @Override
+  public int choose(AbstractKlondike model, int[] moves, int count, SplittableRandom random) {
+    int best = -1;
+    int bestRank = Integer.MAX_VALUE;
+    for (int index = 0; index < count; index++) {
+      int rank = rank(model, moves[index]);
+      if (rank >= 0 && rank < bestRank) {
+        best = index;
+        bestRank = rank;
+      }
+    }
+    return best;
+  }
+
+  @Override
+  public boolean isDeterministic() {
+    return true;
+  }
+
+  /**
+   * Helper that orders moves by how much they do.
+   *
+   * @param model game in the current position.
+   * @param move  the encoded move.
+   * @return 0 to 4 where lower is better, or -1 for a move not worth making.
+   */
+  private int rank(AbstractKlondike model, int move) {
+    switch (Moves.kind(move)) {
+      case Moves.PILE_TO_FOUNDATION:
+        return 0;
+      case Moves.DRAW_TO_FOUNDATION:
+        return 1;
+      case Moves.PILE_TO_PILE:
+        int source = Moves.source(move);
+        int bottom = model.getPileHeight(source) - Moves.count(move);
+        if (bottom == 0) {
+          return model.getPileHeight(Moves.destination(move)) > 0 ? 2 : -1;
+        }
+        if (model.isCardVisible(source, bottom - 1)) {
+          return mayBeBuiltOn(model, source, bottom) ? -1 : 2;
+        }
+        return Moves.count(move) == model.getRunLength(source) ? 2 : -1;
+      case Moves.DRAW_TO_PILE:
+        return 3;
+      default:
+        return 4;
+    }
+  }
+
+  /**
+   * Helper that says whether a card may be built on the face-up card below it, from what the
+   * two cards show. Any card one rank below is taken as a build under either rule set, which
+   * at worst leaves alone a pair the rules would not build.
+   *
+   * @param model game in the current position.
+   * @param pile  index of the pile.
+   * @param card  index of the card in the pile, at least 1, with the card below it face up.
+   * @return true if moving the card away could undo a build.
+   */
+  static boolean mayBeBuiltOn(AbstractKlondike model, int pile, int card) {
+    return !model.isCardVisible(pile, card)
+        || model.getCardAt(pile, card).value() + 1 == model.getCardAt(pile, card - 1).value();
+  }
+}
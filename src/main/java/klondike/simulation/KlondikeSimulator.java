@@ -0,0 +1,237 @@
+package klondike.simulation;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import klondike.model.hw04.AbstractKlondike;
+import klondike.model.hw04.BasicKlondike;
+import klondike.model.hw04.KlondikeCreator.GameType;
+import klondike.model.hw04.Moves;
+import klondike.model.hw04.ValueCard;
+import klondike.model.hw04.WhiteheadKlondike;
+
+/**
+ * Headless engine that plays many seeded games with a policy and totals how they went.
+ * Game number i of a run is dealt with seed firstSeed + i and its policy gets a random
+ * seeded from the same number, so a run gives the same totals on any number of threads.
+ * Games are split into chunks that the threads of a ForkJoinPool share, and each chunk is
+ * played on its own models, so the threads never touch each other's state.
+ * A game ends when it is won, when there are no legal moves or the policy stops, when
+ * discarding in a row has gone once around the whole stock without any other move being
+ * legal on the way, or without the policy choosing any other move when the policy is
+ * deterministic, or after maxMoves.
+ */
+public final class KlondikeSimulator {
+  private static final int CHUNK = 64;
+
+  private final int parallelism;
+  private final int maxMoves;
+
+  /**
+   * Constructor for a simulator with a number of threads and a limit on game length.
+   *
+   * @param parallelism number of threads playing games.
+   * @param maxMoves    most moves made in one game before it is stopped.
+   * @throws IllegalArgumentException if either argument is not positive.
+   */
+  public KlondikeSimulator(int parallelism, int maxMoves) {
+    if (parallelism < 1 || maxMoves < 1) {
+      throw new IllegalArgumentException("Threads and moves must be positive");
+    }
+    this.parallelism = parallelism;
+    this.maxMoves = maxMoves;
+  }
+
+  /**
+   * Plays a number of seeded games of one configuration.
+   *
+   * @param gameType  rules to play by.
+   * @param numPiles  number of piles to deal.
+   * @param numDraw   number of draw cards.
+   * @param games     number of games to play.
+   * @param firstSeed seed of the first game, the others following one by one.
+   * @param policy    policy choosing every move.
+   * @return the totals of the games played.
+   * @throws IllegalArgumentException if the type or policy is null, games is negative, or
+   *                                  a game cannot be started with the piles and draw given.
+   */
+  public SimulationResult simulate(GameType gameType, int numPiles, int numDraw, int games,
+                                   long firstSeed, Policy policy) {
+    if (gameType == null || policy == null) {
+      throw new IllegalArgumentException("Game type or policy is null");
+    }
+    if (games < 0) {
+      throw new IllegalArgumentException("Number of games is negative");
+    }
+    List<ValueCard> deck = List.copyOf(newModel(gameType).createNewDeck());
+    if (numPiles < 1 || numDraw < 1 || numDraw > deck.size()
+        || (long) numPiles * (numPiles + 1) / 2 > deck.size()) {
+      throw new IllegalArgumentException("Can't deal " + numPiles + " piles drawing " + numDraw
+          + " from " + deck.size() + " cards");
+    }
+    Chunk all = new Chunk(gameType, deck, numPiles, numDraw, firstSeed, policy, 0, games);
+    ForkJoinPool pool = new ForkJoinPool(parallelism);
+    Tally tally;
+    try {
+      tally = pool.invoke(all);
+    } finally {
+      pool.shutdownNow();
+    }
+    return new SimulationResult(gameType, numPiles, numDraw, games, tally.wins, tally.score,
+        tally.moves);
+  }
+
+  /**
+   * Helper that creates an unstarted model of a game type.
+   *
+   * @param gameType rules the model plays by.
+   * @return a new model.
+   */
+  private static AbstractKlondike newModel(GameType gameType) {
+    return switch (gameType) {
+      case BASIC -> new BasicKlondike();
+      case WHITEHEAD -> new WhiteheadKlondike();
+    };
+  }
+
+  /**
+   * Running totals of a group of games.
+   */
+  private static final class Tally {
+    private int wins;
+    private long score;
+    private long moves;
+
+    /**
+     * Adds the totals of another group of games to these.
+     *
+     * @param other totals to add.
+     * @return these totals.
+     */
+    private Tally add(Tally other) {
+      wins += other.wins;
+      score += other.score;
+      moves += other.moves;
+      return this;
+    }
+  }
+
+  /**
+   * Task that plays a range of game numbers, splitting it in half until it is one chunk.
+   * ForkJoinTask is Serializable, but the tasks only live inside one simulate call and are
+   * never serialized.
+   */
+  @SuppressWarnings("serial")
+  private final class Chunk extends RecursiveTask<Tally> {
+    private final GameType gameType;
+    private final List<ValueCard> deck;
+    private final int numPiles;
+    private final int numDraw;
+    private final long firstSeed;
+    private final Policy policy;
+    private final int from;
+    private final int to;
+
+    private Chunk(GameType gameType, List<ValueCard> deck, int numPiles, int numDraw,
+                  long firstSeed, Policy policy, int from, int to) {
+      this.gameType = gameType;
+      this.deck = deck;
+      this.numPiles = numPiles;
+      this.numDraw = numDraw;
+      this.firstSeed = firstSeed;
+      this.policy = policy;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected Tally compute() {
+      if (to - from > CHUNK) {
+        int middle = (from + to) >>> 1;
+        Chunk left = new Chunk(gameType, deck, numPiles, numDraw, firstSeed, policy, from,
+            middle);
+        Chunk right = new Chunk(gameType, deck, numPiles, numDraw, firstSeed, policy, middle,
+            to);
+        left.fork();
+        return right.compute().add(left.join());
+      }
+      Tally tally = new Tally();
+      int[] buffer = new int[1024];
+      for (int game = from; game < to; game++) {
+        long seed = firstSeed + game;
+        AbstractKlondike model = newModel(gameType);
+        model.startGame(deck, seed, numPiles, numDraw);
+        tally.moves += play(model, buffer, new SplittableRandom(~seed));
+        int score = model.getScore();
+        tally.score += score;
+        if (score == deck.size()) {
+          tally.wins++;
+        }
+      }
+      return tally;
+    }
+
+    /**
+     * Helper that plays one game until it ends.
+     *
+     * @param model  the started game.
+     * @param buffer array reused for the legal moves.
+     * @param random source of randomness for the policy.
+     * @return the number of moves made.
+     */
+    private int play(AbstractKlondike model, int[] buffer, SplittableRandom random) {
+      int moves = 0;
+      boolean deterministic = policy.isDeterministic();
+      boolean discarding = false;
+      boolean choices = false;
+      long cycleStart = 0;
+      while (moves < maxMoves) {
+        int count = model.legalMoves(buffer);
+        if (count == 0) {
+          break;
+        }
+        int choice = policy.choose(model, buffer, count, random);
+        if (choice < 0) {
+          break;
+        }
+        int move = buffer[choice];
+        if (Moves.kind(move) != Moves.DISCARD) {
+          discarding = false;
+        } else {
+          if (!discarding) {
+            discarding = true;
+            choices = false;
+            cycleStart = model.positionHash();
+          }
+          choices = choices || !deterministic && !onlyDiscards(buffer, count);
+        }
+        model.applyMove(move);
+        moves++;
+        if (discarding && model.positionHash() == cycleStart) {
+          if (!choices) {
+            break;
+          }
+          choices = false;
+        }
+      }
+      return moves;
+    }
+
+    /**
+     * Helper that says whether discarding is all that can be done in a position.
+     *
+     * @param buffer legal moves of the position.
+     * @param count  number of legal moves.
+     * @return true if every legal move is a discard.
+     */
+    private boolean onlyDiscards(int[] buffer, int count) {
+      for (int index = 0; index < count; index++) {
+        if (Moves.kind(buffer[index]) != Moves.DISCARD) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+}
@@ -0,0 +1,33 @@
+package klondike.simulation;
+
+import java.util.SplittableRandom;
+import klondike.model.hw04.AbstractKlondike;
+
+/**
+ * Behavior for choosing the next move of a simulated game.
+ * A policy is shared by every thread of a simulation, so it must not keep state between
+ * calls; anything random has to come from the random it is given, which is seeded by the game.
+ */
+public interface Policy {
+  /**
+   * Chooses one of the legal moves of the current position.
+   *
+   * @param model  game in the current position, which must not be changed.
+   * @param moves  encoded legal moves of the position, as given by legalMoves.
+   * @param count  number of moves in the array, at least one.
+   * @param random source of randomness for this game.
+   * @return index of the chosen move, or -1 to stop playing the game.
+   */
+  int choose(AbstractKlondike model, int[] moves, int count, SplittableRandom random);
+
+  /**
+   * Says whether the policy always chooses the same move in the same position, not using the
+   * random. A game played by such a policy that comes back to a position it discarded from
+   * would only go around the same way again, so the simulator ends it there.
+   *
+   * @return true if the choice depends on nothing but the position, false by default.
+   */
+  default boolean isDeterministic() {
+    return false;
+  }
+}
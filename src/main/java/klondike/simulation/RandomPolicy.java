@@ -0,0 +1,15 @@
+package klondike.simulation;
+
+import java.util.SplittableRandom;
+import klondike.model.hw04.AbstractKlondike;
+
+/**
+ * Policy that makes any legal move, each as likely as the others.
+ * Gives a baseline to compare other policies against.
+ */
+public final class RandomPolicy implements Policy {
+  @Override
+  public int choose(AbstractKlondike model, int[] moves, int count, SplittableRandom random) {
+    return random.nextInt(count);
+  }
+}
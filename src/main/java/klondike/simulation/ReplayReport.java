@@ -0,0 +1,114 @@
+package klondike.simulation;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.SplittableRandom;
+import klondike.model.hw04.AbstractKlondike;
+import klondike.model.hw04.ReplayGame;
+import klondike.model.hw04.ReplayReader;
+import klondike.model.hw04.ReplayWriter;
+import klondike.model.hw04.WhiteheadKlondike;
+
+/**
+ * Prints how fast a replay log is written, read back and replayed.
+ * A number of seeded Whitehead games are played with random moves, with an undo or redo
+ * now and then, while a ReplayWriter logs them to memory. The log is then read back and
+ * every game replayed trusting the log and again checking every move, and the positions
+ * reached are compared with the games played.
+ */
+public final class ReplayReport {
+  private static final int MAX_MOVES = 500;
+
+  private ReplayReport() {
+  }
+
+  /**
+   * Runs the report.
+   *
+   * @param args optional number of games, defaulting to 20000.
+   * @throws IOException if the log can't be written or read.
+   */
+  public static void main(String[] args) throws IOException {
+    int games = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    long[] hashes = new long[games];
+    long moves = 0;
+    long start = System.nanoTime();
+    try (ReplayWriter log = new ReplayWriter(bytes)) {
+      int[] buffer = new int[1024];
+      for (int game = 0; game < games; game++) {
+        AbstractKlondike model = new WhiteheadKlondike();
+        model.setReplayLog(log);
+        model.startGame(model.createNewDeck(), (long) game, 7, 3);
+        moves += play(model, buffer, new SplittableRandom(game));
+        hashes[game] = model.positionHash();
+      }
+    }
+    report("played and logged", games, moves, start);
+    byte[] log = bytes.toByteArray();
+    System.out.printf("log of %d bytes, %.1f bytes a move%n", log.length,
+        (double) log.length / moves);
+
+    start = System.nanoTime();
+    int game = 0;
+    try (ReplayReader reader = new ReplayReader(new ByteArrayInputStream(log))) {
+      for (ReplayGame replay = reader.next(); replay != null; replay = reader.next()) {
+        if (replay.replay().positionHash() != hashes[game++]) {
+          throw new IllegalStateException("Replay " + game + " ended somewhere else");
+        }
+      }
+    }
+    report("read and replayed", game, moves, start);
+
+    start = System.nanoTime();
+    try (ReplayReader reader = new ReplayReader(new ByteArrayInputStream(log))) {
+      for (ReplayGame replay = reader.next(); replay != null; replay = reader.next()) {
+        if (replay.verify() >= 0) {
+          throw new IllegalStateException("Rules rejected a logged move");
+        }
+      }
+    }
+    report("read and verified", game, moves, start);
+  }
+
+  /**
+   * Helper that plays random moves, undoing one move in twenty and redoing one in forty.
+   *
+   * @param model  the started game.
+   * @param buffer array reused for the legal moves.
+   * @param random source of randomness.
+   * @return the number of moves, undos and redos made.
+   */
+  private static int play(AbstractKlondike model, int[] buffer, SplittableRandom random) {
+    for (int made = 0; made < MAX_MOVES; made++) {
+      int roll = random.nextInt(40);
+      if (roll < 2 && model.canUndo()) {
+        model.undo();
+      } else if (roll == 2 && model.canRedo()) {
+        model.redo();
+      } else {
+        int count = model.legalMoves(buffer);
+        if (count == 0) {
+          return made;
+        }
+        model.applyMove(buffer[random.nextInt(count)]);
+      }
+    }
+    return MAX_MOVES;
+  }
+
+  /**
+   * Helper that prints the rate of one step of the report.
+   *
+   * @param step  what was done.
+   * @param games number of games.
+   * @param moves number of moves in them.
+   * @param start when the step started, from System.nanoTime.
+   */
+  private static void report(String step, int games, long moves, long start) {
+    double seconds = (System.nanoTime() - start) / 1e9;
+    System.out.printf("%s %d games of %d moves in %.2fs: %.1f million moves/s%n", step, games,
+        moves, seconds, moves / seconds / 1e6);
+  }
+}
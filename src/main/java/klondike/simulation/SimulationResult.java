@@ -0,0 +1,129 @@
+package klondike.simulation;
+
+import klondike.model.hw04.KlondikeCreator.GameType;
+
+/**
+ * Totals of the games played for one configuration of a simulation.
+ */
+public final class SimulationResult {
+  private final GameType gameType;
+  private final int numPiles;
+  private final int numDraw;
+  private final int games;
+  private final int wins;
+  private final long totalScore;
+  private final long totalMoves;
+
+  /**
+   * Constructor for the totals of one configuration.
+   *
+   * @param gameType   rules the games were played by.
+   * @param numPiles   number of piles dealt.
+   * @param numDraw    number of draw cards.
+   * @param games      number of games played.
+   * @param wins       number of games won.
+   * @param totalScore sum of the final scores.
+   * @param totalMoves sum of the moves made.
+   */
+  public SimulationResult(GameType gameType, int numPiles, int numDraw, int games, int wins,
+                          long totalScore, long totalMoves) {
+    if (gameType == null) {
+      throw new IllegalArgumentException("Game type is null");
+    }
+    this.gameType = gameType;
+    this.numPiles = numPiles;
+    this.numDraw = numDraw;
+    this.games = games;
+    this.wins = wins;
+    this.totalScore = totalScore;
+    this.totalMoves = totalMoves;
+  }
+
+  /**
+   * Gives the rules the games were played by.
+   *
+   * @return the game type.
+   */
+  public GameType getGameType() {
+    return gameType;
+  }
+
+  /**
+   * Gives the number of piles dealt.
+   *
+   * @return the number of piles.
+   */
+  public int getNumPiles() {
+    return numPiles;
+  }
+
+  /**
+   * Gives the number of draw cards.
+   *
+   * @return the number of draw cards.
+   */
+  public int getNumDraw() {
+    return numDraw;
+  }
+
+  /**
+   * Gives the number of games played.
+   *
+   * @return the number of games.
+   */
+  public int getGames() {
+    return games;
+  }
+
+  /**
+   * Gives the number of games won.
+   *
+   * @return the number of wins.
+   */
+  public int getWins() {
+    return wins;
+  }
+
+  /**
+   * Gives the share of games won.
+   *
+   * @return wins divided by games, or 0 if no games were played.
+   */
+  public double getWinRate() {
+    return games == 0 ? 0 : (double) wins / games;
+  }
+
+  /**
+   * Gives the average final score, the number of cards on the foundations.
+   *
+   * @return the mean score, or 0 if no games were played.
+   */
+  public double getMeanScore() {
+    return games == 0 ? 0 : (double) totalScore / games;
+  }
+
+  /**
+   * Gives the average number of moves made in a game, discards included.
+   *
+   * @return the mean number of moves, or 0 if no games were played.
+   */
+  public double getMeanMoves() {
+    return games == 0 ? 0 : (double) totalMoves / games;
+  }
+
+  /**
+   * Gives the sum of the moves made in every game.
+   *
+   * @return the total number of moves.
+   */
+  public long getTotalMoves() {
+    return totalMoves;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%s piles=%d draw=%d games=%d wins=%d (%.2f%%) score=%.2f moves=%.1f",
+        gameType, numPiles, numDraw, games, wins, getWinRate() * 100, getMeanScore(),
+        getMeanMoves());
+  }
+}
@@ -0,0 +1,46 @@
+package klondike.simulation;
+
+import klondike.model.hw04.KlondikeCreator.GameType;
+
+/**
+ * Prints the win rate, mean score and mean moves of every configuration we offer.
+ * Every game type is played with one to nine piles and one to three draw cards, the same
+ * seeded deals for each, along with how many games a second the simulator managed.
+ */
+public final class WinRateReport {
+  private static final int MAX_PILES = 9;
+  private static final int MAX_DRAW = 3;
+  private static final int MAX_MOVES = 1000;
+
+  private WinRateReport() {
+  }
+
+  /**
+   * Runs the report.
+   *
+   * @param args optional number of games per configuration, defaulting to 10000, then
+   *             "random" to play random moves instead of greedy ones, then the number of
+   *             threads, defaulting to the number of processors.
+   */
+  public static void main(String[] args) {
+    int games = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+    Policy policy = args.length > 1 && args[1].equals("random")
+        ? new RandomPolicy() : new GreedyPolicy();
+    int threads = args.length > 2 ? Integer.parseInt(args[2])
+        : Runtime.getRuntime().availableProcessors();
+    KlondikeSimulator simulator = new KlondikeSimulator(threads, MAX_MOVES);
+    long totalGames = 0;
+    long start = System.nanoTime();
+    for (GameType gameType : GameType.values()) {
+      for (int numPiles = 1; numPiles <= MAX_PILES; numPiles++) {
+        for (int numDraw = 1; numDraw <= MAX_DRAW; numDraw++) {
+          System.out.println(simulator.simulate(gameType, numPiles, numDraw, games, 0L, policy));
+          totalGames += games;
+        }
+      }
+    }
+    double seconds = (System.nanoTime() - start) / 1e9;
+    System.out.printf("%d games in %.1fs, %.0f games/s on %d threads%n", totalGames, seconds,
+        totalGames / seconds, threads);
+  }
+}
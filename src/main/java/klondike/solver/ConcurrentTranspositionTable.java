@@ -0,0 +1,64 @@
+package klondike.solver;
+
+/**
+ * Set of position hashes shared by the threads of the parallel solver.
+ * The hashes are split by their top bits into stripes, each a TranspositionTable behind its
+ * own lock, so threads adding different positions rarely wait on each other, and each stripe
+ * starts small and only grows as positions reach it.
+ * The positions the table may hold are shared evenly among the stripes. Once a stripe is
+ * full, every hash it does not hold is reported as reached before, so the search skips the
+ * position instead of losing track of the positions it has been through, and isFull tells
+ * the solver a position may have been skipped.
+ */
+final class ConcurrentTranspositionTable {
+  private static final int STRIPE_BITS = 8;
+  private static final int INITIAL = 64;
+  private static final int MAX_STRIPE = 1 << 28;
+
+  private final TranspositionTable[] stripes = new TranspositionTable[1 << STRIPE_BITS];
+  private final int stripeLimit;
+  private volatile boolean full;
+
+  /**
+   * Constructs an empty table.
+   *
+   * @param positions most positions the table holds, rounded down to a multiple of the
+   *                  number of stripes.
+   */
+  ConcurrentTranspositionTable(long positions) {
+    this.stripeLimit = (int) Math.min(positions / stripes.length, MAX_STRIPE);
+    for (int stripe = 0; stripe < stripes.length; stripe++) {
+      stripes[stripe] = new TranspositionTable(INITIAL);
+    }
+  }
+
+  /**
+   * Adds a position if no thread has added it yet.
+   *
+   * @param hash hash of the position.
+   * @return true if this call added the position, false if it had been reached before or
+   *         there is no room for it.
+   */
+  boolean add(long hash) {
+    TranspositionTable stripe = stripes[(int) (hash >>> (Long.SIZE - STRIPE_BITS))];
+    synchronized (stripe) {
+      if (stripe.size() < stripeLimit) {
+        return stripe.add(hash);
+      }
+      if (stripe.contains(hash)) {
+        return false;
+      }
+    }
+    full = true;
+    return false;
+  }
+
+  /**
+   * Says whether a new position was ever turned away for lack of room.
+   *
+   * @return true if the search may have skipped a position it had not reached.
+   */
+  boolean isFull() {
+    return full;
+  }
+}
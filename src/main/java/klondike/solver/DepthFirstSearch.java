@@ -0,0 +1,264 @@
+package klondike.solver;
+
+import java.util.Arrays;
+import java.util.function.LongPredicate;
+import klondike.model.hw04.AbstractKlondike;
+import klondike.model.hw04.Moves;
+
+/**
+ * Depth-first search from one klondike position, shared by the solvers.
+ * Walks the moves from the model's legalMoves and takes them back with undo, skipping every
+ * position the visited set has seen before. Subclasses decide when to stop early, and a
+ * search given a Splitter may hand untried moves to someone else instead of searching them
+ * here.
+ */
+class DepthFirstSearch {
+  static final int WIN = 0;
+  static final int EXHAUSTED = 1;
+  static final int STOPPED = 2;
+
+  /**
+   * Strategy for passing part of a search on to someone else.
+   */
+  interface Splitter {
+    /**
+     * Says whether to hand off part of the search, called at every new position.
+     *
+     * @param depth number of moves the search has made from its starting position.
+     * @return true to pass the untried moves nearest the start of the search to handOff.
+     */
+    boolean split(int depth);
+
+    /**
+     * Takes over the search of one position.
+     *
+     * @param child copy of the model in the position, already in the visited set.
+     * @param moves moves that lead from the solved position to it.
+     */
+    void handOff(AbstractKlondike child, int[] moves);
+  }
+
+  private final AbstractKlondike model;
+  private final int[] prefix;
+  private final LongPredicate visited;
+  private final Splitter splitter;
+  private int[][] moves;
+  private int[] counts;
+  private int[] next;
+  private int[] path;
+  private int[] longest;
+  private int depth;
+  private long nodes;
+
+  /**
+   * Constructor for a search from the model's current position that searches every move
+   * itself. The position itself must already be in the visited set.
+   *
+   * @param model   model in the position to search from, changed while searching.
+   * @param prefix  moves that led from the solved position to this one.
+   * @param visited set of position hashes, whose test adds a hash and says if it was new.
+   */
+  DepthFirstSearch(AbstractKlondike model, int[] prefix, LongPredicate visited) {
+    this(model, prefix, visited, null);
+  }
+
+  /**
+   * Constructor for a search from the model's current position that may hand off moves.
+   * The position itself must already be in the visited set.
+   *
+   * @param model    model in the position to search from, changed while searching.
+   * @param prefix   moves that led from the solved position to this one.
+   * @param visited  set of position hashes, whose test adds a hash and says if it was new.
+   * @param splitter when and to whom to hand off moves, or null to never split.
+   */
+  DepthFirstSearch(AbstractKlondike model, int[] prefix, LongPredicate visited,
+                   Splitter splitter) {
+    this.model = model;
+    this.prefix = prefix;
+    this.visited = visited;
+    this.splitter = splitter;
+    this.moves = new int[64][];
+    this.counts = new int[64];
+    this.next = new int[64];
+    this.path = new int[64];
+    this.longest = new int[model.getNumPiles()];
+  }
+
+  /**
+   * Searches until a win is found, every position is searched or stop says to give up.
+   *
+   * @return WIN, EXHAUSTED or STOPPED.
+   */
+  int run() {
+    depth = 0;
+    counts[0] = expand();
+    next[0] = 0;
+    while (true) {
+      if (counts[depth] == 0 && model.getNumRows() == 0) {
+        return WIN;
+      }
+      if (next[depth] == counts[depth]) {
+        if (depth == 0) {
+          return EXHAUSTED;
+        }
+        model.undo();
+        depth--;
+        continue;
+      }
+      int move = moves[depth][next[depth]++];
+      nodes++;
+      if (stop(nodes)) {
+        return STOPPED;
+      }
+      model.applyMove(move);
+      if (!visited.test(model.positionHash())) {
+        model.undo();
+        continue;
+      }
+      path[depth] = move;
+      depth++;
+      if (depth == counts.length) {
+        moves = Arrays.copyOf(moves, depth * 2);
+        counts = Arrays.copyOf(counts, depth * 2);
+        next = Arrays.copyOf(next, depth * 2);
+        path = Arrays.copyOf(path, depth * 2);
+      }
+      counts[depth] = expand();
+      next[depth] = 0;
+      if (splitter != null && splitter.split(depth)) {
+        handOffShallowest();
+      }
+    }
+  }
+
+  /**
+   * Says whether to give up, called before every move tried.
+   *
+   * @param nodes number of moves this search has tried so far.
+   * @return true to stop searching.
+   */
+  boolean stop(long nodes) {
+    return false;
+  }
+
+  /**
+   * Gives the moves from the solved position to the win, after run returned WIN.
+   *
+   * @return the winning moves.
+   */
+  int[] winningMoves() {
+    int[] all = Arrays.copyOf(prefix, prefix.length + depth);
+    System.arraycopy(path, 0, all, prefix.length, depth);
+    return all;
+  }
+
+  /**
+   * Gives the number of moves tried.
+   *
+   * @return the number of moves tried.
+   */
+  long nodes() {
+    return nodes;
+  }
+
+  /**
+   * Helper that gives the untried moves nearest the start of the search to the splitter.
+   * Those moves lead to the largest parts of the search still waiting here, so whoever
+   * takes them gets a big piece of work, while this search carries on down its own path.
+   * The model is stepped back to that position with undo to copy it, then redone.
+   */
+  private void handOffShallowest() {
+    int shallowest = 0;
+    while (shallowest < depth && next[shallowest] == counts[shallowest]) {
+      shallowest++;
+    }
+    if (shallowest == depth) {
+      return;
+    }
+    for (int step = depth; step > shallowest; step--) {
+      model.undo();
+    }
+    for (int index = next[shallowest]; index < counts[shallowest]; index++) {
+      int move = moves[shallowest][index];
+      AbstractKlondike child = model.copy();
+      child.applyMove(move);
+      if (visited.test(child.positionHash())) {
+        int[] childPath = Arrays.copyOf(prefix, prefix.length + shallowest + 1);
+        System.arraycopy(path, 0, childPath, prefix.length, shallowest);
+        childPath[prefix.length + shallowest] = move;
+        splitter.handOff(child, childPath);
+      }
+    }
+    next[shallowest] = counts[shallowest];
+    for (int step = shallowest; step < depth; step++) {
+      model.redo();
+    }
+  }
+
+  /**
+   * Helper that lists the moves worth trying at the current depth, best first.
+   * Moving a whole pile onto an empty pile only swaps two piles, so those moves are left out.
+   *
+   * @return the number of moves written to moves[depth].
+   */
+  private int expand() {
+    if (moves[depth] == null) {
+      moves[depth] = new int[256];
+    }
+    int count;
+    while (true) {
+      try {
+        count = model.legalMoves(moves[depth]);
+        break;
+      } catch (IllegalArgumentException e) {
+        moves[depth] = new int[moves[depth].length * 2];
+      }
+    }
+    int[] buffer = moves[depth];
+    Arrays.fill(longest, 0);
+    for (int index = 0; index < count; index++) {
+      if (Moves.kind(buffer[index]) == Moves.PILE_TO_PILE) {
+        int source = Moves.source(buffer[index]);
+        longest[source] = Math.max(longest[source], Moves.count(buffer[index]));
+      }
+    }
+    int kept = 0;
+    for (int rank = 0; rank < 4; rank++) {
+      for (int index = kept; index < count; index++) {
+        int move = buffer[index];
+        if (rank(move) == rank) {
+          buffer[index] = buffer[kept];
+          buffer[kept++] = move;
+        }
+      }
+    }
+    return kept;
+  }
+
+  /**
+   * Helper that sorts moves into the order they are tried in.
+   * Foundation moves come first, then draw card moves and pile moves that take the longest
+   * stack a pile can give, then the other pile moves, and discards last.
+   *
+   * @param move the encoded move.
+   * @return 0 to 3 for the order moves are tried in, or -1 for a move not worth trying.
+   */
+  private int rank(int move) {
+    switch (Moves.kind(move)) {
+      case Moves.PILE_TO_FOUNDATION:
+      case Moves.DRAW_TO_FOUNDATION:
+        return 0;
+      case Moves.DISCARD:
+        return 3;
+      case Moves.PILE_TO_PILE:
+        int source = Moves.source(move);
+        if (model.getPileHeight(Moves.destination(move)) == 0
+            && model.getPileHeight(source) == Moves.count(move)) {
+          return -1;
+        }
+        return Moves.count(move) == longest[source] ? 1 : 2;
+      default:
+        return 1;
+    }
+  }
+}
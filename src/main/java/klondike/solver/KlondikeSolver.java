@@ -0,0 +1,68 @@
+package klondike.solver;
+
+import klondike.model.hw04.AbstractKlondike;
+
+/**
+ * Depth-first solver for klondike positions.
+ * Works on a copy of the position, walking the moves from the model's legalMoves and taking
+ * them back with undo, so both rule sets are searched by the same code through the model's
+ * own validBuild and pile move hooks. Every position reached is put in a transposition table
+ * and never searched again, which also stops the search from going around in circles.
+ * If the search runs out of positions without a win the deal cannot be won; if the node or
+ * time budget runs out first the answer is unknown.
+ * Runs on the calling thread; ParallelKlondikeSolver splits the same search across threads.
+ */
+public final class KlondikeSolver {
+  private static final int CHECK_TIME_EVERY = 1024;
+
+  private final long maxNodes;
+  private final long maxMillis;
+
+  /**
+   * Constructor for a solver with a search budget.
+   *
+   * @param maxNodes  most positions to visit before giving up.
+   * @param maxMillis most milliseconds to search before giving up.
+   * @throws IllegalArgumentException if either budget is not positive.
+   */
+  public KlondikeSolver(long maxNodes, long maxMillis) {
+    if (maxNodes < 1 || maxMillis < 1) {
+      throw new IllegalArgumentException("Budget must be positive");
+    }
+    this.maxNodes = maxNodes;
+    this.maxMillis = maxMillis;
+  }
+
+  /**
+   * Searches for a way to win from a position. The position itself is not changed.
+   *
+   * @param position started game to solve.
+   * @return WIN with the winning moves, UNWINNABLE, or UNKNOWN if the budget ran out.
+   * @throws IllegalArgumentException if the position is null.
+   * @throws IllegalStateException    if the game hasn't started.
+   */
+  public SolverResult solve(AbstractKlondike position) {
+    if (position == null) {
+      throw new IllegalArgumentException("Position is null");
+    }
+    AbstractKlondike model = position.copy();
+    long deadline = System.nanoTime() + maxMillis * 1_000_000L;
+    TranspositionTable visited = new TranspositionTable((int) Math.min(maxNodes, 1 << 20));
+    visited.add(model.positionHash());
+    DepthFirstSearch search = new DepthFirstSearch(model, new int[0], visited::add) {
+      @Override
+      boolean stop(long nodes) {
+        return nodes > maxNodes
+            || nodes % CHECK_TIME_EVERY == 0 && System.nanoTime() - deadline > 0;
+      }
+    };
+    switch (search.run()) {
+      case DepthFirstSearch.WIN:
+        return new SolverResult(SolverResult.Outcome.WIN, search.winningMoves(), search.nodes());
+      case DepthFirstSearch.EXHAUSTED:
+        return new SolverResult(SolverResult.Outcome.UNWINNABLE, new int[0], search.nodes());
+      default:
+        return new SolverResult(SolverResult.Outcome.UNKNOWN, new int[0], search.nodes());
+    }
+  }
+}
@@ -0,0 +1,192 @@
+package klondike.solver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import klondike.model.hw04.AbstractKlondike;
+
+/**
+ * Depth-first solver that splits the search across the threads of a ForkJoinPool.
+ * Each task searches its own copy of the model with the same search as KlondikeSolver. When
+ * the pool runs short of queued work, a task hands its untried moves nearest the start of
+ * its search to new tasks that idle threads can steal. All tasks share one transposition
+ * table, so a position is searched by only one thread, and every task stops as soon as any
+ * of them finds a win. The table is split into stripes, each behind its own lock, so that a
+ * stripe can grow while the others stay in use; threads only wait on each other when they
+ * add positions to the same stripe at once. The table holds up to a number of positions,
+ * by default enough for twice the node budget, and a search that fills it reports UNKNOWN
+ * rather than UNWINNABLE.
+ */
+public final class ParallelKlondikeSolver {
+  private static final int REPORT_EVERY = 256;
+  private static final long SLACK = 1 << 14;
+
+  private final int parallelism;
+  private final long maxNodes;
+  private final long maxMillis;
+  private final long maxPositions;
+
+  /**
+   * Constructor for a solver with a number of threads and a search budget, whose table holds
+   * twice as many positions as the node budget, plus some room for hashes that don't spread
+   * evenly over the stripes.
+   *
+   * @param parallelism number of threads searching.
+   * @param maxNodes    most positions to visit, counted over all threads, before giving up.
+   * @param maxMillis   most milliseconds to search before giving up.
+   * @throws IllegalArgumentException if any argument is not positive.
+   */
+  public ParallelKlondikeSolver(int parallelism, long maxNodes, long maxMillis) {
+    this(parallelism, maxNodes, maxMillis, Math.min(maxNodes, Long.MAX_VALUE / 4) * 2 + SLACK);
+  }
+
+  /**
+   * Constructor for a solver with a number of threads, a search budget and a limit on the
+   * positions it remembers.
+   *
+   * @param parallelism  number of threads searching.
+   * @param maxNodes     most positions to visit, counted over all threads, before giving up.
+   * @param maxMillis    most milliseconds to search before giving up.
+   * @param maxPositions most positions the transposition table holds.
+   * @throws IllegalArgumentException if any argument is not positive.
+   */
+  public ParallelKlondikeSolver(int parallelism, long maxNodes, long maxMillis,
+                                long maxPositions) {
+    if (parallelism < 1 || maxNodes < 1 || maxMillis < 1 || maxPositions < 1) {
+      throw new IllegalArgumentException("Threads, budget and table size must be positive");
+    }
+    this.parallelism = parallelism;
+    this.maxNodes = maxNodes;
+    this.maxMillis = maxMillis;
+    this.maxPositions = maxPositions;
+  }
+
+  /**
+   * Searches for a way to win from a position. The position itself is not changed.
+   *
+   * @param position started game to solve.
+   * @return WIN with the winning moves, UNWINNABLE, or UNKNOWN if the budget ran out.
+   * @throws IllegalArgumentException if the position is null.
+   * @throws IllegalStateException    if the game hasn't started.
+   */
+  public SolverResult solve(AbstractKlondike position) {
+    if (position == null) {
+      throw new IllegalArgumentException("Position is null");
+    }
+    AbstractKlondike model = position.copy();
+    Search search = new Search();
+    search.visited.add(model.positionHash());
+    ForkJoinPool pool = new ForkJoinPool(parallelism);
+    try {
+      pool.invoke(new SearchTask(search, model, new int[0]));
+    } finally {
+      pool.shutdownNow();
+    }
+    long nodes = search.nodes.get();
+    int[] win = search.win.get();
+    if (win != null) {
+      return new SolverResult(SolverResult.Outcome.WIN, win, nodes);
+    }
+    if (search.outOfBudget || search.visited.isFull()) {
+      return new SolverResult(SolverResult.Outcome.UNKNOWN, new int[0], nodes);
+    }
+    return new SolverResult(SolverResult.Outcome.UNWINNABLE, new int[0], nodes);
+  }
+
+  /**
+   * State shared by every task of one solve.
+   */
+  private final class Search {
+    private final ConcurrentTranspositionTable visited =
+        new ConcurrentTranspositionTable(maxPositions);
+    private final AtomicLong nodes = new AtomicLong();
+    private final AtomicReference<int[]> win = new AtomicReference<>();
+    private final long deadline = System.nanoTime() + maxMillis * 1_000_000L;
+    private volatile boolean stopped;
+    private volatile boolean outOfBudget;
+
+    /**
+     * Adds a batch of visited positions to the total and says whether to stop.
+     *
+     * @param batch positions visited since the last report.
+     * @return true if every task should stop.
+     */
+    private boolean report(long batch) {
+      if (nodes.addAndGet(batch) > maxNodes || System.nanoTime() - deadline > 0) {
+        outOfBudget = true;
+        stopped = true;
+      }
+      return stopped;
+    }
+
+    /**
+     * Records a win and tells every task to stop. Only the first win is kept.
+     *
+     * @param moves winning moves from the solved position.
+     */
+    private void won(int[] moves) {
+      win.compareAndSet(null, moves);
+      stopped = true;
+    }
+  }
+
+  /**
+   * Task that searches from one position and forks tasks for positions it hands off.
+   * ForkJoinTask is Serializable, but the tasks only live inside one solve and are never
+   * serialized.
+   */
+  @SuppressWarnings("serial")
+  private static final class SearchTask extends RecursiveAction {
+    private final Search search;
+    private final AbstractKlondike model;
+    private final int[] prefix;
+
+    private SearchTask(Search search, AbstractKlondike model, int[] prefix) {
+      this.search = search;
+      this.model = model;
+      this.prefix = prefix;
+    }
+
+    @Override
+    protected void compute() {
+      if (search.stopped) {
+        return;
+      }
+      List<SearchTask> forked = new ArrayList<>();
+      DepthFirstSearch.Splitter splitter = new DepthFirstSearch.Splitter() {
+        @Override
+        public boolean split(int depth) {
+          return ForkJoinTask.getSurplusQueuedTaskCount() < 1;
+        }
+
+        @Override
+        public void handOff(AbstractKlondike child, int[] moves) {
+          SearchTask task = new SearchTask(search, child, moves);
+          task.fork();
+          forked.add(task);
+        }
+      };
+      DepthFirstSearch dfs = new DepthFirstSearch(model, prefix, search.visited::add,
+          splitter) {
+        @Override
+        boolean stop(long nodes) {
+          if (nodes % REPORT_EVERY == 0) {
+            return search.report(REPORT_EVERY);
+          }
+          return search.stopped;
+        }
+      };
+      if (dfs.run() == DepthFirstSearch.WIN) {
+        search.won(dfs.winningMoves());
+      }
+      search.nodes.addAndGet(dfs.nodes() % REPORT_EVERY);
+      for (SearchTask task : forked) {
+        task.join();
+      }
+    }
+  }
+}
@@ -0,0 +1,71 @@
+package klondike.solver;
+
+import java.util.Arrays;
+
+/**
+ * Result of solving a klondike position.
+ * A win comes with the moves that reach it, encoded as by klondike.model.hw04.Moves.
+ */
+public final class SolverResult {
+
+  /**
+   * What the solver found out about the position.
+   */
+  public enum Outcome {
+    WIN,
+    UNWINNABLE,
+    UNKNOWN,
+  }
+
+  private final Outcome outcome;
+  private final int[] moves;
+  private final long nodes;
+
+  /**
+   * Constructor for a result.
+   *
+   * @param outcome what the solver found out.
+   * @param moves   encoded moves that win the game, empty unless the outcome is WIN.
+   * @param nodes   number of positions the solver visited.
+   */
+  public SolverResult(Outcome outcome, int[] moves, long nodes) {
+    if (outcome == null || moves == null) {
+      throw new IllegalArgumentException("Outcome or moves is null");
+    }
+    this.outcome = outcome;
+    this.moves = Arrays.copyOf(moves, moves.length);
+    this.nodes = nodes;
+  }
+
+  /**
+   * Gives what the solver found out about the position.
+   *
+   * @return WIN, UNWINNABLE, or UNKNOWN if the budget ran out first.
+   */
+  public Outcome getOutcome() {
+    return outcome;
+  }
+
+  /**
+   * Gives the winning moves in the order they are made.
+   *
+   * @return a copy of the encoded moves, empty unless the outcome is WIN.
+   */
+  public int[] getMoves() {
+    return Arrays.copyOf(moves, moves.length);
+  }
+
+  /**
+   * Gives the number of positions the solver visited.
+   *
+   * @return the number of positions visited.
+   */
+  public long getNodes() {
+    return nodes;
+  }
+
+  @Override
+  public String toString() {
+    return outcome + " after " + nodes + " positions";
+  }
+}
@@ -0,0 +1,54 @@
+package klondike.solver;
+
+import klondike.model.hw04.AbstractKlondike;
+import klondike.model.hw04.WhiteheadKlondike;
+
+/**
+ * Prints how much faster the parallel solver is than the single threaded one.
+ * Both solve the same fixed corpus of seeded Whitehead deals, picked because each needs tens
+ * of thousands to millions of positions, so the time spent splitting the search is small
+ * next to the search itself.
+ */
+public final class SolverSpeedupReport {
+  private static final long[] SEEDS = {17, 22, 23, 29, 35, 52, 99, 110, 179};
+  private static final long MAX_NODES = 20_000_000;
+  private static final long MAX_MILLIS = 120_000;
+
+  private SolverSpeedupReport() {
+  }
+
+  /**
+   * Runs the report.
+   *
+   * @param args optional number of threads, defaulting to the number of processors.
+   */
+  public static void main(String[] args) {
+    int threads = args.length > 0 ? Integer.parseInt(args[0])
+        : Runtime.getRuntime().availableProcessors();
+    KlondikeSolver single = new KlondikeSolver(MAX_NODES, MAX_MILLIS);
+    ParallelKlondikeSolver parallel = new ParallelKlondikeSolver(threads, MAX_NODES, MAX_MILLIS);
+    System.out.printf("%6s %12s %10s %12s %10s %8s%n",
+        "seed", "outcome", "1 thread", "outcome", threads + " threads", "speedup");
+    long singleTotal = 0;
+    long parallelTotal = 0;
+    for (long seed : SEEDS) {
+      AbstractKlondike deal = new WhiteheadKlondike();
+      deal.startGame(deal.createNewDeck(), seed, 7, 3);
+      long start = System.nanoTime();
+      SolverResult singleResult = single.solve(deal);
+      long singleTime = System.nanoTime() - start;
+      start = System.nanoTime();
+      SolverResult parallelResult = parallel.solve(deal);
+      long parallelTime = System.nanoTime() - start;
+      singleTotal += singleTime;
+      parallelTotal += parallelTime;
+      System.out.printf("%6d %12s %8dms %12s %8dms %7.2fx%n", seed,
+          singleResult.getOutcome(), singleTime / 1_000_000,
+          parallelResult.getOutcome(), parallelTime / 1_000_000,
+          (double) singleTime / parallelTime);
+    }
+    System.out.printf("%6s %12s %8dms %12s %8dms %7.2fx%n", "total", "",
+        singleTotal / 1_000_000, "", parallelTotal / 1_000_000,
+        (double) singleTotal / parallelTotal);
+  }
+}
@@ -0,0 +1,96 @@
+package klondike.solver;
+
+import java.util.Arrays;
+
+/**
+ * Set of position hashes the solver has already reached.
+ * Open addressing over a long array, doubled whenever it becomes half full.
+ * The hash 0 is stored as 1, since 0 marks an empty slot.
+ */
+final class TranspositionTable {
+  private long[] slots;
+  private int size;
+
+  /**
+   * Constructs an empty table.
+   *
+   * @param capacity number of positions expected, rounded up to a power of two.
+   */
+  TranspositionTable(int capacity) {
+    this.slots = new long[Integer.highestOneBit(Math.max(capacity, 8) - 1) << 1];
+    this.size = 0;
+  }
+
+  /**
+   * Adds a position if it is not in the table yet.
+   *
+   * @param hash hash of the position.
+   * @return true if the position was new, false if it had been reached before.
+   */
+  boolean add(long hash) {
+    long key = hash == 0 ? 1 : hash;
+    if (!insert(slots, key)) {
+      return false;
+    }
+    size++;
+    if (size * 2 > slots.length) {
+      long[] bigger = new long[slots.length * 2];
+      for (long old : slots) {
+        if (old != 0) {
+          insert(bigger, old);
+        }
+      }
+      slots = bigger;
+    }
+    return true;
+  }
+
+  /**
+   * Says whether a position is in the table, without adding it.
+   *
+   * @param hash hash of the position.
+   * @return true if the position has been reached before.
+   */
+  boolean contains(long hash) {
+    long key = hash == 0 ? 1 : hash;
+    int mask = slots.length - 1;
+    int index = (int) (key ^ (key >>> 32)) & mask;
+    while (slots[index] != 0) {
+      if (slots[index] == key) {
+        return true;
+      }
+      index = (index + 1) & mask;
+    }
+    return false;
+  }
+
+  /**
+   * Forgets every position.
+   */
+  void clear() {
+    Arrays.fill(slots, 0);
+    size = 0;
+  }
+
+  /**
+   * Gives the number of positions in the table.
+   *
+   * @return the number of positions.
+   */
+  int size() {
+    return size;
+  }
+
+  private static boolean insert(long[] table, long key) {
+    int mask = table.length - 1;
+    int index = (int) (key ^ (key >>> 32)) & mask;
+    while (table[index] != 0) {
+      if (table[index] == key) {
+        return false;
+      }
+      index = (index + 1) & mask;
+    }
+    table[index] = key;
+    return true;
+  }
+}
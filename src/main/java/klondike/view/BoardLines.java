@@ -0,0 +1,56 @@
+package klondike.view;
+
+import klondike.model.hw04.BoardSnapshot;
+import klondike.model.hw04.ValueCard;
+
+/**
+ * Lays out a board snapshot as the lines of text the views print.
+ * The first line holds the draw cards, the second the foundations and the rest one row of
+ * the piles each, in the format of KlondikeTextualView. Cards are drawn from their
+ * preformatted glyphs.
+ */
+final class BoardLines {
+  private BoardLines() {
+  }
+
+  /**
+   * Gives the lines of a board, without line breaks.
+   *
+   * @param snapshot snapshot of the board.
+   * @return the lines, top to bottom.
+   */
+  static String[] of(BoardSnapshot snapshot) {
+    String[] lines = new String[snapshot.getNumRows() + 2];
+    StringBuilder sb = new StringBuilder("Draw:");
+    for (int index = 0; index < snapshot.getNumDrawCards(); index++) {
+      sb.append(index == 0 ? " " : ", ").append(snapshot.getDrawCard(index));
+    }
+    lines[0] = sb.toString();
+    sb.setLength(0);
+    sb.append("Foundation: ");
+    for (int foundation = 0; foundation < snapshot.getNumFoundations(); foundation++) {
+      ValueCard card = snapshot.getFoundationTop(foundation);
+      sb.append(foundation == 0 ? "" : ", ").append(card == null ? "<none>" : card);
+    }
+    lines[1] = sb.toString();
+    for (int rows = 0; rows < snapshot.getNumRows(); rows++) {
+      sb.setLength(0);
+      for (int pile = 0; pile < snapshot.getNumPiles(); pile++) {
+        int height = snapshot.getPileHeight(pile);
+        if (rows < height) {
+          if (rows < snapshot.getHiddenCount(pile)) {
+            sb.append("  ?");
+          } else {
+            sb.append(snapshot.getCardAt(pile, rows).glyph());
+          }
+        } else if (height == 0 && rows == 0) {
+          sb.append("  X");
+        } else {
+          sb.append("   ");
+        }
+      }
+      lines[rows + 2] = sb.toString();
+    }
+    return lines;
+  }
+}
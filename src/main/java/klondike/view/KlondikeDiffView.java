@@ -0,0 +1,86 @@
+package klondike.view;
+
+import java.io.IOException;
+import klondike.model.hw04.KlondikeModel;
+
+/**
+ * Text view for terminals that redraws only the lines of the board that changed.
+ * The board is drawn in the same format as KlondikeTextualView, at the top of the screen.
+ * The view remembers the last frame it drew, and each later render moves the cursor with
+ * ANSI escape codes to the lines that differ and rewrites just those. Afterwards the cursor
+ * is left under the board with the rest of the screen cleared, so text printed between
+ * renders, such as the score, is shown below the board and replaced by the next frame.
+ */
+public class KlondikeDiffView implements TextualView {
+  private static final String ESCAPE = "\u001b[";
+
+  private final KlondikeModel<?> model;
+  private final Appendable ap;
+  private String[] frame;
+
+  /**
+   * Constructor that instantiates the fields.
+   *
+   * @param model the game model, which must support snapshots.
+   * @param ap    the appendable object the escape codes and lines are written to.
+   * @throws IllegalArgumentException if either argument is null.
+   */
+  public KlondikeDiffView(KlondikeModel<?> model, Appendable ap) {
+    if (model == null || ap == null) {
+      throw new IllegalArgumentException("Model or appendable is null");
+    }
+    this.model = model;
+    this.ap = ap;
+    this.frame = null;
+  }
+
+  /**
+   * Makes the next render clear the screen and draw the whole board, for a terminal that
+   * was just attached or whose screen was changed by something else.
+   */
+  public void redrawAll() {
+    frame = null;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder();
+    for (String line : BoardLines.of(model.snapshot())) {
+      sb.append(line).append("\n");
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Draws the lines of the board that changed since the last render.
+   *
+   * @throws IOException if writing to the appendable fails.
+   */
+  @Override
+  public void render() throws IOException {
+    String[] lines = BoardLines.of(model.snapshot());
+    if (frame == null) {
+      ap.append(ESCAPE).append("H").append(ESCAPE).append("2J");
+      frame = new String[0];
+    }
+    for (int line = 0; line < lines.length; line++) {
+      if (line >= frame.length || !lines[line].equals(frame[line])) {
+        moveTo(line);
+        ap.append(lines[line]).append(ESCAPE).append("K");
+      }
+    }
+    moveTo(lines.length);
+    ap.append(ESCAPE).append("J");
+    frame = lines;
+  }
+
+  /**
+   * Helper that moves the cursor to the start of a line of the screen.
+   *
+   * @param line 0-based line number.
+   * @throws IOException if writing to the appendable fails.
+   */
+  private void moveTo(int line) throws IOException {
+    ap.append(ESCAPE).append(String.valueOf(line + 1)).append(";1H");
+  }
+}
@@ -5,6 +5,7 @@ import java.util.ArrayList;
 import java.util.List;
 import klondike.model.hw02.Card;
 import klondike.model.hw02.KlondikeModel;
+import klondike.model.hw04.BoardSnapshot;
 
 /**
  * Class that provides a model of the game in a string format.
@@ -43,6 +44,10 @@ public class KlondikeTextualView implements TextualView {
   @Override
   public String toString() {
     StringBuilder sb = new StringBuilder();
+    if (model instanceof klondike.model.hw04.KlondikeModel) {
+      drawSnapshot(sb, ((klondike.model.hw04.KlondikeModel<?>) model).snapshot());
+      return sb.toString();
+    }
     getDrawCards(sb);
     getFoundations(sb);
     getPiles(sb);
@@ -103,12 +108,12 @@ public class KlondikeTextualView implements TextualView {
    */
   private void getPiles(StringBuilder sb) {
     int numRows = model.getNumRows();
-    int numPiles = model.getNumPiles();
+    int[] heights = model.getPileHeights();
     for (int rows = 0; rows < numRows; rows++) {
       List<String> pilesList = new ArrayList<>();
-      for (int pile = 0; pile < numPiles; pile++) {
+      for (int pile = 0; pile < heights.length; pile++) {
         String str;
-        if (rows < model.getPileHeight(pile)) {
+        if (rows < heights[pile]) {
           if (model.isCardVisible(pile, rows)) {
             Card card = model.getCardAt(pile, rows);
             str = (card != null) ? String.format("%3s", card.toString()) : "   ";
@@ -116,7 +121,7 @@ public class KlondikeTextualView implements TextualView {
           } else {
             str = "  ?";
           }
-        } else if (model.getPileHeight(pile) == 0 && rows == 0) {
+        } else if (heights[pile] == 0 && rows == 0) {
           str = "  X";
         } else {
           str = "   ";
@@ -129,6 +134,20 @@ public class KlondikeTextualView implements TextualView {
     }
   }
 
+  /**
+   * Adds the whole board to the string builder from one snapshot of the model, in the same
+   * format as the methods above, without asking the model for each card.
+   * Modifies the string builder parameter.
+   *
+   * @param sb       stringBuilder that will be modified.
+   * @param snapshot snapshot of the board.
+   */
+  private void drawSnapshot(StringBuilder sb, BoardSnapshot snapshot) {
+    for (String line : BoardLines.of(snapshot)) {
+      sb.append(line).append("\n");
+    }
+  }
+
   /**
    * Renders a model in some manner (e.g. as text, or as graphics, etc.).
    *
@@ -0,0 +1,179 @@
+package klondike;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import klondike.model.hw02.PossibleRank;
+import klondike.model.hw02.PossibleSuits;
+import klondike.model.hw04.KlondikeCreator;
+import klondike.model.hw04.KlondikeModel;
+import klondike.model.hw04.ValueCard;
+import klondike.view.KlondikeTextualView;
+import org.junit.Test;
+
+/**
+ * Class to test the compact model by playing it side by side with the list based models.
+ * Both models are given the same deal and the same random commands and must agree on
+ * every exception, every rendered board, the score and when the game ends.
+ */
+public class CompactKlondikeTests {
+
+  /**
+   * Plays the same random commands against a list based model and a compact model.
+   *
+   * @param gameType which rules both models play by.
+   * @param seed     seed for the deal and the commands.
+   * @param numPiles number of piles dealt.
+   * @param numDraw  number of draw cards.
+   */
+  private void playSideBySide(KlondikeCreator.GameType gameType, long seed,
+                              int numPiles, int numDraw) {
+    KlondikeModel<ValueCard> expected = KlondikeCreator.create(gameType);
+    KlondikeModel<ValueCard> actual = KlondikeCreator.createCompact(gameType);
+    Random random = new Random(seed);
+    List<ValueCard> deck = expected.createNewDeck();
+    Collections.shuffle(deck, random);
+    expected.startGame(deck, false, numPiles, numDraw);
+    actual.startGame(deck, false, numPiles, numDraw);
+    KlondikeTextualView expectedView = new KlondikeTextualView(expected);
+    KlondikeTextualView actualView = new KlondikeTextualView(actual);
+    for (int turn = 0; turn < 400; turn++) {
+      int command = random.nextInt(5);
+      int first = random.nextInt(numPiles + 1) - 1;
+      int second = random.nextInt(numPiles + 1);
+      int third = random.nextInt(numPiles + 1) - 1;
+      assertEquals(apply(expected, command, first, second, third),
+          apply(actual, command, first, second, third));
+      assertEquals(expectedView.toString(), actualView.toString());
+      assertEquals(expected.getScore(), actual.getScore());
+      assertEquals(expected.isGameOver(), actual.isGameOver());
+      assertArrayEquals(expected.getPileHeights(), actual.getPileHeights());
+      assertEquals(tallestPile(expected), expected.getNumRows());
+      assertEquals(tallestPile(expected), actual.getNumRows());
+    }
+  }
+
+  /**
+   * Finds the tallest pile by asking for each pile's height.
+   *
+   * @param model started model.
+   * @return the height of the tallest pile.
+   */
+  private int tallestPile(KlondikeModel<ValueCard> model) {
+    int tallest = 0;
+    for (int pile = 0; pile < model.getNumPiles(); pile++) {
+      tallest = Math.max(tallest, model.getPileHeight(pile));
+    }
+    return tallest;
+  }
+
+  /**
+   * Applies one command to a model and reports which exception it threw, if any.
+   *
+   * @param model   model the command is given to.
+   * @param command which of the five moves to make.
+   * @param first   first pile argument.
+   * @param second  card count or foundation argument.
+   * @param third   destination pile argument.
+   * @return the exception class thrown, or null if the command was accepted.
+   */
+  private Class<?> apply(KlondikeModel<ValueCard> model, int command,
+                         int first, int second, int third) {
+    try {
+      switch (command) {
+        case 0:
+          model.movePile(first, second, third);
+          break;
+        case 1:
+          model.moveDraw(third);
+          break;
+        case 2:
+          model.moveToFoundation(first, second % 5);
+          break;
+        case 3:
+          model.moveDrawToFoundation(second % 5);
+          break;
+        default:
+          model.discardDraw();
+          break;
+      }
+      return null;
+    } catch (IllegalArgumentException | IllegalStateException e) {
+      return e.getClass();
+    }
+  }
+
+  @Test
+  public void testCompactMatchesBasic() {
+    for (long seed = 0; seed < 25; seed++) {
+      playSideBySide(KlondikeCreator.GameType.BASIC, seed, 7, 3);
+      playSideBySide(KlondikeCreator.GameType.BASIC, seed, 4, 1);
+    }
+  }
+
+  @Test
+  public void testCompactMatchesWhitehead() {
+    for (long seed = 0; seed < 25; seed++) {
+      playSideBySide(KlondikeCreator.GameType.WHITEHEAD, seed, 7, 3);
+      playSideBySide(KlondikeCreator.GameType.WHITEHEAD, seed, 5, 2);
+    }
+  }
+
+  @Test
+  public void testSeededDealIsReproducible() {
+    KlondikeModel<ValueCard> first = KlondikeCreator.create(KlondikeCreator.GameType.WHITEHEAD);
+    KlondikeModel<ValueCard> second =
+        KlondikeCreator.createCompact(KlondikeCreator.GameType.WHITEHEAD);
+    first.startGame(first.createNewDeck(), 42L, 3, 2);
+    second.startGame(second.createNewDeck(), 42L, 3, 2);
+    String board = "Draw: J♠, Q♡\n"
+        + "Foundation: <none>, <none>, <none>, <none>\n"
+        + " 8♡ K♢ 3♡\n"
+        + "    7♠10♠\n"
+        + "       8♠\n";
+    assertEquals(board, new KlondikeTextualView(first).toString());
+    assertEquals(board, new KlondikeTextualView(second).toString());
+  }
+
+  @Test
+  public void testCompactEmptyFoundation() {
+    KlondikeModel<ValueCard> model =
+        KlondikeCreator.createCompact(KlondikeCreator.GameType.WHITEHEAD);
+    model.startGame(model.createNewDeck(), false, 7, 1);
+    assertEquals(4, model.getNumFoundations());
+    assertNull(model.getCardAt(0));
+  }
+
+  @Test
+  public void testDoubleDeckHasEightFoundations() {
+    KlondikeModel<ValueCard> basic = KlondikeCreator.create(KlondikeCreator.GameType.BASIC);
+    KlondikeModel<ValueCard> compact =
+        KlondikeCreator.createCompact(KlondikeCreator.GameType.BASIC);
+    List<ValueCard> deck = new ArrayList<>(basic.createNewDeck());
+    deck.addAll(basic.createNewDeck());
+    basic.startGame(deck, 5L, 13, 3);
+    compact.startGame(deck, 5L, 13, 3);
+    assertEquals(8, basic.getNumFoundations());
+    assertEquals(8, compact.getNumFoundations());
+    assertEquals(new KlondikeTextualView(basic).toString(),
+        new KlondikeTextualView(compact).toString());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testUnevenCopiesRejected() {
+    KlondikeModel<ValueCard> model = KlondikeCreator.create(KlondikeCreator.GameType.BASIC);
+    List<ValueCard> deck = new ArrayList<>(model.createNewDeck());
+    deck.add(ValueCard.of(PossibleSuits.Clover, PossibleRank.Ace));
+    model.startGame(deck, false, 7, 1);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testCompactNotStarted() {
+    KlondikeCreator.createCompact(KlondikeCreator.GameType.BASIC).getNumRows();
+  }
+}
@@ -1,7 +1,9 @@
 package klondike;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.io.StringReader;
 import java.util.ArrayList;
@@ -246,6 +248,21 @@ public class KlondikeControllerTest {
     controller.playGame(mock, mock.createNewDeck(), false, 7, 1);
   }
 
+  @Test
+  public void testNoMoreInputMidMoveOnTryModel() {
+    for (String commands : new String[] {"mpp 1 2", "mpf 1", "md", "mdf"}) {
+      BasicKlondike game = new BasicKlondike();
+      StringBuilder out = new StringBuilder();
+      try {
+        new KlondikeTextualController(new StringReader(commands), out)
+            .playGame(game, game.createNewDeck(), false, 7, 1);
+        fail("ran out of input in " + commands);
+      } catch (IllegalStateException e) {
+        assertTrue(commands, out.toString().endsWith("Invalid move. Play again.\n"));
+      }
+    }
+  }
+
   @Test
   public void testNoMoreInputSkips() {
     FirstMock mock = new FirstMock();
@@ -272,6 +289,62 @@ public class KlondikeControllerTest {
   }
 
 
+  @Test
+  public void testUndoRedoCommands() {
+    StringReader reader = new StringReader("dd u r u q");
+    KlondikeController controller = new KlondikeTextualController(reader, output);
+    controller.playGame(model, model.createNewDeck(), false, 7, 1);
+    assertFalse("undo and redo are valid", output.toString().contains("Invalid move."));
+    assertEquals("8♣", model.getDrawCards().get(0).toString());
+  }
+
+  @Test
+  public void testUndoWithNothingToUndo() {
+    StringReader reader = new StringReader("u r q");
+    KlondikeController controller = new KlondikeTextualController(reader, output);
+    controller.playGame(model, model.createNewDeck(), false, 7, 1);
+    assertTrue("nothing to undo", output.toString().contains("Invalid move. Play again."));
+  }
+
+  @Test
+  public void testUndoOnModelWithoutUndo() {
+    FirstMock mock = new FirstMock();
+    StringReader reader = new StringReader("u q");
+    KlondikeController controller = new KlondikeTextualController(reader, output);
+    controller.playGame(mock, mock.createNewDeck(), false, 7, 1);
+    assertTrue("mock cannot undo", output.toString().contains("Invalid move. Play again."));
+  }
+
+  @Test
+  public void testCommandsReadOneCharAtATime() {
+    String commands = "DD xyz\tMpF  1\n1 99999999999 u\r\nr q";
+    new KlondikeTextualController(new StringReader(commands), output)
+        .playGame(model, model.createNewDeck(), false, 7, 1);
+    StringBuilder trickled = new StringBuilder();
+    BasicKlondike other = new BasicKlondike();
+    StringReader slow = new StringReader(commands);
+    Readable oneChar = buffer -> {
+      int next = slow.read();
+      if (next < 0) {
+        return -1;
+      }
+      buffer.put((char) next);
+      return 1;
+    };
+    new KlondikeTextualController(oneChar, trickled)
+        .playGame(other, other.createNewDeck(), false, 7, 1);
+    assertEquals(output.toString(), trickled.toString());
+    assertTrue("Game quit!", output.toString().contains("Game quit!"));
+  }
+
+  @Test
+  public void testWhitespaceAfterInvalidCommandQuits() {
+    StringReader reader = new StringReader("xyz \n");
+    KlondikeController controller = new KlondikeTextualController(reader, output);
+    controller.playGame(model, model.createNewDeck(), false, 7, 1);
+    assertTrue("Game quit!", output.toString().contains("Game quit!"));
+  }
+
   @Test
   public void testWithBasicModel() {
     StringReader reader = new StringReader("dd q");
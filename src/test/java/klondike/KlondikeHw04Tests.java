@@ -1,11 +1,36 @@
 package klondike;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import klondike.model.hw02.PossibleRank;
+import klondike.model.hw02.PossibleSuits;
+import klondike.model.hw04.AbstractKlondike;
+import klondike.model.hw04.BasicKlondike;
+import klondike.model.hw04.BoardSnapshot;
+import klondike.model.hw04.GameStateCodec;
+import klondike.model.hw04.MoveStatus;
+import klondike.model.hw04.Moves;
+import klondike.model.hw04.ReplayGame;
+import klondike.model.hw04.ReplayReader;
+import klondike.model.hw04.ReplayWriter;
 import klondike.model.hw04.ValueCard;
 import klondike.model.hw04.WhiteheadKlondike;
+import klondike.view.KlondikeTextualView;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -142,4 +167,524 @@ public class KlondikeHw04Tests {
     klondike.moveDraw(1);
   }
 
+  @Test
+  public void testTrackedGameOverMatchesScan() {
+    for (int seed = 0; seed < 50; seed++) {
+      playWithDebugTracking(new WhiteheadKlondike(), seed);
+      playWithDebugTracking(new BasicKlondike(), seed);
+    }
+  }
+
+  @Test
+  public void testUndoRedoRetracesGame() {
+    for (int seed = 0; seed < 20; seed++) {
+      retraceWithUndo(new WhiteheadKlondike(), seed);
+      retraceWithUndo(new BasicKlondike(), seed);
+    }
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testUndoAtStart() {
+    klondike.startGame(valueCards, false, 7, 1);
+    klondike.undo();
+  }
+
+  @Test
+  public void testNewMoveDropsRedo() {
+    klondike.startGame(valueCards, false, 7, 1);
+    klondike.discardDraw();
+    klondike.undo();
+    assertTrue(klondike.canRedo());
+    klondike.discardDraw();
+    assertFalse(klondike.canRedo());
+  }
+
+  @Test
+  public void testNewDecksShareCards() {
+    List<ValueCard> first = new WhiteheadKlondike().createNewDeck();
+    List<ValueCard> second = new BasicKlondike().createNewDeck();
+    for (int card = 0; card < first.size(); card++) {
+      assertSame(first.get(card), second.get(card));
+    }
+    ValueCard made = new ValueCard(PossibleSuits.Heart, PossibleRank.Queen);
+    ValueCard shared = ValueCard.of(PossibleSuits.Heart, PossibleRank.Queen);
+    assertSame(shared, second.get(first.indexOf(made)));
+    assertEquals(made, shared);
+    assertEquals(made.hashCode(), shared.hashCode());
+    assertNotEquals(made, ValueCard.of(PossibleSuits.Diamond, PossibleRank.Queen));
+  }
+
+  @Test
+  public void testLegalMovesMatchAcceptedCommands() {
+    for (int seed = 0; seed < 20; seed++) {
+      compareLegalMoves(new WhiteheadKlondike(), seed);
+      compareLegalMoves(new BasicKlondike(), seed);
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testLegalMovesBufferTooSmall() {
+    klondike.startGame(valueCards, false, 7, 1);
+    klondike.legalMoves(new int[1]);
+  }
+
+  @Test
+  public void testIncrementalHashMatchesRecomputed() {
+    for (int seed = 0; seed < 20; seed++) {
+      AbstractKlondike model = seed % 2 == 0 ? new WhiteheadKlondike() : new BasicKlondike();
+      model.startGame(model.createNewDeck(), (long) seed, 7, 1 + seed % 3);
+      Random random = new Random(seed);
+      for (int turn = 0; turn < 500; turn++) {
+        int roll = random.nextInt(10);
+        if (roll == 0 && model.canUndo()) {
+          model.undo();
+        } else if (roll == 1 && model.canRedo()) {
+          model.redo();
+        } else {
+          playRandomMove(model, random);
+        }
+        assertEquals(model.computePositionHash(), model.positionHash());
+      }
+    }
+  }
+
+  @Test
+  public void testHashSeesDiscardOrder() {
+    klondike.startGame(valueCards, false, 7, 1);
+    long dealt = klondike.positionHash();
+    klondike.discardDraw();
+    assertTrue(dealt != klondike.positionHash());
+    klondike.undo();
+    assertEquals(dealt, klondike.positionHash());
+  }
+
+  @Test
+  public void testTryMovesReportStatus() {
+    assertEquals(MoveStatus.NOT_STARTED, klondike.tryDiscardDraw());
+    klondike.startGame(valueCards, false, 7, 1);
+    assertEquals(MoveStatus.INVALID_ARGUMENT, klondike.tryMovePile(0, 1, 0));
+    assertEquals(MoveStatus.INVALID_ARGUMENT, klondike.tryMovePile(0, 2, 1));
+    assertEquals(MoveStatus.INVALID_ARGUMENT, klondike.tryMoveToFoundation(0, 4));
+    assertEquals(MoveStatus.ILLEGAL_MOVE, klondike.tryMoveDrawToFoundation(0));
+    assertEquals(MoveStatus.OK, klondike.tryMoveToFoundation(0, 0));
+    assertEquals(MoveStatus.NO_CARDS, klondike.tryMoveToFoundation(0, 1));
+    assertEquals(1, klondike.getScore());
+  }
+
+  @Test
+  public void testFoundationTopFollowsUndo() {
+    klondike.startGame(valueCards, false, 7, 1);
+    klondike.moveToFoundation(0, 2);
+    assertEquals(1, klondike.getScore());
+    assertEquals(ValueCard.of(PossibleSuits.Clover, PossibleRank.Ace), klondike.getCardAt(2));
+    klondike.undo();
+    assertEquals(0, klondike.getScore());
+    assertEquals(null, klondike.getCardAt(2));
+    klondike.redo();
+    assertEquals(1, klondike.getScore());
+    assertEquals("A♣", klondike.getCardAt(2).toString());
+  }
+
+  @Test
+  public void testGeneratedPileMovesAreSameSuitRuns() {
+    klondike.startGame(valueCards, 4L, 7, 3);
+    Random random = new Random(4);
+    int[] buffer = new int[512];
+    for (int turn = 0; turn < 300; turn++) {
+      int count = klondike.legalMoves(buffer);
+      for (int index = 0; index < count; index++) {
+        int move = buffer[index];
+        if (Moves.kind(move) == Moves.PILE_TO_PILE) {
+          int src = Moves.source(move);
+          int height = klondike.getPileHeight(src);
+          char suit = suitOf(klondike.getCardAt(src, height - Moves.count(move)));
+          for (int card = height - Moves.count(move); card < height; card++) {
+            assertEquals(suit, suitOf(klondike.getCardAt(src, card)));
+          }
+        }
+      }
+      if (count == 0) {
+        return;
+      }
+      if (klondike.canUndo() && random.nextInt(4) == 0) {
+        klondike.undo();
+      } else {
+        klondike.applyMove(buffer[random.nextInt(count)]);
+      }
+    }
+  }
+
+  @Test
+  public void testSnapshotMatchesModelAndStaysFixed() {
+    klondike.startGame(valueCards, false, 7, 3);
+    klondike.moveToFoundation(0, 0);
+    BoardSnapshot snapshot = klondike.snapshot();
+    assertEquals(klondike.getNumRows(), snapshot.getNumRows());
+    assertEquals(klondike.getScore(), snapshot.getScore());
+    for (int pile = 0; pile < klondike.getNumPiles(); pile++) {
+      assertEquals(klondike.getPileHeight(pile), snapshot.getPileHeight(pile));
+      for (int card = 0; card < klondike.getPileHeight(pile); card++) {
+        assertEquals(klondike.getCardAt(pile, card), snapshot.getCardAt(pile, card));
+      }
+    }
+    for (int foundation = 0; foundation < klondike.getNumFoundations(); foundation++) {
+      assertEquals(klondike.getCardAt(foundation), snapshot.getFoundationTop(foundation));
+    }
+    assertEquals(klondike.getDrawCards().get(0), snapshot.getDrawCard(0));
+    String board = new KlondikeTextualView(klondike).toString();
+    klondike.discardDraw();
+    assertNotEquals(klondike.getDrawCards().get(0), snapshot.getDrawCard(0));
+    assertEquals(3, snapshot.getNumDrawCards());
+    klondike.undo();
+    assertEquals(board, new KlondikeTextualView(klondike).toString());
+  }
+
+  @Test
+  public void testBasicSnapshotHidesCards() {
+    BasicKlondike basic = new BasicKlondike();
+    basic.startGame(basic.createNewDeck(), false, 7, 3);
+    BoardSnapshot snapshot = basic.snapshot();
+    assertEquals(6, snapshot.getHiddenCount(6));
+    assertFalse(snapshot.isCardVisible(6, 5));
+    assertTrue(snapshot.isCardVisible(6, 6));
+    assertEquals(basic.getCardAt(6, 6), snapshot.getCardAt(6, 6));
+  }
+
+  @Test
+  public void testCodecRoundTripKeepsPositionAndJournal() {
+    for (int seed = 0; seed < 10; seed++) {
+      AbstractKlondike model = seed % 2 == 0 ? new WhiteheadKlondike() : new BasicKlondike();
+      model.startGame(model.createNewDeck(), (long) seed, 7, 1 + seed % 3);
+      assertTrue(GameStateCodec.encode(model).length < 100);
+      Random random = new Random(seed);
+      for (int turn = 0; turn < 60; turn++) {
+        playRandomMove(model, random);
+      }
+      if (model.canUndo()) {
+        model.undo();
+      }
+      AbstractKlondike copy = GameStateCodec.decode(GameStateCodec.encode(model));
+      assertEquals(new KlondikeTextualView(model).toString(),
+          new KlondikeTextualView(copy).toString());
+      assertEquals(model.positionHash(), copy.positionHash());
+      assertEquals(model.getScore(), copy.getScore());
+      assertEquals(model.canRedo(), copy.canRedo());
+      while (model.canUndo()) {
+        model.undo();
+        copy.undo();
+        assertEquals(model.positionHash(), copy.positionHash());
+      }
+      assertFalse(copy.canUndo());
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testCodecRejectsCutShortGame() {
+    klondike.startGame(valueCards, false, 7, 3);
+    byte[] bytes = GameStateCodec.encode(klondike);
+    GameStateCodec.decode(Arrays.copyOf(bytes, bytes.length - 1));
+  }
+
+  @Test
+  public void testCodecWritesGamesOneAfterAnother() {
+    klondike.startGame(valueCards, false, 7, 3);
+    BasicKlondike basic = new BasicKlondike();
+    basic.startGame(basic.createNewDeck(), 4L, 7, 1);
+    ByteBuffer buffer =
+        ByteBuffer.allocate(GameStateCodec.sizeOf(klondike) + GameStateCodec.sizeOf(basic));
+    GameStateCodec.encode(klondike, buffer);
+    GameStateCodec.encode(basic, buffer);
+    assertFalse(buffer.hasRemaining());
+    buffer.flip();
+    assertTrue(GameStateCodec.decode(buffer) instanceof WhiteheadKlondike);
+    AbstractKlondike copy = GameStateCodec.decode(buffer);
+    assertFalse(buffer.hasRemaining());
+    assertEquals(new KlondikeTextualView(basic).toString(),
+        new KlondikeTextualView(copy).toString());
+  }
+
+  @Test
+  public void testCodecCanLeaveOutJournal() {
+    klondike.startGame(valueCards, 3L, 7, 3);
+    Random random = new Random(3);
+    for (int turn = 0; turn < 40; turn++) {
+      playRandomMove(klondike, random);
+    }
+    byte[] bytes = GameStateCodec.encode(klondike, false);
+    assertEquals(GameStateCodec.sizeOf(klondike, false), bytes.length);
+    assertTrue(bytes.length < GameStateCodec.encode(klondike).length);
+    AbstractKlondike copy = GameStateCodec.decode(bytes);
+    assertEquals(klondike.positionHash(), copy.positionHash());
+    assertFalse(copy.canUndo());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testCodecRejectsDuplicateCard() {
+    klondike.startGame(valueCards, false, 7, 3);
+    byte[] bytes = GameStateCodec.encode(klondike, false);
+    bytes[9] = bytes[bytes.length - 1];
+    GameStateCodec.decode(bytes);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testCodecRejectsMoveOffTheBoard() {
+    klondike.startGame(valueCards, false, 7, 3);
+    klondike.discardDraw();
+    byte[] bytes = GameStateCodec.encode(klondike);
+    bytes[bytes.length - 1] |= 1 << 3;
+    GameStateCodec.decode(bytes);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testCodecRejectsJournalTheBoardCannotUndo() {
+    klondike.startGame(valueCards, false, 7, 3);
+    klondike.discardDraw();
+    byte[] bytes = GameStateCodec.encode(klondike);
+    bytes[bytes.length - 1] = (byte) Moves.DRAW_TO_FOUNDATION;
+    GameStateCodec.decode(bytes);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testCodecRejectsUnknownVersion() {
+    klondike.startGame(valueCards, false, 7, 3);
+    byte[] bytes = GameStateCodec.encode(klondike);
+    bytes[2] = (byte) (GameStateCodec.VERSION + 1);
+    GameStateCodec.decode(bytes);
+  }
+
+  @Test
+  public void testReplayLogReproducesGames() throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    List<Long> hashes = new ArrayList<>();
+    try (ReplayWriter log = new ReplayWriter(bytes)) {
+      for (int seed = 0; seed < 4; seed++) {
+        AbstractKlondike model = seed % 2 == 0 ? new WhiteheadKlondike() : new BasicKlondike();
+        model.setReplayLog(log);
+        model.startGame(model.createNewDeck(), (long) seed, 7, 3);
+        hashes.add(model.positionHash());
+        Random random = new Random(seed);
+        int accepted = 0;
+        while (accepted < 40) {
+          if (playRandomMove(model, random)) {
+            hashes.add(model.positionHash());
+            accepted++;
+          }
+        }
+        model.undo();
+        model.undo();
+        model.redo();
+        hashes.add(model.positionHash());
+      }
+    }
+    byte[] log = Arrays.copyOf(bytes.toByteArray(), bytes.size() + 2);
+    ReplayReader reader = new ReplayReader(new ByteArrayInputStream(log));
+    for (int seed = 0; seed < 4; seed++) {
+      ReplayGame game = reader.next();
+      assertEquals(seed, game.getSeed());
+      assertEquals(43, game.getNumMoves());
+      assertEquals(-1, game.verify());
+      for (int move = 0; move <= 40; move += 8) {
+        assertEquals(hashes.get(seed * 42 + move).longValue(), game.replay(move).positionHash());
+      }
+      assertEquals(hashes.get(seed * 42 + 41).longValue(), game.replay().positionHash());
+    }
+    assertEquals(null, reader.next());
+  }
+
+  @Test
+  public void testReplayVerifyFindsRejectedMove() throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ReplayWriter log = new ReplayWriter(bytes)) {
+      klondike.setReplayLog(log);
+      klondike.startGame(valueCards, false, 7, 3);
+      klondike.discardDraw();
+      klondike.moveToFoundation(0, 0);
+    }
+    byte[] log = bytes.toByteArray();
+    log[log.length - 1] ^= 1 << 3;
+    ReplayGame game = new ReplayReader(new ByteArrayInputStream(log)).next();
+    assertFalse(game.isSeeded());
+    assertEquals(1, game.verify());
+  }
+
+  /**
+   * Gives the suit symbol a card is printed with.
+   *
+   * @param card card to read.
+   * @return the last character of the card's string.
+   */
+  private char suitOf(ValueCard card) {
+    String text = card.toString();
+    return text.charAt(text.length() - 1);
+  }
+
+  /**
+   * Plays a game by applying generated moves and checks at every step that the generated
+   * moves are exactly the commands the model accepts, found by trying each one and undoing it.
+   *
+   * @param model model being played.
+   * @param seed  seed for the deal and the moves picked.
+   */
+  private void compareLegalMoves(AbstractKlondike model, int seed) {
+    model.startGame(model.createNewDeck(), (long) seed, 7, 3);
+    Random random = new Random(seed);
+    int[] buffer = new int[512];
+    for (int turn = 0; turn < 100; turn++) {
+      int count = model.legalMoves(buffer);
+      Set<Integer> generated = new HashSet<>();
+      for (int index = 0; index < count; index++) {
+        generated.add(buffer[index]);
+      }
+      assertEquals(count, generated.size());
+      assertEquals(acceptedMoves(model), generated);
+      if (count == 0) {
+        return;
+      }
+      model.applyMove(buffer[random.nextInt(count)]);
+    }
+  }
+
+  /**
+   * Tries every command on the model, undoing each one the model accepts.
+   *
+   * @param model model being checked.
+   * @return the encoded moves that were accepted.
+   */
+  private Set<Integer> acceptedMoves(AbstractKlondike model) {
+    Set<Integer> accepted = new HashSet<>();
+    for (int src = 0; src < model.getNumPiles(); src++) {
+      for (int dest = 0; dest < model.getNumPiles(); dest++) {
+        for (int cards = 1; cards <= model.getPileHeight(src); cards++) {
+          final int from = src;
+          final int to = dest;
+          final int count = cards;
+          if (accepts(model, () -> model.movePile(from, count, to))) {
+            accepted.add(Moves.encode(Moves.PILE_TO_PILE, src, dest, cards));
+          }
+        }
+      }
+      for (int foundation = 0; foundation < model.getNumFoundations(); foundation++) {
+        final int from = src;
+        final int to = foundation;
+        if (accepts(model, () -> model.moveToFoundation(from, to))) {
+          accepted.add(Moves.encode(Moves.PILE_TO_FOUNDATION, src, foundation, 1));
+        }
+      }
+      final int to = src;
+      if (accepts(model, () -> model.moveDraw(to))) {
+        accepted.add(Moves.encode(Moves.DRAW_TO_PILE, 0, src, 1));
+      }
+    }
+    for (int foundation = 0; foundation < model.getNumFoundations(); foundation++) {
+      final int to = foundation;
+      if (accepts(model, () -> model.moveDrawToFoundation(to))) {
+        accepted.add(Moves.encode(Moves.DRAW_TO_FOUNDATION, 0, foundation, 1));
+      }
+    }
+    if (accepts(model, model::discardDraw)) {
+      accepted.add(Moves.encode(Moves.DISCARD, 0, 0, 1));
+    }
+    return accepted;
+  }
+
+  /**
+   * Tries one command and undoes it if the model accepted it.
+   *
+   * @param model   model being checked.
+   * @param command command to try.
+   * @return true if the model accepted the command.
+   */
+  private boolean accepts(AbstractKlondike model, Runnable command) {
+    try {
+      command.run();
+    } catch (IllegalArgumentException | IllegalStateException e) {
+      return false;
+    }
+    model.undo();
+    return true;
+  }
+
+  /**
+   * Plays random commands, then undoes every move and redoes them again, checking that
+   * each step shows the same board as when the move was first made.
+   *
+   * @param model model being played.
+   * @param seed  seed for the deal and the commands.
+   */
+  private void retraceWithUndo(AbstractKlondike model, int seed) {
+    model.setDebugMoveTracking(true);
+    model.startGame(model.createNewDeck(), (long) seed, 7, 3);
+    KlondikeTextualView view = new KlondikeTextualView(model);
+    List<String> boards = new ArrayList<>();
+    boards.add(view.toString());
+    Random random = new Random(seed);
+    for (int turn = 0; turn < 300; turn++) {
+      if (playRandomMove(model, random)) {
+        boards.add(view.toString());
+      }
+    }
+    for (int step = boards.size() - 1; step > 0; step--) {
+      assertEquals(boards.get(step), view.toString());
+      model.undo();
+      model.isGameOver();
+    }
+    assertEquals(boards.get(0), view.toString());
+    assertFalse(model.canUndo());
+    for (int step = 1; step < boards.size(); step++) {
+      model.redo();
+      model.isGameOver();
+      assertEquals(boards.get(step), view.toString());
+    }
+  }
+
+  /**
+   * Plays random commands with the debug check on, so any isGameOver answer that differs
+   * from a full scan of the board throws.
+   *
+   * @param model model being played.
+   * @param seed  seed for the deal and the commands.
+   */
+  private void playWithDebugTracking(AbstractKlondike model, int seed) {
+    model.setDebugMoveTracking(true);
+    Random random = new Random(seed);
+    List<ValueCard> deck = model.createNewDeck();
+    Collections.shuffle(deck, random);
+    model.startGame(deck, false, 7, 3);
+    for (int turn = 0; turn < 2000 && !model.isGameOver(); turn++) {
+      playRandomMove(model, random);
+    }
+  }
+
+  /**
+   * Makes one random command on a model.
+   *
+   * @param model  model being played.
+   * @param random source of the command and its arguments.
+   * @return true if the model accepted the command.
+   */
+  private boolean playRandomMove(AbstractKlondike model, Random random) {
+    try {
+      switch (random.nextInt(5)) {
+        case 0:
+          model.movePile(random.nextInt(7), 1 + random.nextInt(3), random.nextInt(7));
+          break;
+        case 1:
+          model.moveToFoundation(random.nextInt(7), random.nextInt(4));
+          break;
+        case 2:
+          model.moveDrawToFoundation(random.nextInt(4));
+          break;
+        case 3:
+          model.moveDraw(random.nextInt(7));
+          break;
+        default:
+          model.discardDraw();
+          break;
+      }
+      return true;
+    } catch (IllegalArgumentException | IllegalStateException e) {
+      // rejected moves leave the board alone
+      return false;
+    }
+  }
 }
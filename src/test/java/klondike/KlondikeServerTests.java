@@ -0,0 +1,134 @@
+package klondike;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import klondike.model.hw04.KlondikeCreator;
+import klondike.server.KlondikeServer;
+import klondike.server.LatencyHistogram;
+import klondike.server.ParkingKlondike;
+import klondike.server.SessionStore;
+import klondike.view.KlondikeTextualView;
+import org.junit.Test;
+
+/**
+ * Class to test the game server with clients on the loopback address.
+ */
+public class KlondikeServerTests {
+
+  /**
+   * Reads lines from a connection until one starts with a prefix.
+   *
+   * @param in     the connection's input.
+   * @param prefix start of the line waited for.
+   * @return every line read, each followed by a line break.
+   * @throws IOException if the connection closes first.
+   */
+  private String readUntil(BufferedReader in, String prefix) throws IOException {
+    StringBuilder text = new StringBuilder();
+    String line = in.readLine();
+    while (line != null) {
+      text.append(line).append("\n");
+      if (line.startsWith(prefix)) {
+        return text.toString();
+      }
+      line = in.readLine();
+    }
+    throw new IOException("Closed before " + prefix);
+  }
+
+  @Test
+  public void testPlaysSessionsAndRecordsLatency() throws IOException {
+    try (KlondikeServer server = new KlondikeServer(KlondikeCreator.GameType.BASIC, 7, 3)) {
+      int port = server.start(0);
+      for (int session = 0; session < 3; session++) {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+          BufferedReader in = new BufferedReader(
+              new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+          OutputStream out = socket.getOutputStream();
+          assertTrue(readUntil(in, "Score:").startsWith("Draw: "));
+          out.write("dd\n".getBytes(StandardCharsets.US_ASCII));
+          assertTrue(readUntil(in, "Score:").endsWith("\nScore: 0\n"));
+          out.write("q\n".getBytes(StandardCharsets.US_ASCII));
+          assertTrue(readUntil(in, "Score:").startsWith("Game quit!\n"));
+        }
+      }
+      assertEquals(3, server.getSessionsStarted());
+      assertTrue(server.getLatency().count() >= 6);
+    }
+  }
+
+  @Test
+  public void testCloseEndsIdleSessions() throws IOException {
+    KlondikeServer server = new KlondikeServer(KlondikeCreator.GameType.WHITEHEAD, 7, 3);
+    int port = server.start(0);
+    try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+      BufferedReader in = new BufferedReader(
+          new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+      readUntil(in, "Score:");
+      assertEquals(1, server.getActiveSessions());
+      server.close();
+      assertEquals("Server shutting down.\n", readUntil(in, "Server"));
+      assertEquals(0, server.getActiveSessions());
+      assertEquals(1, server.getSessionsFinished());
+    }
+  }
+
+  @Test
+  public void testStoreParksAndRereadsGames() {
+    try (SessionStore store = new SessionStore(1, 60_000)) {
+      ParkingKlondike first = store.open(KlondikeCreator.GameType.BASIC);
+      ParkingKlondike second = store.open(KlondikeCreator.GameType.WHITEHEAD);
+      first.startGame(first.createNewDeck(), 1L, 7, 3);
+      first.discardDraw();
+      String board = new KlondikeTextualView(first).toString();
+      second.startGame(second.createNewDeck(), 2L, 7, 3);
+      assertTrue(first.isParked());
+      assertFalse(second.isParked());
+      assertTrue(first.getParkedBytes() > 0 && first.getParkedBytes() < 100);
+      assertEquals(1, store.getEvictions());
+      long misses = store.getMisses();
+      assertEquals(board, new KlondikeTextualView(first).toString());
+      assertEquals(misses + 1, store.getMisses());
+      assertTrue(second.isParked());
+      first.undo();
+      assertEquals(0, first.getScore());
+      assertTrue(first.canRedo());
+      assertEquals(1, store.getHotGames());
+    }
+  }
+
+  @Test
+  public void testStoreParksIdleGames() throws InterruptedException {
+    try (SessionStore store = new SessionStore(10, 20)) {
+      ParkingKlondike game = store.open(KlondikeCreator.GameType.WHITEHEAD);
+      game.startGame(game.createNewDeck(), 3L, 7, 3);
+      for (int wait = 0; wait < 200 && store.getExpirations() == 0; wait++) {
+        Thread.sleep(10);
+      }
+      assertTrue(game.isParked());
+      assertEquals(1, store.getExpirations());
+      assertEquals(0, store.getHotGames());
+    }
+  }
+
+  @Test
+  public void testHistogramPercentiles() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (long nanos = 1; nanos <= 1000; nanos++) {
+      histogram.record(nanos * 1000);
+    }
+    assertEquals(1000, histogram.count());
+    long p99 = histogram.percentile(99);
+    assertTrue(p99 >= 990_000 && p99 <= 990_000 * 107 / 100);
+    assertEquals(0, new LatencyHistogram().percentile(99));
+  }
+}
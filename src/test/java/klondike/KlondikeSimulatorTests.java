@@ -0,0 +1,86 @@
+package klondike;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import klondike.model.hw04.KlondikeCreator.GameType;
+import klondike.model.hw04.Moves;
+import klondike.simulation.GreedyPolicy;
+import klondike.simulation.KlondikeSimulator;
+import klondike.simulation.Policy;
+import klondike.simulation.RandomPolicy;
+import klondike.simulation.SimulationResult;
+import org.junit.Test;
+
+/**
+ * Class to test the simulation engine and its policies.
+ */
+public class KlondikeSimulatorTests {
+
+  @Test
+  public void testSameTotalsOnAnyNumberOfThreads() {
+    for (GameType gameType : GameType.values()) {
+      SimulationResult one = new KlondikeSimulator(1, 500)
+          .simulate(gameType, 7, 3, 300, 11L, new RandomPolicy());
+      SimulationResult four = new KlondikeSimulator(4, 500)
+          .simulate(gameType, 7, 3, 300, 11L, new RandomPolicy());
+      assertEquals(one.toString(), four.toString());
+      assertEquals(300, four.getGames());
+    }
+  }
+
+  @Test
+  public void testGreedyWinsEverySinglePileGame() {
+    SimulationResult result = new KlondikeSimulator(2, 1000)
+        .simulate(GameType.WHITEHEAD, 1, 1, 200, 0L, new GreedyPolicy());
+    assertEquals(200, result.getWins());
+    assertEquals(1.0, result.getWinRate(), 0);
+    assertEquals(52.0, result.getMeanScore(), 0);
+  }
+
+  @Test
+  public void testGreedyBeatsRandom() {
+    KlondikeSimulator simulator = new KlondikeSimulator(2, 200);
+    SimulationResult greedy = simulator.simulate(GameType.BASIC, 4, 1, 500, 0L,
+        new GreedyPolicy());
+    SimulationResult random = simulator.simulate(GameType.BASIC, 4, 1, 500, 0L,
+        new RandomPolicy());
+    assertTrue(greedy.getMeanScore() > random.getMeanScore());
+  }
+
+  @Test
+  public void testGreedyStopsWhenOnlyCyclingTheStock() {
+    for (GameType gameType : GameType.values()) {
+      SimulationResult result = new KlondikeSimulator(2, 10000)
+          .simulate(gameType, 7, 3, 200, 0L, new GreedyPolicy());
+      assertTrue(result.getMeanMoves() < 500);
+    }
+  }
+
+  @Test
+  public void testDiscardingWhileOtherMovesAreLegalDoesNotEndTheGame() {
+    Policy discardFirst = (model, moves, count, random) -> {
+      for (int index = 0; index < count; index++) {
+        if (Moves.kind(moves[index]) == Moves.DISCARD) {
+          return index;
+        }
+      }
+      return 0;
+    };
+    for (GameType gameType : GameType.values()) {
+      SimulationResult result = new KlondikeSimulator(2, 500)
+          .simulate(gameType, 7, 3, 20, 0L, discardFirst);
+      assertEquals(500.0, result.getMeanMoves(), 0);
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testTooManyPiles() {
+    new KlondikeSimulator(1, 100).simulate(GameType.BASIC, 10, 1, 5, 0L, new GreedyPolicy());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNullPolicy() {
+    new KlondikeSimulator(1, 100).simulate(GameType.BASIC, 7, 1, 5, 0L, null);
+  }
+}
@@ -0,0 +1,152 @@
+package klondike;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import klondike.model.hw02.PossibleRank;
+import klondike.model.hw02.PossibleSuits;
+import klondike.model.hw04.AbstractKlondike;
+import klondike.model.hw04.BasicKlondike;
+import klondike.model.hw04.ValueCard;
+import klondike.model.hw04.WhiteheadKlondike;
+import klondike.solver.KlondikeSolver;
+import klondike.solver.ParallelKlondikeSolver;
+import klondike.solver.SolverResult;
+import org.junit.Test;
+
+/**
+ * Class to test the solver on both rule sets.
+ */
+public class KlondikeSolverTests {
+  private final KlondikeSolver solver = new KlondikeSolver(1_000_000, 60_000);
+
+  /**
+   * Checks that a result is a win and that its moves win a copy of the position.
+   *
+   * @param position position that was solved.
+   * @param result   what the solver returned.
+   */
+  private void assertWinningMoves(AbstractKlondike position, SolverResult result) {
+    assertEquals(SolverResult.Outcome.WIN, result.getOutcome());
+    AbstractKlondike replay = position.copy();
+    int[] buffer = new int[1024];
+    for (int move : result.getMoves()) {
+      int count = replay.legalMoves(buffer);
+      boolean legal = false;
+      for (int index = 0; index < count; index++) {
+        legal |= buffer[index] == move;
+      }
+      assertTrue(legal);
+      replay.applyMove(move);
+    }
+    assertTrue(replay.isGameOver());
+    assertEquals(52, replay.getScore());
+  }
+
+  @Test
+  public void testSolvesSeededWhiteheadDeals() {
+    for (long seed = 0; seed < 5; seed++) {
+      AbstractKlondike model = new WhiteheadKlondike();
+      model.startGame(model.createNewDeck(), seed, 7, 3);
+      assertWinningMoves(model, solver.solve(model));
+    }
+  }
+
+  @Test
+  public void testSolvesSeededBasicDeals() {
+    for (long seed = 0; seed < 5; seed++) {
+      AbstractKlondike model = new BasicKlondike();
+      model.startGame(model.createNewDeck(), seed, 7, 3);
+      assertWinningMoves(model, solver.solve(model));
+    }
+  }
+
+  @Test
+  public void testSolveLeavesPositionAlone() {
+    AbstractKlondike model = new WhiteheadKlondike();
+    model.startGame(model.createNewDeck(), 3L, 7, 3);
+    long before = model.computePositionHash();
+    solver.solve(model);
+    assertEquals(before, model.computePositionHash());
+  }
+
+  /**
+   * Deals a single suit with the ace under the three, which no move can ever reach.
+   *
+   * @return the started game.
+   */
+  private AbstractKlondike buriedAce() {
+    List<ValueCard> deck = new ArrayList<>();
+    deck.add(new ValueCard(PossibleSuits.Clover, PossibleRank.Two));
+    deck.add(new ValueCard(PossibleSuits.Clover, PossibleRank.Ace));
+    for (PossibleRank rank : PossibleRank.values()) {
+      if (rank != PossibleRank.Ace && rank != PossibleRank.Two) {
+        deck.add(new ValueCard(PossibleSuits.Clover, rank));
+      }
+    }
+    AbstractKlondike model = new BasicKlondike();
+    model.startGame(deck, false, 2, 1);
+    return model;
+  }
+
+  @Test
+  public void testProvesBuriedAceUnwinnable() {
+    SolverResult result = solver.solve(buriedAce());
+    assertEquals(SolverResult.Outcome.UNWINNABLE, result.getOutcome());
+    assertEquals(0, result.getMoves().length);
+  }
+
+  @Test
+  public void testBudgetGivesUnknown() {
+    AbstractKlondike model = new WhiteheadKlondike();
+    model.startGame(model.createNewDeck(), 0L, 7, 3);
+    SolverResult result = new KlondikeSolver(10, 60_000).solve(model);
+    assertEquals(SolverResult.Outcome.UNKNOWN, result.getOutcome());
+  }
+
+  @Test
+  public void testParallelSolvesSeededDeals() {
+    ParallelKlondikeSolver parallel = new ParallelKlondikeSolver(4, 1_000_000, 60_000);
+    for (long seed = 1; seed < 6; seed++) {
+      AbstractKlondike whitehead = new WhiteheadKlondike();
+      whitehead.startGame(whitehead.createNewDeck(), seed, 7, 3);
+      assertWinningMoves(whitehead, parallel.solve(whitehead));
+      AbstractKlondike basic = new BasicKlondike();
+      basic.startGame(basic.createNewDeck(), seed, 7, 3);
+      assertWinningMoves(basic, parallel.solve(basic));
+    }
+  }
+
+  @Test
+  public void testParallelProvesBuriedAceUnwinnable() {
+    SolverResult result = new ParallelKlondikeSolver(4, 1_000_000, 60_000).solve(buriedAce());
+    assertEquals(SolverResult.Outcome.UNWINNABLE, result.getOutcome());
+  }
+
+  @Test
+  public void testParallelFullTableGivesUnknown() {
+    SolverResult result = new ParallelKlondikeSolver(4, 1_000_000, 60_000, 1)
+        .solve(buriedAce());
+    assertEquals(SolverResult.Outcome.UNKNOWN, result.getOutcome());
+  }
+
+  @Test
+  public void testParallelBudgetGivesUnknown() {
+    AbstractKlondike model = new WhiteheadKlondike();
+    model.startGame(model.createNewDeck(), 75L, 7, 3);
+    SolverResult result = new ParallelKlondikeSolver(4, 1000, 60_000).solve(model);
+    assertEquals(SolverResult.Outcome.UNKNOWN, result.getOutcome());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testBadBudget() {
+    new KlondikeSolver(0, 1000);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testSolveNotStarted() {
+    solver.solve(new BasicKlondike());
+  }
+}
@@ -1,11 +1,14 @@
 package klondike;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 import java.util.List;
 import klondike.model.hw04.BasicKlondike;
 import klondike.model.hw04.KlondikeModel;
 import klondike.model.hw04.ValueCard;
+import klondike.view.KlondikeDiffView;
 import klondike.view.KlondikeTextualView;
 import org.junit.Before;
 import org.junit.Test;
@@ -54,4 +57,22 @@ public class KlondikeTextualViewTests {
         "                   7♠\n", result);
 
   }
+
+  @Test
+  public void testDiffViewRedrawsChangedLines() throws Exception {
+    model.startGame(drawCards, false, 7, 1);
+    StringBuilder out = new StringBuilder();
+    KlondikeDiffView diff = new KlondikeDiffView(model, out);
+    diff.render();
+    assertTrue(out.toString().startsWith("\u001b[H\u001b[2J\u001b[1;1HDraw: 8♣\u001b[K"));
+    assertTrue(out.toString().contains("\u001b[9;1H                   7♠\u001b[K"));
+    assertEquals(view.toString(), diff.toString());
+    out.setLength(0);
+    model.discardDraw();
+    diff.render();
+    assertEquals("\u001b[1;1HDraw: 8♢\u001b[K\u001b[10;1H\u001b[J", out.toString());
+    out.setLength(0);
+    diff.render();
+    assertFalse(out.toString().contains("Draw"));
+  }
 }